@@ -0,0 +1,80 @@
+package g63551.dev3.oxono.benchmark;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.Color;
+import g63551.dev3.oxono.model.Symbol;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule queries of the board on a midgame position, about a third of the cells holding a token.
+ * Each benchmark asks its question for every cell, or for both symbols, so that the scores of
+ * different sizes are the cost of a whole sweep.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"4", "6", "8", "12"})
+    int size;
+
+    @Param({"ARRAY", "FASTEST"})
+    String implementation;
+
+    private Board board;
+    private int cells;
+    private int[] turns;
+
+    @Setup
+    public void setUp() {
+        board = Positions.midgame(Positions.type(implementation, size), size, size);
+        cells = size * size;
+        turns = new int[board.maxTurns()];
+    }
+
+    @Benchmark
+    public void isValidMove(Blackhole blackhole) {
+        for (int cell = 0; cell < cells; cell++) {
+            blackhole.consume(board.isValidMove(Symbol.CROSS, cell));
+            blackhole.consume(board.isValidMove(Symbol.CIRCLE, cell));
+        }
+    }
+
+    @Benchmark
+    public void getPossibleTotemMoves(Blackhole blackhole) {
+        blackhole.consume(board.getPossibleTotemMoves(Symbol.CROSS));
+        blackhole.consume(board.getPossibleTotemMoves(Symbol.CIRCLE));
+    }
+
+    @Benchmark
+    public void getEmptyPositions(Blackhole blackhole) {
+        blackhole.consume(board.getEmptyPositions(Symbol.CROSS, Color.PINK));
+        blackhole.consume(board.getEmptyPositions(Symbol.CIRCLE, Color.PINK));
+    }
+
+    @Benchmark
+    public void checkAlignment(Blackhole blackhole) {
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                blackhole.consume(board.checkAlignment(x, y, 0, 1));
+                blackhole.consume(board.checkAlignment(x, y, 1, 0));
+            }
+        }
+    }
+
+    @Benchmark
+    public int countEmpty() {
+        return board.countEmpty();
+    }
+
+    @Benchmark
+    public int generateTurns() {
+        return board.generateTurns(turns);
+    }
+}
@@ -0,0 +1,117 @@
+package g63551.dev3.oxono.benchmark;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.BoardType;
+import g63551.dev3.oxono.model.Game;
+import g63551.dev3.oxono.model.Moves;
+import g63551.dev3.oxono.model.strategy.RandomStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns played through the game, with its commands and its win check, and whole random games.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"4", "6", "8", "12"})
+    int size;
+
+    @Param({"ARRAY", "FASTEST"})
+    String implementation;
+
+    private BoardType type;
+    private Game midgame;
+    private int[] turns;
+    private int count;
+    private int next;
+    private Random random;
+    private Game game;
+    private int insertCell;
+
+    /**
+     * Plays the turns of {@link Positions#midgame} through a game and keeps the legal turns of
+     * the position reached.
+     */
+    @Setup
+    public void setUp() {
+        type = Positions.type(implementation, size);
+        midgame = new Game(size, 1, type);
+        for (int turn : Positions.midgameTurns(type, size, size)) {
+            midgame.applyTurn(turn);
+        }
+        Board board = midgame.snapshot(type);
+        turns = new int[board.maxTurns()];
+        count = board.generateTurns(turns);
+        random = new Random(size);
+    }
+
+    /**
+     * Forks the midgame and moves a totem before each call of {@link #insertWithWinCheck()}, so
+     * that neither is measured. Per-call setup adds the cost of JMH's own timestamps, the same for
+     * every size and implementation.
+     */
+    @Setup(Level.Invocation)
+    public void prepareInsertion() {
+        game = midgame.fork();
+        int turn = turns[next];
+        next = (next + 1 == count) ? 0 : next + 1;
+        int totemMove = Moves.totemMove(turn);
+        game.move(Moves.cell(totemMove) / size, Moves.cell(totemMove) % size, Moves.symbol(totemMove));
+        insertCell = Moves.insertCell(turn);
+    }
+
+    /**
+     * Inserts a token through the game, which checks for a win, after the totem move prepared by
+     * {@link #prepareInsertion()}.
+     */
+    @Benchmark
+    public boolean insertWithWinCheck() {
+        game.insert(insertCell / size, insertCell % size);
+        return game.isEnd();
+    }
+
+    /**
+     * Plays a random game to its end on a board, with make and unmake turns.
+     */
+    @Benchmark
+    public int randomGameOnBoard() {
+        Board board = type.create(size);
+        RandomStrategy strategy = new RandomStrategy(random);
+        int played = 0;
+        for (int turn = strategy.chooseTurn(board); turn >= 0; turn = strategy.chooseTurn(board)) {
+            board.makeMove(turn);
+            played++;
+            if (board.isWinningCell(Moves.insertCell(turn))) {
+                break;
+            }
+        }
+        return played;
+    }
+
+    /**
+     * Plays a random game to its end through the game, with its commands and observers.
+     */
+    @Benchmark
+    public int randomGameThroughGame() {
+        Game game = new Game(size, 1, type);
+        RandomStrategy strategy = new RandomStrategy(random);
+        int played = 0;
+        while (!game.isEnd()) {
+            int turn = strategy.chooseTurn(game.snapshot(type));
+            if (turn < 0) {
+                break;
+            }
+            game.applyTurn(turn);
+            played++;
+        }
+        return played;
+    }
+}
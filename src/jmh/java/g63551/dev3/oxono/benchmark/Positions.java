@@ -0,0 +1,80 @@
+package g63551.dev3.oxono.benchmark;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.BoardType;
+import g63551.dev3.oxono.model.Moves;
+import g63551.dev3.oxono.model.strategy.RandomStrategy;
+
+import java.util.Random;
+
+/**
+ * Positions shared by the benchmarks, reached by seeded random play so that every run measures
+ * the same work.
+ */
+final class Positions {
+
+    private Positions() {
+    }
+
+    /**
+     * Returns the implementation named by a benchmark parameter.
+     *
+     * @param implementation {@code ARRAY} for the reference board, {@code FASTEST} for the fastest
+     *                       board supporting the size
+     * @param size           the size of the board
+     * @return the implementation
+     */
+    static BoardType type(String implementation, int size) {
+        return "ARRAY".equals(implementation) ? BoardType.ARRAY : BoardType.fastestFor(size);
+    }
+
+    /**
+     * Plays random turns until about a third of the cells hold a token, without ending the game.
+     *
+     * @param type the implementation of the board
+     * @param size the size of the board
+     * @param seed the seed of the random turns
+     * @return the position reached
+     */
+    static Board midgame(BoardType type, int size, long seed) {
+        Board board = type.create(size);
+        for (int turn : midgameTurns(type, size, seed)) {
+            board.makeMove(turn);
+        }
+        return board;
+    }
+
+    /**
+     * Returns the turns leading to the position of {@link #midgame}, so that it can also be
+     * reached through a game.
+     *
+     * @param type the implementation of the board
+     * @param size the size of the board
+     * @param seed the seed of the random turns
+     * @return the turns, from the initial position
+     */
+    static int[] midgameTurns(BoardType type, int size, long seed) {
+        Random random = new Random(seed);
+        int tokens = size * size / 3;
+        int[] turns = new int[tokens];
+        while (true) {
+            Board board = type.create(size);
+            RandomStrategy strategy = new RandomStrategy(random);
+            int played = 0;
+            while (played < tokens) {
+                int turn = strategy.chooseTurn(board);
+                if (turn < 0) {
+                    break;
+                }
+                board.makeMove(turn);
+                if (board.isWinningCell(Moves.insertCell(turn))) {
+                    break;
+                }
+                turns[played++] = turn;
+            }
+            if (played == tokens) {
+                return turns;
+            }
+        }
+    }
+}
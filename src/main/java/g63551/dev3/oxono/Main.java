@@ -34,6 +34,9 @@ public class Main extends Application {
         // Create the controller for managing the game logic and interaction with the view
         Controller controller = new Controller(mainView);
 
+        // Write the journal of the game before the window is closed
+        primaryStage.setOnCloseRequest(event -> controller.shutdown());
+
         // Show the main game window (primary stage)
         primaryStage.show();
     }
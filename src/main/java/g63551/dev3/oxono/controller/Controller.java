@@ -1,10 +1,17 @@
 package g63551.dev3.oxono.controller;
 
 import g63551.dev3.oxono.model.*;
+import g63551.dev3.oxono.model.command.CommandJournal;
+import g63551.dev3.oxono.model.strategy.CancellationToken;
+import g63551.dev3.oxono.model.strategy.RandomStrategy;
 import g63551.dev3.oxono.view.MainView;
 import javafx.application.Platform;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * The Controller class handles user input and manages interactions between the
@@ -17,6 +24,9 @@ public class Controller {
     private Game game;
     private Totem currentTotem;
     private Position selectedTotemPosition;
+    private final ExecutorService bot;
+    private CancellationToken botRequest;
+    private boolean botThinking;
 
     /**
      * Constructs a Controller object.
@@ -26,9 +36,81 @@ public class Controller {
      */
     public Controller(MainView mainView) {
         this.currentTotem = null;
+        this.bot = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "oxono-bot");
+            thread.setDaemon(true);
+            return thread;
+        });
         this.mainView = mainView;
         mainView.setController(this);
         mainView.instantiationScene();
+        recoverGame();
+    }
+
+    /**
+     * Resumes the game recorded in the journal file, if the application stopped before the end
+     * of the game. An automatic player stopped in the middle of its turn starts it again.
+     */
+    private void recoverGame() {
+        Path file = CommandJournal.defaultFile();
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            Game recovered = Game.recover(file);
+            if (recovered.isEnd() || recovered.isDraw()) {
+                recovered.closeJournal();
+                return;
+            }
+            this.game = recovered;
+            if (game.getCurrentColor() == Color.BLACK && game.getGameState() == GameState.INSERT) {
+                game.seek(game.getPly() - 1);
+            }
+            mainView.showMainGameView(game);
+            if (game.getCurrentColor() == Color.BLACK) {
+                startAutoPlay();
+            }
+            System.out.println("Game recovered from " + file + ".");
+        } catch (IOException | IllegalStateException e) {
+            System.out.println("The journal cannot be recovered : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records the current game in the journal file, replacing the previous game.
+     */
+    private void startJournal() {
+        try {
+            game.journalTo(CommandJournal.defaultFile());
+        } catch (IOException e) {
+            System.out.println("The game cannot be journaled : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reports the error of the journal, once, if it could not be written and the game goes on
+     * without it.
+     */
+    private void reportJournalFailure() {
+        IOException failure = game.takeJournalFailure();
+        if (failure != null) {
+            System.out.println("The journal cannot be written, the game is no longer journaled : "
+                    + failure.getMessage());
+        }
+    }
+
+    /**
+     * Stops recording the current game, if any.
+     */
+    private void closeJournal() {
+        if (game == null) {
+            return;
+        }
+        try {
+            game.closeJournal();
+        } catch (IOException e) {
+            System.out.println("The journal cannot be written : " + e.getMessage());
+        }
     }
 
     /**
@@ -38,7 +120,11 @@ public class Controller {
      * @param selectedLevel The level of difficulty for the game.
      */
     public void initializeInputHandlers(int selectedSize, int selectedLevel) {
+        cancelAutoPlay();
+        stopPondering();
+        closeJournal();
         this.game = new Game(selectedSize, selectedLevel);
+        startJournal();
         mainView.showMainGameView(game);
     }
 
@@ -49,11 +135,15 @@ public class Controller {
      * @param pos The position where the user clicked.
      */
     public void click(Position pos) {
+        if (botThinking) {
+            return;
+        }
         if (game.getGameState() == GameState.MOVE) {
             handleMoveState(pos);
         } else {
             handleInsertState(pos);
         }
+        reportJournalFailure();
     }
 
     /**
@@ -117,7 +207,7 @@ public class Controller {
         try {
             game.insert(pos.getX(), pos.getY());
             if (!game.isEnd()) {
-                game.autoPlay();
+                startAutoPlay();
             }
         } catch (IllegalArgumentException e) {
             mainView.displayError();
@@ -125,11 +215,91 @@ public class Controller {
         }
     }
 
+    /**
+     * Lets the automatic player choose its turn on a background thread, so that the interface
+     * stays responsive, then plays it on the JavaFX thread.
+     * The result is dropped if the search was cancelled in the meantime. If the search fails, a
+     * random legal turn is played instead, so that the game goes on.
+     */
+    private void startAutoPlay() {
+        Game playing = game;
+        Board position = playing.snapshot(BoardType.fastestFor(playing.getSize()));
+        Board spare = playing.snapshot(BoardType.fastestFor(playing.getSize()));
+        CancellationToken request = new CancellationToken();
+        botRequest = request;
+        botThinking = true;
+        bot.execute(() -> {
+            int turn;
+            try {
+                turn = playing.chooseAutoTurn(position, request);
+            } catch (RuntimeException e) {
+                System.out.println("Automatic play failed : " + e.getMessage());
+                turn = -1;
+            }
+            if (turn < 0 && !request.isCancelled()) {
+                turn = new RandomStrategy().chooseTurn(spare);
+            }
+            int chosen = turn;
+            Platform.runLater(() -> finishAutoPlay(request, chosen));
+        });
+    }
+
+    /**
+     * Plays the turn chosen by the automatic player, unless its search was cancelled.
+     * Without a legal turn, the board stays locked, as the human player must not play black;
+     * only undo and surrender remain.
+     *
+     * @param request the request of the search that chose the turn
+     * @param turn    the chosen turn, or -1 if there is none
+     */
+    private void finishAutoPlay(CancellationToken request, int turn) {
+        if (request != botRequest) {
+            return;
+        }
+        if (turn < 0) {
+            System.out.println("The automatic player has no legal turn.");
+            return;
+        }
+        botThinking = false;
+        game.applyTurn(turn);
+        reportJournalFailure();
+        game.startPondering();
+    }
+
+    /**
+     * Stops the search of the automatic player, if one is running, and forgets its result.
+     */
+    private void cancelAutoPlay() {
+        if (botThinking) {
+            botRequest.cancel();
+            botRequest = null;
+            botThinking = false;
+        }
+    }
+
+    /**
+     * Stops the automatic player from thinking on the human player's time, once the position it
+     * thinks about can no longer be reached.
+     */
+    private void stopPondering() {
+        if (game != null) {
+            game.stopPondering();
+        }
+    }
+
     /**
      * Handles the surrender button action.
      * Ends the game and displays a surrender message.
      */
     public void surrenderButton() {
+        cancelAutoPlay();
+        stopPondering();
+        closeJournal();
+        try {
+            Files.deleteIfExists(CommandJournal.defaultFile());
+        } catch (IOException e) {
+            System.out.println("The journal cannot be deleted : " + e.getMessage());
+        }
         mainView.surrender();
     }
 
@@ -137,10 +307,13 @@ public class Controller {
      * Handles the undo button action. Undoes the last action in the game.
      */
     public void initializeButtonUndoHandlers() {
+        cancelAutoPlay();
+        stopPondering();
         if (game.getGameState() == GameState.MOVE) {
             currentTotem = null;
         }
         game.undo();
+        reportJournalFailure();
         System.out.println("Undo successfully completed.");
         buttonLogic();
     }
@@ -149,7 +322,11 @@ public class Controller {
      * Handles the redo button action. Redoes the last undone action in the game.
      */
     public void initializeButtonRedoHandlers() {
+        if (botThinking) {
+            return;
+        }
         game.redo();
+        reportJournalFailure();
         System.out.println("Redo successfully completed.");
         buttonLogic();
     }
@@ -165,12 +342,23 @@ public class Controller {
     }
 
     /**
-     * Handles the quit button action. Exits the application.
+     * Handles the quit button action. Exits the application once the journal is written.
      */
     public void initializeButtonQuitHandlers() {
+        shutdown();
         Platform.exit();
     }
 
+    /**
+     * Stops the automatic player and writes the queued operations of the journal to the disk,
+     * so that the game can be resumed at the next start. Called before the application exits.
+     */
+    public void shutdown() {
+        cancelAutoPlay();
+        stopPondering();
+        closeJournal();
+    }
+
     /**
      * Checks and highlights available positions for moving the totem.
      *
@@ -178,8 +366,7 @@ public class Controller {
      */
     public void checkAvailablePositionTotem(Position pos) {
         if (currentTotem != null) {
-            List<Position> possibleMoves = game.getPossibleTotemMoves(currentTotem.getSymbol());
-            if (possibleMoves.contains(pos)) {
+            if (game.isValidMove(currentTotem, pos)) {
                 mainView.applyGlowEffect(pos, true);
             }
         }
@@ -192,8 +379,7 @@ public class Controller {
      */
     public void checkAvailablePositionToken(Position pos) {
         if (game.getGameState() == GameState.INSERT) {
-            List<Position> possibleInsert = game.getEmptyPositions(game.getToInsert(), game.getCurrentColor());
-            if (possibleInsert.contains(pos)) {
+            if (game.isValidInsert(pos)) {
                 mainView.applyGlowEffect(pos, true);
             }
         }
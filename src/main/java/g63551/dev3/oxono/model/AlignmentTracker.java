@@ -0,0 +1,166 @@
+package g63551.dev3.oxono.model;
+
+/**
+ * Keeps run-length counters of the tokens sharing a color or a symbol, so that an alignment
+ * through a cell can be detected in constant time.
+ * For each category (each color and each symbol) and each direction (left, right, up, down),
+ * the tracker stores for every cell the length of the run of tokens of that category starting at
+ * the cell and going in that direction, capped at the winning length. Placing or removing a token
+ * only updates the few cells of its row and column whose capped run goes through it.
+ */
+final class AlignmentTracker {
+
+    /**
+     * The number of aligned tokens needed to win.
+     */
+    static final int WIN_LENGTH = 4;
+
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+    private static final int UP = 2;
+    private static final int DOWN = 3;
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+
+    private final int size;
+    private final int cells;
+    private final byte[] runs;
+
+    /**
+     * Creates a tracker for an empty board of the given size.
+     *
+     * @param size the size of the board
+     */
+    AlignmentTracker(int size) {
+        this.size = size;
+        this.cells = size * size;
+        this.runs = new byte[4 * 4 * cells];
+    }
+
+    /**
+     * Creates a copy of the given tracker.
+     *
+     * @param other the tracker to copy
+     */
+    AlignmentTracker(AlignmentTracker other) {
+        this.size = other.size;
+        this.cells = other.cells;
+        this.runs = other.runs.clone();
+    }
+
+    /**
+     * Replaces the counters of this tracker with those of a tracker of the same size.
+     *
+     * @param other the tracker to copy
+     */
+    void copyFrom(AlignmentTracker other) {
+        System.arraycopy(other.runs, 0, runs, 0, runs.length);
+    }
+
+    private static int colorCategory(Color color) {
+        return color.ordinal();
+    }
+
+    private static int symbolCategory(Symbol symbol) {
+        return 2 + symbol.ordinal();
+    }
+
+    private int index(int category, int dir, int x, int y) {
+        return (category * 4 + dir) * cells + x * size + y;
+    }
+
+    private int run(int category, int dir, int x, int y) {
+        if (x < 0 || x >= size || y < 0 || y >= size) {
+            return 0;
+        }
+        return runs[index(category, dir, x, y)];
+    }
+
+    /**
+     * Records a token placed in the given cell.
+     *
+     * @param x     the row index of the cell
+     * @param y     the column index of the cell
+     * @param token the placed token
+     */
+    void place(int x, int y, Token token) {
+        update(colorCategory(token.getColor()), x, y, true);
+        update(symbolCategory(token.getSymbol()), x, y, true);
+    }
+
+    /**
+     * Records a token removed from the given cell.
+     *
+     * @param x     the row index of the cell
+     * @param y     the column index of the cell
+     * @param token the removed token
+     */
+    void remove(int x, int y, Token token) {
+        update(colorCategory(token.getColor()), x, y, false);
+        update(symbolCategory(token.getSymbol()), x, y, false);
+    }
+
+    /**
+     * Updates the runs of one category after the given cell changed.
+     * For each direction, the run of the cell is recomputed from its neighbour, then the runs of
+     * the cells behind it are refreshed until one of them is not part of the category. Runs are
+     * capped, so at most WIN_LENGTH - 1 cells behind the changed cell can be affected.
+     *
+     * @param category the category of the token
+     * @param x        the row index of the changed cell
+     * @param y        the column index of the changed cell
+     * @param present  true if the cell now holds a token of the category
+     */
+    private void update(int category, int x, int y, boolean present) {
+        for (int dir = 0; dir < 4; dir++) {
+            int dx = DX[dir];
+            int dy = DY[dir];
+            runs[index(category, dir, x, y)] = (byte) (present ? Math.min(WIN_LENGTH, 1 + run(category, dir, x + dx, y + dy)) : 0);
+
+            for (int k = 1; k < WIN_LENGTH; k++) {
+                int bx = x - k * dx;
+                int by = y - k * dy;
+                if (run(category, dir, bx, by) == 0) {
+                    break;
+                }
+                runs[index(category, dir, bx, by)] = (byte) Math.min(WIN_LENGTH, 1 + run(category, dir, bx + dx, by + dy));
+            }
+        }
+    }
+
+    /**
+     * Checks if the token in the given cell belongs to an alignment of WIN_LENGTH tokens
+     * sharing its color or its symbol, on its row or its column.
+     *
+     * @param x     the row index of the cell
+     * @param y     the column index of the cell
+     * @param token the token in the cell
+     * @return true if the token is part of a winning alignment, false otherwise
+     */
+    boolean isAligned(int x, int y, Token token) {
+        return isAligned(colorCategory(token.getColor()), x, y) || isAligned(symbolCategory(token.getSymbol()), x, y);
+    }
+
+    /**
+     * Checks if placing the given token in the given empty cell would complete an alignment of
+     * WIN_LENGTH tokens sharing its color or its symbol, on its row or its column.
+     *
+     * @param x     the row index of the empty cell
+     * @param y     the column index of the empty cell
+     * @param token the token that would be placed
+     * @return true if the token would be part of a winning alignment, false otherwise
+     */
+    boolean wouldAlign(int x, int y, Token token) {
+        return wouldAlign(colorCategory(token.getColor()), x, y) || wouldAlign(symbolCategory(token.getSymbol()), x, y);
+    }
+
+    private boolean wouldAlign(int category, int x, int y) {
+        return 1 + run(category, LEFT, x, y - 1) + run(category, RIGHT, x, y + 1) >= WIN_LENGTH
+                || 1 + run(category, UP, x - 1, y) + run(category, DOWN, x + 1, y) >= WIN_LENGTH;
+    }
+
+    private boolean isAligned(int category, int x, int y) {
+        return run(category, LEFT, x, y) + run(category, RIGHT, x, y) > WIN_LENGTH
+                || run(category, UP, x, y) + run(category, DOWN, x, y) > WIN_LENGTH;
+    }
+}
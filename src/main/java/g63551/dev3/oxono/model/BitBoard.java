@@ -0,0 +1,403 @@
+package g63551.dev3.oxono.model;
+
+/**
+ * Board implementation that answers the rule queries with bitmasks instead of walking the grid.
+ * Each cell is mapped to one bit of a long (cell index = row * size + column), so boards up to
+ * 8x8 fit in a single 64-bit word. The board keeps one mask per (color, symbol) pair and the cell
+ * index of both totems; emptiness, totem moves, insertions, alignments and the empty count are
+ * computed with shifts, precomputed ray masks and popcounts.
+ * The inherited piece grid is still kept in sync so that the views can read the pieces.
+ */
+public class BitBoard extends Board {
+
+    /**
+     * The largest board size whose cells fit in a 64-bit word.
+     */
+    public static final int MAX_SIZE = 8;
+
+    private static final Geometry[] GEOMETRIES = new Geometry[MAX_SIZE + 1];
+
+    static {
+        for (int size = 1; size <= MAX_SIZE; size++) {
+            GEOMETRIES[size] = new Geometry(size);
+        }
+    }
+
+    private final Geometry geometry;
+    private final long[] tokens;
+    private int cellO;
+    private int cellX;
+
+    /**
+     * Creates a new bitboard with the specified size.
+     *
+     * @param size the size of the board (number of rows and columns)
+     * @throws IllegalArgumentException if the board does not fit in 64 bits
+     */
+    public BitBoard(int size) {
+        super(checkSize(size));
+        this.geometry = GEOMETRIES[size];
+        this.tokens = new long[4];
+        this.cellO = cellOf(getPosO());
+        this.cellX = cellOf(getPosX());
+    }
+
+    /**
+     * Creates a bitboard holding the same position as the given board, whatever its implementation.
+     * The masks are built with one scan of the grid.
+     *
+     * @param other the board to copy
+     * @throws IllegalArgumentException if the board does not fit in 64 bits
+     */
+    public BitBoard(Board other) {
+        super(copyable(other));
+        this.geometry = GEOMETRIES[getSize()];
+        this.tokens = new long[4];
+        this.cellO = cellOf(getPosO());
+        this.cellX = cellOf(getPosX());
+        for (int cell = 0; cell < getSize() * getSize(); cell++) {
+            if (getPieceAtCell(cell) instanceof Token token) {
+                tokens[maskIndex(token.getColor(), token.getSymbol())] |= 1L << cell;
+            }
+        }
+    }
+
+    private static Board copyable(Board other) {
+        checkSize(other.getSize());
+        return other;
+    }
+
+    /**
+     * Creates a copy of the given bitboard.
+     *
+     * @param other the bitboard to copy
+     */
+    protected BitBoard(BitBoard other) {
+        super(other);
+        this.geometry = other.geometry;
+        this.tokens = other.tokens.clone();
+        this.cellO = other.cellO;
+        this.cellX = other.cellX;
+    }
+
+    @Override
+    public BitBoard copy() {
+        return new BitBoard(this);
+    }
+
+    @Override
+    public void restore(Board snapshot) {
+        super.restore(snapshot);
+        BitBoard other = (BitBoard) snapshot;
+        System.arraycopy(other.tokens, 0, tokens, 0, tokens.length);
+        this.cellO = other.cellO;
+        this.cellX = other.cellX;
+    }
+
+    /**
+     * Checks that a board of the given size fits in a 64-bit word.
+     *
+     * @param size the requested size
+     * @return the size, unchanged
+     * @throws IllegalArgumentException if the size is not between 1 and {@link #MAX_SIZE}
+     */
+    private static int checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("A bitboard supports sizes from 1 to " + MAX_SIZE + " !");
+        }
+        return size;
+    }
+
+    /**
+     * Returns the index of the mask holding the tokens of the given color and symbol.
+     *
+     * @param color  the color of the token
+     * @param symbol the symbol of the token
+     * @return the index in the token masks
+     */
+    private static int maskIndex(Color color, Symbol symbol) {
+        return color.ordinal() * 2 + symbol.ordinal();
+    }
+
+    private int cellOf(Position pos) {
+        return pos.getX() * getSize() + pos.getY();
+    }
+
+    private long tokenMask() {
+        return tokens[0] | tokens[1] | tokens[2] | tokens[3];
+    }
+
+    private long colorMask(Color color) {
+        int i = maskIndex(color, Symbol.CROSS);
+        return tokens[i] | tokens[i + 1];
+    }
+
+    private long symbolMask(Symbol symbol) {
+        return tokens[maskIndex(Color.BLACK, symbol)] | tokens[maskIndex(Color.PINK, symbol)];
+    }
+
+    private long occupiedMask() {
+        return tokenMask() | (1L << cellO) | (1L << cellX);
+    }
+
+    private long emptyMask() {
+        return ~occupiedMask() & geometry.full;
+    }
+
+    @Override
+    public boolean isEmpty(int x, int y) {
+        if (!isValidPosition(x, y)) {
+            return false;
+        }
+        return (occupiedMask() & (1L << (x * getSize() + y))) == 0;
+    }
+
+    @Override
+    protected boolean isValidMove(Symbol symbol, int targetX, int targetY) {
+        if (!isValidPosition(targetX, targetY)) {
+            return false;
+        }
+        long empty = emptyMask();
+        int target = targetX * getSize() + targetY;
+        long targetBit = 1L << target;
+        if ((empty & targetBit) == 0) {
+            return false;
+        }
+
+        int current = (symbol == Symbol.CIRCLE) ? cellO : cellX;
+        int size = getSize();
+        if ((empty & geometry.rows[current / size]) == 0 && (empty & geometry.columns[current % size]) == 0) {
+            return true;
+        }
+
+        int dir = geometry.direction(current, target);
+        if (dir < 0) {
+            return false;
+        }
+        if ((empty & geometry.adjacent[current]) == 0) {
+            return Geometry.firstOnRay(dir, geometry.rays[dir][current] & empty) == target;
+        }
+        long between = geometry.rays[dir][current] & geometry.rays[Geometry.opposite(dir)][target];
+        return (between & ~empty) == 0;
+    }
+
+    @Override
+    protected boolean isValidInsert(Symbol symbol, int x, int y) {
+        if (!isValidPosition(x, y)) {
+            return false;
+        }
+        long empty = emptyMask();
+        long cellBit = 1L << (x * getSize() + y);
+        if ((empty & cellBit) == 0) {
+            return false;
+        }
+        long around = geometry.adjacent[(symbol == Symbol.CIRCLE) ? cellO : cellX];
+        return (around & empty) == 0 || (around & cellBit) != 0;
+    }
+
+    @Override
+    public int generateTotemMoves(Symbol symbol, int[] moves) {
+        long empty = emptyMask();
+        int current = (symbol == Symbol.CIRCLE) ? cellO : cellX;
+        int size = getSize();
+        if ((empty & geometry.rows[current / size]) == 0 && (empty & geometry.columns[current % size]) == 0) {
+            return writeMoves(empty, symbol, moves);
+        }
+
+        boolean jump = (empty & geometry.adjacent[current]) == 0;
+        long targets = 0L;
+        for (int dir = 0; dir < 4; dir++) {
+            long ray = geometry.rays[dir][current];
+            if (jump) {
+                int first = Geometry.firstOnRay(dir, ray & empty);
+                if (first >= 0) {
+                    targets |= 1L << first;
+                }
+            } else {
+                targets |= ray & Geometry.before(dir, Geometry.firstOnRay(dir, ray & ~empty));
+            }
+        }
+        return writeMoves(targets, symbol, moves);
+    }
+
+    @Override
+    public int generateInserts(Symbol symbol, int[] moves) {
+        long empty = emptyMask();
+        long around = geometry.adjacent[(symbol == Symbol.CIRCLE) ? cellO : cellX];
+        return writeMoves(((around & empty) == 0) ? empty : around & empty, symbol, moves);
+    }
+
+    /**
+     * Writes one move per cell of the given mask, in row-major order.
+     *
+     * @param cells  the target cells
+     * @param symbol the symbol of the moves
+     * @param moves  the buffer receiving the encoded moves
+     * @return the number of moves written
+     */
+    private static int writeMoves(long cells, Symbol symbol, int[] moves) {
+        int count = 0;
+        while (cells != 0) {
+            moves[count++] = Moves.encode(Long.numberOfTrailingZeros(cells), symbol);
+            cells &= cells - 1;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean checkAlignment(int x, int y, int dx, int dy) {
+        if (!isValidPosition(x, y)) {
+            throw new IllegalArgumentException("out of bounds");
+        }
+        int size = getSize();
+        if ((tokenMask() & (1L << (x * size + y))) == 0) {
+            return false;
+        }
+        if (!isValidPosition(x + 3 * dx, y + 3 * dy)) {
+            // Keeps the exact out of bounds behaviour of the reference implementation
+            return super.checkAlignment(x, y, dx, dy);
+        }
+
+        long window = 0L;
+        for (int k = 0; k < 4; k++) {
+            window |= 1L << ((x + k * dx) * size + y + k * dy);
+        }
+        return (colorMask(Color.PINK) & window) == window
+                || (colorMask(Color.BLACK) & window) == window
+                || (symbolMask(Symbol.CIRCLE) & window) == window
+                || (symbolMask(Symbol.CROSS) & window) == window;
+    }
+
+    @Override
+    public int countEmpty() {
+        return Long.bitCount(emptyMask());
+    }
+
+    @Override
+    protected void placeToken(int x, int y, Token token) {
+        super.placeToken(x, y, token);
+        tokens[maskIndex(token.getColor(), token.getSymbol())] |= 1L << (x * getSize() + y);
+    }
+
+    @Override
+    protected void clearCell(int x, int y) {
+        super.clearCell(x, y);
+        long keep = ~(1L << (x * getSize() + y));
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] &= keep;
+        }
+    }
+
+    @Override
+    public void setPosTotem(Totem totem, Position pos) {
+        super.setPosTotem(totem, pos);
+        if (totem.getSymbol() == Symbol.CIRCLE) {
+            this.cellO = cellOf(pos);
+        } else if (totem.getSymbol() == Symbol.CROSS) {
+            this.cellX = cellOf(pos);
+        }
+    }
+
+    /**
+     * Precomputed masks for one board size: rows, columns, orthogonal neighbours and the four
+     * rays going out of every cell.
+     */
+    private static final class Geometry {
+        static final int UP = 0;
+        static final int DOWN = 1;
+        static final int LEFT = 2;
+        static final int RIGHT = 3;
+
+        final long full;
+        final long[] rows;
+        final long[] columns;
+        final long[] adjacent;
+        final long[][] rays;
+
+        Geometry(int size) {
+            int cells = size * size;
+            this.full = (cells == 64) ? -1L : (1L << cells) - 1;
+            this.rows = new long[size];
+            this.columns = new long[size];
+            this.adjacent = new long[cells];
+            this.rays = new long[4][cells];
+
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    int cell = x * size + y;
+                    rows[x] |= 1L << cell;
+                    columns[y] |= 1L << cell;
+                    for (int r = x - 1; r >= 0; r--) {
+                        rays[UP][cell] |= 1L << (r * size + y);
+                    }
+                    for (int r = x + 1; r < size; r++) {
+                        rays[DOWN][cell] |= 1L << (r * size + y);
+                    }
+                    for (int c = y - 1; c >= 0; c--) {
+                        rays[LEFT][cell] |= 1L << (x * size + c);
+                    }
+                    for (int c = y + 1; c < size; c++) {
+                        rays[RIGHT][cell] |= 1L << (x * size + c);
+                    }
+                    for (int dir = 0; dir < 4; dir++) {
+                        long ray = rays[dir][cell];
+                        if (ray != 0) {
+                            adjacent[cell] |= 1L << firstOnRay(dir, ray);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the direction leading from one cell to another aligned cell.
+         *
+         * @param from the starting cell
+         * @param to   the target cell
+         * @return the direction, or -1 if the cells are not on the same row or column
+         */
+        int direction(int from, int to) {
+            long toBit = 1L << to;
+            for (int dir = 0; dir < 4; dir++) {
+                if ((rays[dir][from] & toBit) != 0) {
+                    return dir;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the cell of the given mask closest to the origin of a ray going in the given direction.
+         * Rays going up or left run towards lower cell indexes, the others towards higher ones.
+         *
+         * @param dir  the direction of the ray
+         * @param mask the cells of the ray to consider
+         * @return the closest cell, or -1 if the mask is empty
+         */
+        static int firstOnRay(int dir, long mask) {
+            if (mask == 0) {
+                return -1;
+            }
+            return (dir == UP || dir == LEFT) ? 63 - Long.numberOfLeadingZeros(mask) : Long.numberOfTrailingZeros(mask);
+        }
+
+        /**
+         * Returns the mask of the cells lying before a blocking cell on a ray going in the given direction.
+         *
+         * @param dir     the direction of the ray
+         * @param blocker the blocking cell, or -1 if the ray is free
+         * @return the mask of the cells closer to the origin of the ray than the blocker
+         */
+        static long before(int dir, int blocker) {
+            if (blocker < 0) {
+                return -1L;
+            }
+            long bit = 1L << blocker;
+            return (dir == UP || dir == LEFT) ? ~((bit << 1) - 1) : bit - 1;
+        }
+
+        static int opposite(int dir) {
+            return dir ^ 1;
+        }
+    }
+}
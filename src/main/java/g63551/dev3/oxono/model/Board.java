@@ -1,8 +1,10 @@
 package g63551.dev3.oxono.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents the game board for the OXONO game. The board is a square grid containing pieces
@@ -11,13 +13,31 @@ import java.util.Random;
  */
 public class Board {
 
+    private static final Symbol[] SYMBOLS = Symbol.values();
+    private static final int STATE_CELL_SHIFT = 5;
+
     private final Piece[][] board;
+    private final long[] rowStamps;   // Copies taken when each row was cloned, or -1 if it is shared
+    private final AtomicLong copies;  // Copies taken of this board, which share all its rows
     private Position posX;
     private Position posO;
     private final int size;
     private final Totem totemO;
     private final Totem totemX;
     private Symbol lastMoved;
+    private int[] moveBuffer;
+    private int[][] scratch;
+    private final int[] tokensLeft;
+    private int[] history;
+    private int historySize;
+    private boolean trustedMode;
+    private final AlignmentTracker alignments;
+    private final Zobrist keys;
+    private long hash;
+    private Color sideToMove;
+    private GameState phase;
+    private Symbol pendingSymbol;
+    private TokenListener listener;
 
     /**
      * Creates a new game board with the specified size.
@@ -28,11 +48,16 @@ public class Board {
     public Board(int size) {
         this.size = size;
         this.board = new Piece[size][size];
+        this.rowStamps = new long[size];
+        this.copies = new AtomicLong();
         this.totemO = new Totem(Symbol.CIRCLE);
         this.totemX = new Totem(Symbol.CROSS);
+        this.alignments = new AlignmentTracker(size);
+        this.tokensLeft = new int[4];
+        Arrays.fill(this.tokensLeft, Player.nbTokens);
 
-        Position position1 = new Position((size / 2) - 1, (size / 2) - 1);
-        Position position2 = new Position(size / 2, size / 2);
+        Position position1 = Position.of((size / 2) - 1, (size / 2) - 1);
+        Position position2 = Position.of(size / 2, size / 2);
 
         this.posO = position1;
         this.posX = position2;
@@ -40,6 +65,97 @@ public class Board {
 
         this.board[posO.getX()][posO.getY()] = totemO;
         this.board[posX.getX()][posX.getY()] = totemX;
+
+        this.keys = Zobrist.forSize(size);
+        this.sideToMove = Color.PINK;
+        this.phase = GameState.MOVE;
+        this.hash = computeHash();
+    }
+
+    /**
+     * Creates a copy of the given board. The rows of the grid are shared with the original and
+     * copied on the first write by either board, so copying costs one reference per row. The
+     * original is only read, apart from its count of copies, which tells it that its rows are
+     * now shared.
+     * The copy starts with an empty {@link #makeMove(int)} history, is not in trusted mode and has
+     * no {@link TokenListener}.
+     *
+     * @param other the board to copy
+     */
+    protected Board(Board other) {
+        this.size = other.size;
+        other.copies.incrementAndGet(); // Before reading the rows, so that the owner clones them
+        this.board = other.board.clone();
+        this.rowStamps = new long[size];
+        Arrays.fill(this.rowStamps, -1);
+        this.copies = new AtomicLong();
+        this.totemO = other.totemO;
+        this.totemX = other.totemX;
+        this.posO = other.posO;
+        this.posX = other.posX;
+        this.lastMoved = other.lastMoved;
+        this.tokensLeft = other.tokensLeft.clone();
+        this.alignments = new AlignmentTracker(other.alignments);
+        this.keys = other.keys;
+        this.hash = other.hash;
+        this.sideToMove = other.sideToMove;
+        this.phase = other.phase;
+        this.pendingSymbol = other.pendingSymbol;
+    }
+
+    /**
+     * Returns an independent copy of this board, sharing its unchanged rows copy-on-write.
+     * Copying does not modify the position of this board, so several threads may copy it at once
+     * while its owner does not modify it, and the copy may be handed to another thread.
+     *
+     * @return the copy of the board
+     */
+    public Board copy() {
+        return new Board(this);
+    }
+
+    /**
+     * Puts this board back in the position of a copy taken earlier with {@link #copy()}.
+     * The rows of the grid are shared with the copy and copied on the first write, so restoring
+     * costs one reference per row. The {@link #makeMove(int)} history is cleared; the trusted mode
+     * and the {@link TokenListener} are kept, but the listener is not told about the change.
+     *
+     * @param snapshot the copy to restore
+     * @throws IllegalArgumentException if the copy is not a copy of this board
+     */
+    public void restore(Board snapshot) {
+        if (snapshot.getClass() != getClass() || snapshot.size != size || snapshot.keys != keys) {
+            throw new IllegalArgumentException("This board cannot be restored from this snapshot!");
+        }
+        snapshot.copies.incrementAndGet();
+        System.arraycopy(snapshot.board, 0, board, 0, size);
+        Arrays.fill(rowStamps, -1);
+        this.posO = snapshot.posO;
+        this.posX = snapshot.posX;
+        this.lastMoved = snapshot.lastMoved;
+        System.arraycopy(snapshot.tokensLeft, 0, tokensLeft, 0, tokensLeft.length);
+        this.alignments.copyFrom(snapshot.alignments);
+        this.hash = snapshot.hash;
+        this.sideToMove = snapshot.sideToMove;
+        this.phase = snapshot.phase;
+        this.pendingSymbol = snapshot.pendingSymbol;
+        this.historySize = 0;
+    }
+
+    /**
+     * Returns a row of the grid that this board may write, copying it first if it is shared
+     * with another board.
+     *
+     * @param x the row index
+     * @return the writable row
+     */
+    private Piece[] writableRow(int x) {
+        long taken = copies.get();
+        if (rowStamps[x] != taken) { // Shared since it was cloned, or never cloned by this board
+            board[x] = board[x].clone();
+            rowStamps[x] = taken;
+        }
+        return board[x];
     }
 
     /**
@@ -77,6 +193,107 @@ public class Board {
         this.lastMoved = lastMoved;
     }
 
+    /**
+     * Returns the 64-bit Zobrist hash of the position. It covers the tokens, both totems,
+     * the side to move, the phase and, during the insert phase, the pending symbol.
+     * It is updated incrementally by every change of the board.
+     *
+     * @return the hash of the position
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Recomputes the Zobrist hash of the position from scratch.
+     *
+     * @return the hash of the position
+     */
+    public long computeHash() {
+        long h = keys.totem(Symbol.CIRCLE, posO.getX() * size + posO.getY())
+                ^ keys.totem(Symbol.CROSS, posX.getX() * size + posX.getY())
+                ^ turnKey();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (board[i][j] instanceof Token token) {
+                    h ^= keys.token(token.getColor(), token.getSymbol(), i * size + j);
+                }
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Returns the part of the hash describing the turn. The pending symbol only matters
+     * while a token has to be inserted, so it is ignored during the move phase.
+     *
+     * @return the XOR of the keys of the side to move, the phase and the pending symbol
+     */
+    private long turnKey() {
+        long key = keys.sideToMove(sideToMove) ^ keys.phase(phase);
+        return (phase == GameState.INSERT) ? key ^ keys.pending(pendingSymbol) : key;
+    }
+
+    /**
+     * Returns the color of the player to move.
+     *
+     * @return the color of the player to move
+     */
+    public Color getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Sets the color of the player to move.
+     *
+     * @param sideToMove the color of the player to move
+     */
+    public void setSideToMove(Color sideToMove) {
+        this.hash ^= turnKey();
+        this.sideToMove = sideToMove;
+        this.hash ^= turnKey();
+    }
+
+    /**
+     * Returns the phase of the current turn.
+     *
+     * @return the phase of the current turn
+     */
+    public GameState getPhase() {
+        return phase;
+    }
+
+    /**
+     * Sets the phase of the current turn.
+     *
+     * @param phase the phase of the current turn
+     */
+    public void setPhase(GameState phase) {
+        this.hash ^= turnKey();
+        this.phase = phase;
+        this.hash ^= turnKey();
+    }
+
+    /**
+     * Returns the symbol of the token to insert during the current turn.
+     *
+     * @return the pending symbol, or null if no totem has been moved yet
+     */
+    public Symbol getPendingSymbol() {
+        return pendingSymbol;
+    }
+
+    /**
+     * Sets the symbol of the token to insert during the current turn.
+     *
+     * @param pendingSymbol the pending symbol, or null if no totem has been moved yet
+     */
+    public void setPendingSymbol(Symbol pendingSymbol) {
+        this.hash ^= turnKey();
+        this.pendingSymbol = pendingSymbol;
+        this.hash ^= turnKey();
+    }
+
     /**
      * Checks if a given position on the board is empty.
      *
@@ -84,15 +301,44 @@ public class Board {
      * @return true if the position is empty, false otherwise
      */
     public boolean isEmpty(Position pos) {
-        int x = pos.getX();
-        int y = pos.getY();
+        return isEmpty(pos.getX(), pos.getY());
+    }
 
+    /**
+     * Checks if the cell at the given coordinates is empty.
+     *
+     * @param x the row index of the cell
+     * @param y the column index of the cell
+     * @return true if the cell is on the board and empty, false otherwise
+     */
+    public boolean isEmpty(int x, int y) {
         if (!isValidPosition(x, y)) {
             return false;
         }
         return board[x][y] == null;
     }
 
+    /**
+     * Checks if the cell with the given index (row * size + column) is empty.
+     *
+     * @param cell the index of the cell
+     * @return true if the cell is on the board and empty, false otherwise
+     */
+    public boolean isEmpty(int cell) {
+        return cell >= 0 && cell < size * size && isEmpty(cell / size, cell % size);
+    }
+
+    /**
+     * Returns the index (row * size + column) of the cell with the given coordinates.
+     *
+     * @param x the row index of the cell
+     * @param y the column index of the cell
+     * @return the index of the cell
+     */
+    public int cellOf(int x, int y) {
+        return x * size + y;
+    }
+
     /**
      * Moves a totem to a new position on the board.
      *
@@ -104,13 +350,45 @@ public class Board {
         if (!isValidMove(totem, p)) {
             throw new IllegalArgumentException("Invalid position for moving this totem pole!");
         } else {
-            Position pos = this.getPosTotem(totem.getSymbol());
-            this.board[p.getX()][p.getY()] = totem;
-            this.board[pos.getX()][pos.getY()] = null;
-            this.setPosTotem(totem, p);
+            relocateTotem(totem, p);
         }
     }
 
+    /**
+     * Moves a totem to a new position without any validation.
+     *
+     * @param totem the totem to move
+     * @param p     the target position
+     */
+    private void relocateTotem(Totem totem, Position p) {
+        Position pos = this.getPosTotem(totem.getSymbol());
+        writableRow(p.getX())[p.getY()] = totem;
+        writableRow(pos.getX())[pos.getY()] = null;
+        this.setPosTotem(totem, p);
+    }
+
+    /**
+     * Moves a totem to the cell with the given index.
+     *
+     * @param totem the totem to move
+     * @param cell  the index of the target cell
+     * @throws IllegalArgumentException if the move is invalid
+     */
+    public void move(Totem totem, int cell) {
+        move(totem, Position.ofCell(cell, size));
+    }
+
+    /**
+     * Checks if the totem with the given symbol can be moved to the cell with the given index.
+     *
+     * @param symbol the symbol of the totem to move
+     * @param cell   the index of the target cell
+     * @return true if the move is valid, false otherwise
+     */
+    public boolean isValidMove(Symbol symbol, int cell) {
+        return cell >= 0 && cell < size * size && isValidMove(symbol, cell / size, cell % size);
+    }
+
     /**
      * Checks if a move for a totem is valid.
      *
@@ -119,20 +397,32 @@ public class Board {
      * @return true if the move is valid, false otherwise
      */
     public boolean isValidMove(Totem totem, Position target) {
-        Position current = getPosTotem(totem.getSymbol());
+        return isValidMove(totem.getSymbol(), target.getX(), target.getY());
+    }
+
+    /**
+     * Checks if the totem with the given symbol can be moved to the given cell.
+     *
+     * @param symbol  the symbol of the totem to move
+     * @param targetX the row index of the target cell
+     * @param targetY the column index of the target cell
+     * @return true if the move is valid, false otherwise
+     */
+    protected boolean isValidMove(Symbol symbol, int targetX, int targetY) {
+        Position current = getPosTotem(symbol);
         int x = current.getX();
         int y = current.getY();
 
-        if (!isValidPosition(target.getX(), target.getY()) || !isEmpty(target)) {
+        if (!isEmpty(targetX, targetY)) {
             return false;
         }
 
         if (isVerticallyBlocked(x, y) && isHorizontallyBlocked(x, y)) {
             return true;
         } else if (areSurroundingCellsOccupied(x, y)) {
-            return canJumpOverPieces(x, y, target);
-        } else if (target.getX() == x || target.getY() == y) {
-            return isPathClear(current, target);
+            return canJumpOverPieces(x, y, targetX, targetY);
+        } else if (targetX == x || targetY == y) {
+            return isPathClear(x, y, targetX, targetY);
         } else {
             return false;
         }
@@ -143,16 +433,14 @@ public class Board {
      * A totem can only move in a straight line (vertically or horizontally),
      * and this method determines whether the path is valid.
      *
-     * @param startX the starting X position
-     * @param startY the starting Y position
-     * @param target the target position
+     * @param startX  the starting X position
+     * @param startY  the starting Y position
+     * @param targetX the X coordinate of the target position
+     * @param targetY the Y coordinate of the target position
      * @return true if the totem can reach the target position by jumping over pieces,
      * false otherwise
      */
-    private boolean canJumpOverPieces(int startX, int startY, Position target) {
-        int targetX = target.getX();
-        int targetY = target.getY();
-
+    private boolean canJumpOverPieces(int startX, int startY, int targetX, int targetY) {
         // Calculate movement direction
         int dx = Integer.compare(targetX, startX);
         int dy = Integer.compare(targetY, startY);
@@ -167,7 +455,7 @@ public class Board {
 
         // Check each position along the path
         while (isValidPosition(x, y)) {
-            if (isEmpty(new Position(x, y))) {
+            if (isEmpty(x, y)) {
                 // Target is reached and free
                 return x == targetX && y == targetY;
             }
@@ -193,22 +481,22 @@ public class Board {
      */
     private boolean areSurroundingCellsOccupied(int x, int y) {
         // Check the cell above
-        if (x - 1 >= 0 && isEmpty(new Position(x - 1, y))) {
+        if (x - 1 >= 0 && isEmpty(x - 1, y)) {
             return false;
         }
 
         // Check the cell below
-        if (x + 1 < this.getSize() && isEmpty(new Position(x + 1, y))) {
+        if (x + 1 < this.getSize() && isEmpty(x + 1, y)) {
             return false;
         }
 
         // Check the cell to the left
-        if (y - 1 >= 0 && isEmpty(new Position(x, y - 1))) {
+        if (y - 1 >= 0 && isEmpty(x, y - 1)) {
             return false;
         }
 
         // Check the cell to the right
-        if (y + 1 < this.getSize() && isEmpty(new Position(x, y + 1))) {
+        if (y + 1 < this.getSize() && isEmpty(x, y + 1)) {
             return false;
         }
 
@@ -230,14 +518,14 @@ public class Board {
     private boolean isVerticallyBlocked(int x, int y) {
         // Check cells above the current position
         for (int row = x - 1; row >= 0; row--) {
-            if (isEmpty(new Position(row, y))) {
+            if (isEmpty(row, y)) {
                 return false;
             }
         }
 
         // Check cells below the current position
         for (int row = x + 1; row < this.size; row++) {
-            if (isEmpty(new Position(row, y))) {
+            if (isEmpty(row, y)) {
                 return false;
             }
         }
@@ -260,14 +548,14 @@ public class Board {
     private boolean isHorizontallyBlocked(int x, int y) {
         // Check cells to the left of the current position
         for (int col = y - 1; col >= 0; col--) {
-            if (this.isEmpty(new Position(x, col))) {
+            if (this.isEmpty(x, col)) {
                 return false;
             }
         }
 
         // Check cells to the right of the current position
         for (int col = y + 1; col < this.size; col++) {
-            if (this.isEmpty(new Position(x, col))) {
+            if (this.isEmpty(x, col)) {
                 return false;
             }
         }
@@ -282,27 +570,29 @@ public class Board {
      * The path is considered clear if all cells between the starting and target positions
      * are empty. This method supports horizontal and vertical paths only.
      *
-     * @param start  the starting position
-     * @param target the target position
+     * @param startX  the X coordinate of the starting position
+     * @param startY  the Y coordinate of the starting position
+     * @param targetX the X coordinate of the target position
+     * @param targetY the Y coordinate of the target position
      * @return true if the path is clear, false otherwise
      */
-    private boolean isPathClear(Position start, Position target) {
+    private boolean isPathClear(int startX, int startY, int targetX, int targetY) {
         // Check for a clear horizontal path
-        if (start.getX() == target.getX()) {
-            int y1 = Math.min(start.getY(), target.getY());
-            int y2 = Math.max(start.getY(), target.getY());
+        if (startX == targetX) {
+            int y1 = Math.min(startY, targetY);
+            int y2 = Math.max(startY, targetY);
             for (int y = y1 + 1; y < y2; y++) {
-                if (!isEmpty(new Position(start.getX(), y))) {
+                if (!isEmpty(startX, y)) {
                     return false;
                 }
             }
         }
         // Check for a clear vertical path
-        else if (start.getY() == target.getY()) {
-            int x1 = Math.min(start.getX(), target.getX());
-            int x2 = Math.max(start.getX(), target.getX());
+        else if (startY == targetY) {
+            int x1 = Math.min(startX, targetX);
+            int x2 = Math.max(startX, targetX);
             for (int x = x1 + 1; x < x2; x++) {
-                if (!isEmpty(new Position(x, start.getY()))) {
+                if (!isEmpty(x, startY)) {
                     return false;
                 }
             }
@@ -321,7 +611,7 @@ public class Board {
      * @param y the y-coordinate of the position
      * @return true if the position is within the bounds of the board, false otherwise
      */
-    private boolean isValidPosition(int x, int y) {
+    protected boolean isValidPosition(int x, int y) {
         return (x >= 0 && x < size && y >= 0 && y < size);
     }
 
@@ -338,10 +628,50 @@ public class Board {
         if (!isValidInsert(token, p)) {
             throw new IllegalArgumentException("Invalid position for insertion!");
         } else {
-            this.board[p.getX()][p.getY()] = token;
+            placeToken(p.getX(), p.getY(), token);
         }
     }
 
+    /**
+     * Places a token in the given cell without any validation, and takes it from the
+     * stock of its color.
+     *
+     * @param x     the row index of the cell
+     * @param y     the column index of the cell
+     * @param token the token to place
+     */
+    protected void placeToken(int x, int y, Token token) {
+        writableRow(x)[y] = token;
+        this.alignments.place(x, y, token);
+        this.hash ^= keys.token(token.getColor(), token.getSymbol(), x * size + y);
+        this.tokensLeft[stockIndex(token.getColor(), token.getSymbol())]--;
+        if (listener != null) {
+            listener.tokenPlaced(x, y, token);
+        }
+    }
+
+    /**
+     * Inserts the given token in the cell with the given index.
+     *
+     * @param token the token to be inserted
+     * @param cell  the index of the cell
+     * @throws IllegalArgumentException if the cell is not valid for insertion
+     */
+    public void insert(Token token, int cell) {
+        insert(token, Position.ofCell(cell, size));
+    }
+
+    /**
+     * Determines if a token with the given symbol can be inserted in the cell with the given index.
+     *
+     * @param symbol the symbol of the token to be inserted
+     * @param cell   the index of the cell
+     * @return true if the cell is valid for insertion, false otherwise
+     */
+    public boolean isValidInsert(Symbol symbol, int cell) {
+        return cell >= 0 && cell < size * size && isValidInsert(symbol, cell / size, cell % size);
+    }
+
     /**
      * Determines if the given token can be inserted at the specified position.
      * A valid insertion requires the position to be empty and either adjacent to the reference position
@@ -352,31 +682,41 @@ public class Board {
      * @return true if the position is valid for insertion, false otherwise
      */
     public boolean isValidInsert(Token token, Position pos) {
-        if (!isEmpty(pos)) {
+        return isValidInsert(token.getSymbol(), pos.getX(), pos.getY());
+    }
+
+    /**
+     * Determines if a token with the given symbol can be inserted in the given cell.
+     *
+     * @param symbol the symbol of the token to be inserted
+     * @param x      the row index of the cell
+     * @param y      the column index of the cell
+     * @return true if the cell is valid for insertion, false otherwise
+     */
+    protected boolean isValidInsert(Symbol symbol, int x, int y) {
+        if (!isEmpty(x, y)) {
             return false;
         }
 
-        Symbol symbol = token.getSymbol();
         Position referencePos = (symbol == Symbol.CIRCLE) ? this.posO : this.posX;
 
         if (areSurroundingCellsOccupied(referencePos.getX(), referencePos.getY())) {
             return true;
         }
 
-        return isAdjacent(pos, referencePos);
+        return isAdjacent(x, y, referencePos);
     }
 
     /**
      * Checks if the given position is adjacent to the reference position.
      * Two positions are considered adjacent if they are horizontally or vertically neighboring.
      *
-     * @param pos          the position to check
+     * @param x            the X coordinate of the position to check
+     * @param y            the Y coordinate of the position to check
      * @param referencePos the reference position to compare against
      * @return true if the position is adjacent to the reference position, false otherwise
      */
-    private boolean isAdjacent(Position pos, Position referencePos) {
-        int x = pos.getX();
-        int y = pos.getY();
+    private boolean isAdjacent(int x, int y, Position referencePos) {
         int refX = referencePos.getX();
         int refY = referencePos.getY();
 
@@ -440,6 +780,20 @@ public class Board {
         return board[i][j];
     }
 
+    /**
+     * Returns the Piece in the cell with the given index.
+     *
+     * @param cell the index of the cell
+     * @return the Piece in the cell, or null if it is empty
+     * @throws IllegalArgumentException if the cell is out of bounds
+     */
+    public Piece getPieceAtCell(int cell) {
+        if (cell < 0 || cell >= size * size) {
+            throw new IllegalArgumentException("out of bounds");
+        }
+        return board[cell / size][cell % size];
+    }
+
     /**
      * Sets the position of the given Totem on the board.
      *
@@ -447,11 +801,17 @@ public class Board {
      * @param pos   the position to set the Totem
      */
     public void setPosTotem(Totem totem, Position pos) {
-        if (totem.getSymbol() == Symbol.CIRCLE) {
+        Symbol symbol = totem.getSymbol();
+        Position previous = getPosTotem(symbol);
+        if (symbol == Symbol.CIRCLE) {
             this.posO = pos;
-        } else if (totem.getSymbol() == Symbol.CROSS) {
+        } else if (symbol == Symbol.CROSS) {
             this.posX = pos;
         }
+        if (previous != null && pos != null) {
+            this.hash ^= keys.totem(symbol, previous.getX() * size + previous.getY())
+                    ^ keys.totem(symbol, pos.getX() * size + pos.getY());
+        }
     }
 
     /**
@@ -527,6 +887,49 @@ public class Board {
     }
 
 
+    /**
+     * Checks if the token in the cell with the given index is part of an alignment of four tokens.
+     *
+     * @param cell the index of the cell
+     * @return true if the cell holds a token belonging to an alignment, false otherwise
+     * @throws IllegalArgumentException if the cell is out of bounds
+     */
+    public boolean isWinningCell(int cell) {
+        if (cell < 0 || cell >= size * size) {
+            throw new IllegalArgumentException("out of bounds");
+        }
+        return isWinningCell(cell / size, cell % size);
+    }
+
+    /**
+     * Checks if the token in the given cell is part of an alignment of four tokens sharing
+     * its color or its symbol, on its row or its column. This is how a win is detected after an
+     * insertion: the answer comes from run-length counters maintained by {@link #insert} and
+     * {@link #removeToken}, so it takes constant time.
+     *
+     * @param x the row index of the cell
+     * @param y the column index of the cell
+     * @return true if the cell holds a token belonging to an alignment, false otherwise
+     * @throws IllegalArgumentException if the position is out of bounds
+     */
+    public boolean isWinningCell(int x, int y) {
+        return getPieceAtPos(x, y) instanceof Token token && alignments.isAligned(x, y, token);
+    }
+
+    /**
+     * Checks if inserting the given token in the empty cell with the given index would complete an
+     * alignment of four tokens sharing its color or its symbol. Like {@link #isWinningCell(int, int)},
+     * the answer comes from the run-length counters and takes constant time; whether the insertion
+     * is allowed next to the totem is not checked.
+     *
+     * @param token the token that would be inserted
+     * @param cell  the index of an empty cell
+     * @return true if the insertion would win the game, false otherwise
+     */
+    public boolean completesAlignment(Token token, int cell) {
+        return alignments.wouldAlign(cell / size, cell % size, token);
+    }
+
     /**
      * Counts the number of empty positions on the board.
      *
@@ -536,7 +939,7 @@ public class Board {
         int count = 0;
         for (int i = 0; i < this.size; i++) {
             for (int j = 0; j < this.size; j++) {
-                if (isEmpty(new Position(i, j))) {
+                if (isEmpty(i, j)) {
                     count += 1;
                 }
             }
@@ -551,21 +954,8 @@ public class Board {
      * @return a list of positions where the totem can move
      */
     public List<Position> getPossibleTotemMoves(Symbol symbol) {
-        List<Position> possibleMoves = new ArrayList<>();
-
-        Position currentPos = this.getPosTotem(symbol);
-
-        for (int row = 0; row < this.getSize(); row++) {
-            for (int col = 0; col < this.getSize(); col++) {
-                Position targetPos = new Position(row, col);
-
-                Totem totem = getTotem(symbol);
-                if (this.isValidMove(totem, targetPos)) {
-                    possibleMoves.add(targetPos);
-                }
-            }
-        }
-        return possibleMoves;
+        int[] moves = moveBuffer();
+        return toPositions(moves, generateTotemMoves(symbol, moves));
     }
 
     /**
@@ -578,19 +968,174 @@ public class Board {
      * @return a list of positions where the token can be inserted
      */
     public List<Position> getEmptyPositions(Symbol symbol, Color color) {
-        Token token = new Token(symbol, color);
-        List<Position> emptyPositions = new ArrayList<>();
+        int[] moves = moveBuffer();
+        return toPositions(moves, generateInserts(symbol, moves));
+    }
+
+    /**
+     * Writes every valid move of a totem into the given buffer, encoded with {@link Moves}.
+     * The buffer must hold at least size * size moves; nothing is allocated.
+     * Instead of testing every cell, the situation of the totem is classified once and the four
+     * rays going out of it are cast: all empty cells when it is blocked in both directions, the first
+     * empty cell of each ray when it is enclosed, and the empty cells before the first piece otherwise.
+     * The moves are written in row-major order.
+     *
+     * @param symbol the symbol of the totem
+     * @param moves  the buffer receiving the encoded moves
+     * @return the number of moves written
+     */
+    public int generateTotemMoves(Symbol symbol, int[] moves) {
+        Position current = getPosTotem(symbol);
+        int x = current.getX();
+        int y = current.getY();
+
+        if (isVerticallyBlocked(x, y) && isHorizontallyBlocked(x, y)) {
+            int count = 0;
+            for (int row = 0; row < this.size; row++) {
+                for (int col = 0; col < this.size; col++) {
+                    if (isEmpty(row, col)) {
+                        moves[count++] = Moves.encode(row * this.size + col, symbol);
+                    }
+                }
+            }
+            return count;
+        }
 
-        for (int row = 0; row < this.getSize(); row++) {
-            for (int col = 0; col < this.getSize(); col++) {
-                Position pos = new Position(row, col);
+        boolean jump = areSurroundingCellsOccupied(x, y);
+        int count = castRay(symbol, x, y, -1, 0, jump, moves, 0);
+        reverse(moves, 0, count);
+        int left = castRay(symbol, x, y, 0, -1, jump, moves, count);
+        reverse(moves, count, left);
+        count = castRay(symbol, x, y, 0, 1, jump, moves, left);
+        return castRay(symbol, x, y, 1, 0, jump, moves, count);
+    }
 
-                if (isValidInsert(token, pos)) {
-                    emptyPositions.add(pos);
+    /**
+     * Casts a ray from a totem and writes the cells it can reach in that direction.
+     * When jumping, only the first empty cell of the ray is reachable; otherwise the totem slides
+     * over the empty cells until it meets a piece or the edge of the board.
+     *
+     * @param symbol the symbol of the totem
+     * @param x      the row index of the totem
+     * @param y      the column index of the totem
+     * @param dx     the change in row index per step
+     * @param dy     the change in column index per step
+     * @param jump   true if the totem is enclosed and must jump over the pieces
+     * @param moves  the buffer receiving the encoded moves
+     * @param count  the number of moves already in the buffer
+     * @return the number of moves in the buffer after the ray
+     */
+    private int castRay(Symbol symbol, int x, int y, int dx, int dy, boolean jump, int[] moves, int count) {
+        int row = x + dx;
+        int col = y + dy;
+        while (isValidPosition(row, col)) {
+            if (isEmpty(row, col)) {
+                moves[count++] = Moves.encode(row * this.size + col, symbol);
+                if (jump) {
+                    break;
                 }
+            } else if (!jump) {
+                break;
             }
+            row += dx;
+            col += dy;
+        }
+        return count;
+    }
+
+    /**
+     * Reverses a range of the given buffer in place.
+     *
+     * @param moves the buffer
+     * @param from  the first index of the range (inclusive)
+     * @param to    the last index of the range (exclusive)
+     */
+    private static void reverse(int[] moves, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int tmp = moves[i];
+            moves[i] = moves[j];
+            moves[j] = tmp;
         }
-        return emptyPositions;
+    }
+
+    /**
+     * Writes every valid insertion of a token with the given symbol into the given buffer,
+     * encoded with {@link Moves}. The buffer must hold at least size * size moves; nothing is allocated.
+     *
+     * @param symbol the symbol of the token to be inserted
+     * @param moves  the buffer receiving the encoded moves
+     * @return the number of moves written
+     */
+    public int generateInserts(Symbol symbol, int[] moves) {
+        int count = 0;
+        for (int row = 0; row < this.size; row++) {
+            for (int col = 0; col < this.size; col++) {
+                if (isValidInsert(symbol, row, col)) {
+                    moves[count++] = Moves.encode(row * this.size + col, symbol);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes every valid insertion that would follow the given totem move into the given buffer,
+     * encoded with {@link Moves}. The totem is moved temporarily and put back before returning.
+     * The buffer must hold at least size * size moves; nothing is allocated.
+     *
+     * @param totemMove the totem move, encoded with {@link Moves}
+     * @param moves     the buffer receiving the encoded moves
+     * @return the number of moves written
+     */
+    public int generateInsertsAfter(int totemMove, int[] moves) {
+        Symbol symbol = Moves.symbol(totemMove);
+        Totem totem = getTotem(symbol);
+        Position origin = getPosTotem(symbol);
+        relocateTotem(totem, Position.ofCell(Moves.cell(totemMove), size));
+        int count = generateInserts(symbol, moves);
+        relocateTotem(totem, origin);
+        return count;
+    }
+
+    /**
+     * Returns the move buffer shared by the list based methods, allocating it on first use.
+     *
+     * @return a buffer of size * size moves
+     */
+    private int[] moveBuffer() {
+        if (moveBuffer == null) {
+            moveBuffer = new int[size * size];
+        }
+        return moveBuffer;
+    }
+
+    /**
+     * Converts encoded moves into the positions of their target cells.
+     *
+     * @param moves the encoded moves
+     * @param count the number of moves to convert
+     * @return the list of target positions
+     */
+    private List<Position> toPositions(int[] moves, int count) {
+        List<Position> positions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int cell = Moves.cell(moves[i]);
+            positions.add(Position.ofCell(cell, size));
+        }
+        return positions;
+    }
+
+    /**
+     * Removes a token from the cell with the given index.
+     *
+     * @param cell the index of the cell
+     * @throws IllegalArgumentException if the cell is out of bounds
+     */
+    public void removeToken(int cell) {
+        if (cell < 0 || cell >= size * size) {
+            throw new IllegalArgumentException("Out of bounds !");
+        }
+        removeToken(Position.ofCell(cell, size));
     }
 
     /**
@@ -603,7 +1148,38 @@ public class Board {
         if (!isValidPosition(pos.getX(), pos.getY())) {
             throw new IllegalArgumentException("Out of bounds !");
         }
-        this.board[pos.getX()][pos.getY()] = null;
+        clearCell(pos.getX(), pos.getY());
+    }
+
+    /**
+     * Empties the given cell without any validation. A removed token goes back to the
+     * stock of its color.
+     *
+     * @param x the row index of the cell
+     * @param y the column index of the cell
+     */
+    protected void clearCell(int x, int y) {
+        if (this.board[x][y] instanceof Token token) {
+            this.alignments.remove(x, y, token);
+            this.hash ^= keys.token(token.getColor(), token.getSymbol(), x * size + y);
+            this.tokensLeft[stockIndex(token.getColor(), token.getSymbol())]++;
+            writableRow(x)[y] = null;
+            if (listener != null) {
+                listener.tokenRemoved(x, y, token);
+            }
+        } else {
+            writableRow(x)[y] = null;
+        }
+    }
+
+    /**
+     * Sets the object told about every token placed on or removed from this board, replacing the
+     * previous one. Copies of the board do not inherit it.
+     *
+     * @param listener the listener, or null to remove it
+     */
+    public void setTokenListener(TokenListener listener) {
+        this.listener = listener;
     }
 
     /**
@@ -617,10 +1193,199 @@ public class Board {
         if (!isValidPosition(p.getX(), p.getY())) {
             throw new IllegalArgumentException("Out of bounds !");
         }
-        Position pos = this.getPosTotem(totem.getSymbol());
-        this.board[p.getX()][p.getY()] = totem;
-        this.board[pos.getX()][pos.getY()] = null;
-        this.setPosTotem(totem, p);
+        relocateTotem(totem, p);
+    }
+
+    /**
+     * Returns the upper bound on the number of turns that {@link #generateTurns} can write.
+     *
+     * @return the size of the buffer needed to generate the turns
+     */
+    public int maxTurns() {
+        int cells = size * size;
+        return 2 * cells * cells;
+    }
+
+    /**
+     * Writes every legal turn of the player to move into the given buffer, encoded with
+     * {@link Moves#turn}. A turn moves a totem whose symbol the player still has tokens of,
+     * then inserts a token of that symbol. The buffer must hold at least {@link #maxTurns()} turns.
+     * The totem is moved temporarily to generate the insertions; nothing is allocated once the
+     * internal buffers exist.
+     *
+     * @param turns the buffer receiving the encoded turns
+     * @return the number of turns written
+     */
+    public int generateTurns(int[] turns) {
+        int[] totemMoves = scratchBuffer(0);
+        int[] inserts = scratchBuffer(1);
+        int count = 0;
+        for (Symbol symbol : SYMBOLS) {
+            if (getTokensLeft(sideToMove, symbol) <= 0) {
+                continue;
+            }
+            Totem totem = getTotem(symbol);
+            Position origin = getPosTotem(symbol);
+            int nbMoves = generateTotemMoves(symbol, totemMoves);
+            for (int i = 0; i < nbMoves; i++) {
+                int move = totemMoves[i];
+                relocateTotem(totem, Position.ofCell(Moves.cell(move), size));
+                int nbInserts = generateInserts(symbol, inserts);
+                for (int j = 0; j < nbInserts; j++) {
+                    turns[count++] = Moves.turn(move, Moves.cell(inserts[j]));
+                }
+                relocateTotem(totem, origin);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Plays a full turn for the player to move: moves a totem, inserts a token of the same symbol
+     * in the player's color and takes it from the stock, then passes the turn to the other player.
+     * Unless the board is in trusted mode, the turn is validated first. The previous state is
+     * recorded so that {@link #unmakeMove()} can restore it exactly; nothing is allocated once the
+     * history buffer exists.
+     *
+     * @param turn the turn, encoded with {@link Moves#turn}
+     * @throws IllegalStateException    if a token is pending insertion
+     * @throws IllegalArgumentException if the turn is not legal
+     */
+    public void makeMove(int turn) {
+        int totemMove = Moves.totemMove(turn);
+        Symbol symbol = Moves.symbol(totemMove);
+        Totem totem = getTotem(symbol);
+        Position origin = getPosTotem(symbol);
+        int target = Moves.cell(totemMove);
+        int insertCell = Moves.insertCell(turn);
+
+        if (!trustedMode) {
+            if (phase != GameState.MOVE) {
+                throw new IllegalStateException("A token must be inserted first!");
+            }
+            if (getTokensLeft(sideToMove, symbol) <= 0 || !isValidMove(symbol, target)) {
+                throw new IllegalArgumentException("Invalid position for moving this totem pole!");
+            }
+        }
+
+        relocateTotem(totem, Position.ofCell(target, size));
+        if (!trustedMode && !isValidInsert(symbol, insertCell)) {
+            relocateTotem(totem, origin);
+            throw new IllegalArgumentException("Invalid position for insertion!");
+        }
+
+        if (history == null) {
+            history = new int[2 * size * size];
+        }
+        history[2 * historySize] = turn;
+        history[2 * historySize + 1] = packState(origin.getX() * size + origin.getY());
+        historySize++;
+
+        placeToken(insertCell / size, insertCell % size, Token.of(symbol, sideToMove));
+        this.lastMoved = symbol;
+        setSideToMove(opponent(sideToMove));
+        setPhase(GameState.MOVE);
+        setPendingSymbol(null);
+    }
+
+    /**
+     * Takes back the last turn played with {@link #makeMove(int)} and restores the exact
+     * previous state, including the last moved symbol and the token stock.
+     *
+     * @throws IllegalStateException if no turn can be taken back
+     */
+    public void unmakeMove() {
+        if (historySize == 0) {
+            throw new IllegalStateException("No turn to take back!");
+        }
+        historySize--;
+        int turn = history[2 * historySize];
+        int state = history[2 * historySize + 1];
+        int insertCell = Moves.insertCell(turn);
+        Symbol symbol = Moves.symbol(Moves.totemMove(turn));
+
+        clearCell(insertCell / size, insertCell % size);
+        relocateTotem(getTotem(symbol), Position.ofCell(state >>> STATE_CELL_SHIFT, size));
+        int lastMovedCode = state & 3;
+        this.lastMoved = (lastMovedCode == 0) ? null : SYMBOLS[lastMovedCode - 1];
+        setSideToMove(opponent(sideToMove));
+        setPhase(((state >>> 2) & 1) == 1 ? GameState.INSERT : GameState.MOVE);
+        int pendingCode = (state >>> 3) & 3;
+        setPendingSymbol((pendingCode == 0) ? null : SYMBOLS[pendingCode - 1]);
+    }
+
+    /**
+     * Packs the state restored by {@link #unmakeMove()}: the last moved symbol, the phase,
+     * the pending symbol and the cell the totem comes from.
+     *
+     * @param originCell the cell the moved totem comes from
+     * @return the packed state
+     */
+    private int packState(int originCell) {
+        int lastMovedCode = (lastMoved == null) ? 0 : lastMoved.ordinal() + 1;
+        int phaseCode = (phase == GameState.INSERT) ? 1 : 0;
+        int pendingCode = (pendingSymbol == null) ? 0 : pendingSymbol.ordinal() + 1;
+        return lastMovedCode | (phaseCode << 2) | (pendingCode << 3) | (originCell << STATE_CELL_SHIFT);
+    }
+
+    /**
+     * Returns the number of turns that can be taken back with {@link #unmakeMove()}.
+     *
+     * @return the number of turns played with {@link #makeMove(int)}
+     */
+    public int getMoveCount() {
+        return historySize;
+    }
+
+    /**
+     * Checks if the board skips the validation of the turns given to {@link #makeMove(int)}.
+     *
+     * @return true if the board is in trusted mode, false otherwise
+     */
+    public boolean isTrustedMode() {
+        return trustedMode;
+    }
+
+    /**
+     * Enables or disables the trusted mode. In trusted mode, {@link #makeMove(int)} applies the
+     * turn without checking it; the caller guarantees it comes from {@link #generateTurns}.
+     *
+     * @param trustedMode true to skip the validation of the turns
+     */
+    public void setTrustedMode(boolean trustedMode) {
+        this.trustedMode = trustedMode;
+    }
+
+    /**
+     * Returns the number of tokens of the given color and symbol that have not been placed yet.
+     *
+     * @param color  the color of the tokens
+     * @param symbol the symbol of the tokens
+     * @return the number of tokens left in the stock
+     */
+    public int getTokensLeft(Color color, Symbol symbol) {
+        return tokensLeft[stockIndex(color, symbol)];
+    }
+
+    private static int stockIndex(Color color, Symbol symbol) {
+        return color.ordinal() * 2 + symbol.ordinal();
+    }
+
+    private static Color opponent(Color color) {
+        return (color == Color.PINK) ? Color.BLACK : Color.PINK;
+    }
+
+    /**
+     * Returns one of the internal scratch buffers used to generate the turns, allocating it on first use.
+     *
+     * @param index the index of the buffer
+     * @return a buffer of size * size moves
+     */
+    private int[] scratchBuffer(int index) {
+        if (scratch == null) {
+            scratch = new int[2][size * size];
+        }
+        return scratch[index];
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package g63551.dev3.oxono.model;
+
+/**
+ * Represents the available implementations of the game board.
+ */
+public enum BoardType {
+
+    ARRAY,    // Reference implementation storing the pieces in a grid
+    BITBOARD; // Implementation answering the rule queries with bitmasks (sizes up to 8)
+
+    /**
+     * Creates an empty board of this type.
+     *
+     * @param size the size of the board
+     * @return the new board
+     */
+    public Board create(int size) {
+        return (this == BITBOARD) ? new BitBoard(size) : new Board(size);
+    }
+
+    /**
+     * Creates a copy of the given board using this implementation.
+     *
+     * @param board the board to copy
+     * @return the copy, sharing its unchanged rows with the original
+     */
+    public Board copyOf(Board board) {
+        if (this == BITBOARD) {
+            return (board instanceof BitBoard bitBoard) ? bitBoard.copy() : new BitBoard(board);
+        }
+        return (board.getClass() == Board.class) ? board.copy() : new Board(board);
+    }
+
+    /**
+     * Returns the fastest implementation supporting boards of the given size.
+     *
+     * @param size the size of the board
+     * @return BITBOARD if the board fits in 64 bits, ARRAY otherwise
+     */
+    public static BoardType fastestFor(int size) {
+        return (size <= BitBoard.MAX_SIZE) ? BITBOARD : ARRAY;
+    }
+}
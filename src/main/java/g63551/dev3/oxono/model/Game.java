@@ -1,17 +1,33 @@
 package g63551.dev3.oxono.model;
 
+import g63551.dev3.oxono.model.command.Command;
+import g63551.dev3.oxono.model.command.CommandCodec;
+import g63551.dev3.oxono.model.command.CommandJournal;
 import g63551.dev3.oxono.model.command.CommandManager;
 import g63551.dev3.oxono.model.command.InsertTokenCmd;
 import g63551.dev3.oxono.model.command.MoveTotemCmd;
+import g63551.dev3.oxono.model.observer.BoardChange;
 import g63551.dev3.oxono.model.observer.Observable;
 import g63551.dev3.oxono.model.observer.Observer;
+import g63551.dev3.oxono.model.solver.CanonicalKey;
+import g63551.dev3.oxono.model.solver.SolutionFile;
+import g63551.dev3.oxono.model.strategy.CancellationToken;
+import g63551.dev3.oxono.model.strategy.OpeningBook;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 
 public class Game implements Observable {
 
+    /**
+     * The number of plies between two snapshots kept by {@link #seek(int)}.
+     */
+    public static final int KEYFRAME_INTERVAL = 16;
+
     private final List<Observer> observers;
     private final Board board;
     private Player toPlay;
@@ -20,63 +36,145 @@ public class Game implements Observable {
     private final Player pink;
     private GameState gameState;
     private final CommandManager cmManager;
+    private final List<Keyframe> keyframes; // Snapshot of every KEYFRAME_INTERVAL-th ply of the history
     private boolean isEnd;
+    private final int level;            // Level of the automatic player, kept for the journal
+    private final BoardType boardType;  // Implementation of the board, kept for the journal
+    private final boolean forked;       // The game started from another game's position
+    private boolean historyWon; // The last ply of the history won the game
+    private Piece[] shown;      // Pieces of the board at the last notification
+    private int transactionDepth; // Number of nested transactions running
+    private boolean pendingNotification; // A notification was deferred by a transaction
 
     public Game(int boardSize, int level) {
+        this(boardSize, level, BoardType.ARRAY);
+    }
+
+    public Game(int boardSize, int level, BoardType boardType) {
         this.observers = new ArrayList<>();
-        this.board = new Board(boardSize);
+        this.board = boardType.create(boardSize);
+        this.level = level;
+        this.boardType = boardType;
+        this.forked = false;
         this.black = new Player(Color.BLACK);
         this.pink = new Player(Color.PINK);
         this.toPlay = pink;
         this.gameState = GameState.MOVE;
-        this.cmManager = new CommandManager();
+        this.cmManager = new CommandManager(new CommandCodec(board, pink, black));
+        this.keyframes = new ArrayList<>();
         this.isEnd = false;
         this.black.setStrategy(level);
+        if (level > 1) {
+            this.black.setOpeningBook(OpeningBook.forSize(boardSize));
+            if (boardSize == CanonicalKey.SIZE) {
+                this.black.setSolution(SolutionFile.forDefaultDirectory());
+            }
+        }
+        this.keyframes.add(new Keyframe(this));
+        this.shown = currentPieces();
+    }
+
+    private Game(Game parent) {
+        this.observers = new ArrayList<>();
+        this.board = parent.board.copy();
+        this.level = parent.level;
+        this.boardType = parent.boardType;
+        this.forked = true;
+        this.black = new Player(parent.black);
+        this.pink = new Player(parent.pink);
+        this.toPlay = (parent.toPlay == parent.black) ? black : pink;
+        this.toInsert = parent.toInsert;
+        this.gameState = parent.gameState;
+        this.cmManager = new CommandManager(new CommandCodec(board, pink, black));
+        this.keyframes = new ArrayList<>();
+        this.isEnd = parent.isEnd;
+        this.keyframes.add(new Keyframe(this));
+        this.shown = currentPieces();
+    }
+
+    /**
+     * Returns an independent copy of this game for what-if analysis. The board rows are shared
+     * with this game and copied on the first write, the token counts and the current phase are
+     * copied, while the observers, the command history and the strategy of the automatic player
+     * are not: on the fork, {@link #autoPlay()} does nothing and {@link #chooseAutoTurn} returns
+     * -1. Forking only reads this game, so several threads may fork it at once while it is not
+     * played, and the fork may be handed to another thread.
+     *
+     * @return the forked game
+     */
+    public Game fork() {
+        return new Game(this);
     }
 
     public void move(int row, int col, Symbol symbol) {
-        Position pos = new Position(row, col);
+        Position pos = Position.of(row, col);
         Totem totem = board.getTotem(symbol);
         if (this.gameState == GameState.MOVE && this.toPlay.getNbTokens(totem.getSymbol()) > 0) {
             MoveTotemCmd moveTotemCmd = new MoveTotemCmd(board, totem, board.getPosTotem(totem.getSymbol()), pos, toInsert);
-            cmManager.doIt(moveTotemCmd);
+            doIt(moveTotemCmd);
             this.setGameState(GameState.INSERT);
             this.setToInsert(totem.getSymbol());
+            this.addKeyframe();
             this.notifyObservers();
         }
     }
 
-    private void won(int row, int col) {
-        int size = board.getSize();
-
-        for (int j = Math.max(0, col - 3); j <= Math.min(size - 4, col); j++) {
-            if (board.checkAlignment(row, j, 0, 1)) {
-                setEnd(true);
-            }
-        }
+    public void move(int cell, Symbol symbol) {
+        move(cell / board.getSize(), cell % board.getSize(), symbol);
+    }
 
-        for (int i = Math.max(0, row - 3); i <= Math.min(size - 4, row); i++) {
-            if (board.checkAlignment(i, col, 1, 0)) {
-                setEnd(true);
-            }
+    private void won(int row, int col) {
+        if (board.isWinningCell(row, col)) {
+            setEnd(true);
+            historyWon = true;
         }
     }
 
     public void insert(int row, int col) {
-        Token token = new Token(toInsert, this.toPlay.getColor());
-        Position pos = new Position(row, col);
         if (this.gameState == GameState.INSERT) {
+            Token token = Token.of(toInsert, this.toPlay.getColor());
+            Position pos = Position.of(row, col);
             InsertTokenCmd insertTokenCmd = new InsertTokenCmd(board, token, pos, toPlay);
-            cmManager.doIt(insertTokenCmd);
+            doIt(insertTokenCmd);
             this.won(pos.getX(), pos.getY());
             if (!isEnd) {
                 this.setToPlay();
                 this.setGameState(GameState.MOVE);
             }
+            this.addKeyframe();
             this.notifyObservers();
         }
     }
 
+    public void insert(int cell) {
+        insert(cell / board.getSize(), cell % board.getSize());
+    }
+
+    /**
+     * Plays a full turn for the current player: moves a totem, then inserts a token, as one
+     * transaction notifying the observers once.
+     *
+     * @param turn the turn, encoded with {@link Moves#turn}
+     */
+    public void applyTurn(int turn) {
+        int totemMove = Moves.totemMove(turn);
+        transaction(() -> {
+            move(Moves.cell(totemMove), Moves.symbol(totemMove));
+            insert(Moves.insertCell(turn));
+        });
+    }
+
+    /**
+     * Returns a copy of the current position, on which strategies can search with
+     * {@link Board#makeMove(int)} without touching the game.
+     *
+     * @param boardType the implementation of the copy
+     * @return the copy of the board
+     */
+    public Board snapshot(BoardType boardType) {
+        return boardType.copyOf(board);
+    }
+
     public boolean isValidMove(Totem totem, Position position) {
         return (board.isValidMove(totem, position));
     }
@@ -91,27 +189,41 @@ public class Game implements Observable {
 
     private void setToPlay() {
         this.toPlay = (toPlay == black) ? pink : black;
+        this.board.setSideToMove(toPlay.getColor());
     }
 
     private void setToInsert(Symbol toInsert) {
         this.toInsert = toInsert;
+        this.board.setPendingSymbol(toInsert);
     }
 
     private void setGameState(GameState gameState) {
         this.gameState = gameState;
+        this.board.setPhase(gameState);
     }
 
     public void undo() {
-        if (this.getGameState() == GameState.MOVE && this.toPlay == pink) {
-            for (int i = 0; i < 3; i++) {
+        transaction(() -> {
+            if (this.getGameState() == GameState.MOVE && this.toPlay == pink) {
+                for (int i = 0; i < 3; i++) {
+                    undoSettings();
+                }
+            } else {
                 undoSettings();
             }
-        } else {
-            undoSettings();
-        }
+        });
     }
 
     private void undoSettings() {
+        stepBack();
+        this.notifyObservers();
+    }
+
+    /**
+     * Undoes the last command and goes back to the phase and the player before it, without
+     * notifying the observers.
+     */
+    private void stepBack() {
         cmManager.undo();
         if (gameState == GameState.INSERT) {
             setGameState(GameState.MOVE);
@@ -120,20 +232,30 @@ public class Game implements Observable {
             setToInsert(board.getLastMoved());
             setToPlay();
         }
-        this.notifyObservers();
     }
 
     public void redo() {
-        if (this.getGameState() == GameState.INSERT && this.toPlay == pink) {
-            for (int i = 0; i < 3; i++) {
+        transaction(() -> {
+            if (this.getGameState() == GameState.INSERT && this.toPlay == pink) {
+                for (int i = 0; i < 3; i++) {
+                    redoSettings();
+                }
+            } else {
                 redoSettings();
             }
-        } else {
-            redoSettings();
-        }
+        });
     }
 
     private void redoSettings() {
+        stepForward();
+        this.notifyObservers();
+    }
+
+    /**
+     * Redoes the next command and goes on to the phase and the player after it, without
+     * notifying the observers.
+     */
+    private void stepForward() {
         cmManager.redo();
         if (gameState == GameState.MOVE) {
             setGameState(GameState.INSERT);
@@ -142,13 +264,211 @@ public class Game implements Observable {
             setGameState(GameState.MOVE);
             setToPlay();
         }
+    }
+
+    /**
+     * Returns the number of plies, totem moves and insertions, played up to the current position
+     * of the history.
+     *
+     * @return the current ply
+     */
+    public int getPly() {
+        return cmManager.getUndoSize();
+    }
+
+    /**
+     * Returns the number of plies of the history, including those that can be redone.
+     *
+     * @return the length of the history
+     */
+    public int getHistoryLength() {
+        return cmManager.getUndoSize() + cmManager.getRedoSize();
+    }
+
+    /**
+     * Jumps to the given ply of the history, leaving the game as the same number of single undo
+     * or redo steps would, and notifies the observers once. Seeking the last ply of a won game
+     * brings back its winning position.
+     * When walking from the current position would replay more commands than starting over from
+     * the nearest snapshot below the target, the snapshot is restored and only the plies after it
+     * are redone, so a seek never replays more than {@link #KEYFRAME_INTERVAL} commands.
+     *
+     * @param ply the ply to reach, from 0 to {@link #getHistoryLength()}
+     * @throws IllegalArgumentException if the ply is not in the history
+     */
+    public void seek(int ply) {
+        int current = getPly();
+        if (ply < 0 || ply > getHistoryLength()) {
+            throw new IllegalArgumentException("This ply is not in the history!");
+        }
+        CommandJournal journal = cmManager.getJournal();
+        cmManager.setJournal(null); // The steps below are recorded as one seek
+        try {
+            seekQuietly(ply, current);
+        } finally {
+            cmManager.setJournal(journal);
+        }
+        cmManager.record(CommandJournal.SEEK, ply);
         this.notifyObservers();
     }
 
+    /**
+     * Jumps to the given ply of the history without notifying the observers.
+     *
+     * @param ply     the ply to reach
+     * @param current the current ply
+     */
+    private void seekQuietly(int ply, int current) {
+        if (isEnd) { // Leave the winning position as a redo step would have left it
+            setEnd(false);
+            setToPlay();
+            setGameState(GameState.MOVE);
+        }
+        int keyframe = Math.min(ply / KEYFRAME_INTERVAL, keyframes.size() - 1);
+        int keyframePly = keyframe * KEYFRAME_INTERVAL;
+        if (ply < current && current - ply <= ply - keyframePly) {
+            while (getPly() > ply) {
+                stepBack();
+            }
+        } else {
+            if (ply < current || keyframePly > current) {
+                keyframes.get(keyframe).restore(this);
+                cmManager.skipTo(keyframePly);
+            }
+            while (getPly() < ply) {
+                stepForward();
+            }
+        }
+        if (historyWon && ply == getHistoryLength()) {
+            setToPlay();
+            setGameState(GameState.INSERT);
+            setEnd(true);
+        }
+    }
+
+    /**
+     * Starts recording the history of this game in a journal file, from which
+     * {@link #recover(Path)} can rebuild the game after a crash. Each operation costs 8 bytes and
+     * is written by a background thread, so playing never waits for the disk.
+     *
+     * @param file the journal file, replaced if it exists
+     * @throws IOException           if the file cannot be written
+     * @throws IllegalStateException if the game is a fork, or has already been played
+     */
+    public void journalTo(Path file) throws IOException {
+        if (forked || getHistoryLength() > 0) {
+            throw new IllegalStateException("Only a new game can be journaled!");
+        }
+        closeJournal();
+        cmManager.setJournal(CommandJournal.create(file, getSize(), level, boardType));
+    }
+
+    /**
+     * Writes the operations not yet on the disk and stops recording the history, if it is recorded.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void closeJournal() throws IOException {
+        CommandJournal journal = cmManager.getJournal();
+        if (journal != null) {
+            cmManager.setJournal(null);
+            journal.close();
+        }
+    }
+
+    /**
+     * Returns the error that made the game stop recording its history, if the journal could not
+     * be written. The game goes on without journal; each error is returned once.
+     *
+     * @return the error, or null if the journal did not fail since the last call
+     */
+    public IOException takeJournalFailure() {
+        return cmManager.takeJournalFailure();
+    }
+
+    /**
+     * Rebuilds a game from its journal file by replaying its history, then goes on recording the
+     * game in the same file. A record torn by a crash at the end of the file is cut off, so the
+     * game resumes from the last operation that reached the disk.
+     *
+     * @param file the journal file
+     * @return the rebuilt game
+     * @throws IOException           if the file cannot be read or written
+     * @throws IllegalStateException if the file is not a journal, or does not replay
+     */
+    public static Game recover(Path file) throws IOException {
+        CommandJournal.Contents contents = CommandJournal.read(file);
+        Game game = new Game(contents.getSize(), contents.getLevel(), contents.getBoardType());
+        try {
+            for (int record : contents.getRecords()) {
+                game.replay(record);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new IllegalStateException("The journal does not replay: " + file, e);
+        }
+        game.cmManager.setJournal(CommandJournal.reopen(file, contents));
+        return game;
+    }
+
+    /**
+     * Replays one operation of a journal, as the game did when it recorded it.
+     *
+     * @param record the record of the operation
+     */
+    private void replay(int record) {
+        int argument = CommandJournal.argument(record);
+        switch (CommandJournal.operation(record)) {
+            case CommandJournal.DO -> {
+                int ply = getPly();
+                if (CommandCodec.isInsertion(argument)) {
+                    insert(CommandCodec.targetCell(argument));
+                } else {
+                    move(CommandCodec.targetCell(argument), CommandCodec.symbol(argument));
+                }
+                if (getPly() == ply) {
+                    throw new IllegalStateException("This command cannot be played now!");
+                }
+            }
+            case CommandJournal.UNDO -> stepBack();
+            case CommandJournal.REDO -> stepForward();
+            case CommandJournal.SEEK -> seek(argument);
+            default -> throw new IllegalStateException("Unknown journal operation!");
+        }
+    }
+
+    /**
+     * Executes a new command, forgetting the snapshots of the plies that can no longer be redone.
+     *
+     * @param command the command to execute
+     */
+    private void doIt(Command command) {
+        int kept = getPly() / KEYFRAME_INTERVAL + 1;
+        if (keyframes.size() > kept) {
+            keyframes.subList(kept, keyframes.size()).clear();
+        }
+        historyWon = false;
+        cmManager.doIt(command);
+    }
+
+    /**
+     * Takes a snapshot of the game if the current ply starts a new keyframe interval, unless the
+     * game has just been won.
+     */
+    private void addKeyframe() {
+        int ply = getPly();
+        if (!isEnd && ply % KEYFRAME_INTERVAL == 0 && ply / KEYFRAME_INTERVAL == keyframes.size()) {
+            keyframes.add(new Keyframe(this));
+        }
+    }
+
     public Piece getPieceAtPos(int row, int col) {
         return board.getPieceAtPos(row, col);
     }
 
+    public Piece getPieceAtCell(int cell) {
+        return board.getPieceAtCell(cell);
+    }
+
     public List<Position> getPossibleTotemMoves(Symbol symbol) {
         return board.getPossibleTotemMoves(symbol);
     }
@@ -157,6 +477,18 @@ public class Game implements Observable {
         return board.getEmptyPositions(symbol, color);
     }
 
+    public int generateTotemMoves(Symbol symbol, int[] moves) {
+        return board.generateTotemMoves(symbol, moves);
+    }
+
+    public int generateInserts(int[] moves) {
+        return board.generateInserts(toInsert, moves);
+    }
+
+    public boolean isValidInsert(Position position) {
+        return board.isValidInsert(toInsert, position.getX(), position.getY());
+    }
+
     @Override
     public void registerObserver(Observer o) {
         observers.add(o);
@@ -167,11 +499,67 @@ public class Game implements Observable {
         observers.remove(o);
     }
 
+    /**
+     * Notifies the observers with the cells changed since the previous notification. Inside a
+     * {@link #transaction(Runnable)}, the notification is deferred to the end of the transaction.
+     */
     @Override
     public void notifyObservers() {
+        if (transactionDepth > 0) {
+            pendingNotification = true;
+            return;
+        }
+        BoardChange change = collectChange();
         for (Observer o : observers) {
-            o.update();
+            o.update(change);
+        }
+    }
+
+    /**
+     * Runs the given compound operation as one transaction: the notifications it triggers are
+     * merged into a single one, sent when it ends, whose change holds every cell it touched.
+     * The observers thus never see its intermediate states. Transactions may be nested, only the
+     * outermost one notifies; a transaction that fails still notifies what it changed.
+     *
+     * @param operation the operation to run
+     */
+    public void transaction(Runnable operation) {
+        transactionDepth++;
+        try {
+            operation.run();
+        } finally {
+            transactionDepth--;
+            if (transactionDepth == 0 && pendingNotification) {
+                pendingNotification = false;
+                notifyObservers();
+            }
+        }
+    }
+
+    private Piece[] currentPieces() {
+        Piece[] pieces = new Piece[board.getSize() * board.getSize()];
+        for (int cell = 0; cell < pieces.length; cell++) {
+            pieces[cell] = board.getPieceAtCell(cell);
+        }
+        return pieces;
+    }
+
+    /**
+     * Compares the board with the pieces shown at the last notification, and records it as shown.
+     *
+     * @return the cells whose piece changed
+     */
+    private BoardChange collectChange() {
+        int[] cells = new int[shown.length];
+        int count = 0;
+        for (int cell = 0; cell < shown.length; cell++) {
+            Piece piece = board.getPieceAtCell(cell);
+            if (piece != shown[cell]) {
+                shown[cell] = piece;
+                cells[count++] = cell;
+            }
         }
+        return new BoardChange(Arrays.copyOf(cells, count));
     }
 
     public boolean canUndo() {
@@ -207,10 +595,45 @@ public class Game implements Observable {
         black.play(this);
     }
 
+    /**
+     * Lets the automatic player choose its turn on the given copy of the game, without playing it.
+     * The game itself is not read, so this method can run on a background thread; the turn is
+     * then played with {@link #applyTurn(int)}.
+     *
+     * @param position a copy of the game, taken with {@link #snapshot(BoardType)}
+     * @param token    the request to stop the choice, created before the choice is started so
+     *                 that it can be cancelled at any time
+     * @return the chosen turn, or -1 if the automatic player has no legal turn
+     */
+    public int chooseAutoTurn(Board position, CancellationToken token) {
+        return black.chooseTurn(position, token);
+    }
+
+    /**
+     * Lets the automatic player think about its next turn while the human player chooses theirs.
+     * Does nothing unless the human player is to start a turn.
+     */
+    public void startPondering() {
+        if (!isEnd && toPlay == pink && gameState == GameState.MOVE) {
+            black.ponder(snapshot(BoardType.fastestFor(getSize())));
+        }
+    }
+
+    /**
+     * Stops the background thinking of the automatic player, if any.
+     */
+    public void stopPondering() {
+        black.stopPondering();
+    }
+
     public Position getPositionTotem(Symbol symbol) {
         return board.getPosTotem(symbol);
     }
 
+    public long getHash() {
+        return board.getHash();
+    }
+
     public Color getCurrentColor() {
         return this.toPlay.getColor();
     }
@@ -225,4 +648,39 @@ public class Game implements Observable {
         return toPlay.toString();
     }
 
+    /**
+     * Snapshot of the position of a game and of its turn state, taken by {@link #seek(int)}.
+     * The board copy shares its rows with the game copy-on-write.
+     */
+    private static final class Keyframe {
+        private final Board board;
+        private final Player pink;
+        private final Player black;
+        private final Color toPlay;
+        private final GameState gameState;
+        private final Symbol toInsert;
+
+        private Keyframe(Game game) {
+            this.board = game.board.copy();
+            this.pink = new Player(game.pink);
+            this.black = new Player(game.black);
+            this.toPlay = game.toPlay.getColor();
+            this.gameState = game.gameState;
+            this.toInsert = game.toInsert;
+        }
+
+        /**
+         * Puts the given game back in the state of the snapshot.
+         *
+         * @param game the game from which the snapshot was taken
+         */
+        private void restore(Game game) {
+            game.board.restore(board);
+            game.pink.copyTokens(pink);
+            game.black.copyTokens(black);
+            game.toPlay = (toPlay == Color.PINK) ? game.pink : game.black;
+            game.gameState = gameState;
+            game.toInsert = toInsert;
+        }
+    }
 }
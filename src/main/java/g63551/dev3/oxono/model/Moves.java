@@ -0,0 +1,76 @@
+package g63551.dev3.oxono.model;
+
+/**
+ * Encodes moves as primitive ints so that move generation does not allocate.
+ * A move packs a cell index (row * size + column) with a symbol: for a totem move the symbol is
+ * the one of the moved totem, for an insertion it is the symbol of the inserted token.
+ */
+public final class Moves {
+
+    private static final Symbol[] SYMBOLS = Symbol.values();
+
+    private Moves() {
+    }
+
+    /**
+     * Encodes a move.
+     *
+     * @param cell   the index of the target cell
+     * @param symbol the symbol of the moved totem or inserted token
+     * @return the encoded move
+     */
+    public static int encode(int cell, Symbol symbol) {
+        return (cell << 1) | symbol.ordinal();
+    }
+
+    /**
+     * Encodes a full turn: a totem move followed by the insertion of a token of the same symbol.
+     *
+     * @param totemMove  the encoded totem move
+     * @param insertCell the index of the cell receiving the token
+     * @return the encoded turn
+     */
+    public static int turn(int totemMove, int insertCell) {
+        return (insertCell << 16) | totemMove;
+    }
+
+    /**
+     * Returns the totem move of an encoded turn.
+     *
+     * @param turn the encoded turn
+     * @return the encoded totem move
+     */
+    public static int totemMove(int turn) {
+        return turn & 0xFFFF;
+    }
+
+    /**
+     * Returns the index of the cell receiving the token in an encoded turn.
+     *
+     * @param turn the encoded turn
+     * @return the index of the cell receiving the token
+     */
+    public static int insertCell(int turn) {
+        return turn >>> 16;
+    }
+
+    /**
+     * Returns the target cell index of an encoded move.
+     *
+     * @param move the encoded move
+     * @return the index of the target cell
+     */
+    public static int cell(int move) {
+        return move >>> 1;
+    }
+
+    /**
+     * Returns the symbol of an encoded move.
+     *
+     * @param move the encoded move
+     * @return the symbol of the moved totem or inserted token
+     */
+    public static Symbol symbol(int move) {
+        return SYMBOLS[move & 1];
+    }
+}
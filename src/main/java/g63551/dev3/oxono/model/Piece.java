@@ -59,6 +59,6 @@ public abstract class Piece {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(color, symbol);
+        return 31 * Objects.hashCode(color) + Objects.hashCode(symbol);
     }
 }
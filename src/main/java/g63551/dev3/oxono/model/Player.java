@@ -1,7 +1,16 @@
 package g63551.dev3.oxono.model;
 
+import g63551.dev3.oxono.model.strategy.AlphaBetaStrategy;
+import g63551.dev3.oxono.model.strategy.BookStrategy;
+import g63551.dev3.oxono.model.strategy.CancellationToken;
+import g63551.dev3.oxono.model.strategy.MctsStrategy;
+import g63551.dev3.oxono.model.solver.SolutionFile;
+import g63551.dev3.oxono.model.strategy.OpeningBook;
+import g63551.dev3.oxono.model.strategy.PerfectPlayStrategy;
+import g63551.dev3.oxono.model.strategy.PonderingStrategy;
 import g63551.dev3.oxono.model.strategy.RandomStrategy;
 import g63551.dev3.oxono.model.strategy.Strategy;
+import g63551.dev3.oxono.model.strategy.TranspositionTable;
 
 /**
  * Represents a player in the game.
@@ -13,7 +22,7 @@ public class Player {
     private int nbTokensX;
     private int nbTokensO;
     private final Color color;
-    private static final int nbTokens = 8;
+    static final int nbTokens = 8;
 
     /**
      * Constructs a player with the specified color.
@@ -27,14 +36,70 @@ public class Player {
         this.nbTokensO = nbTokens;
     }
 
+    /**
+     * Constructs a copy of the given player, with the same color and token counts but no
+     * strategy: a strategy keeps the state of its searches, so it cannot be shared with a copy
+     * that may play on another thread.
+     *
+     * @param other the player to copy
+     */
+    public Player(Player other) {
+        this.color = other.color;
+        this.nbTokensX = other.nbTokensX;
+        this.nbTokensO = other.nbTokensO;
+    }
+
+    /**
+     * Gives this player the token counts of the given player.
+     *
+     * @param other the player whose counts are copied
+     */
+    void copyTokens(Player other) {
+        this.nbTokensX = other.nbTokensX;
+        this.nbTokensO = other.nbTokensO;
+    }
+
     /**
      * Sets the strategy for the player based on the given level.
      *
-     * @param level the level of the strategy (1 for RandomStrategy)
+     * @param level the level of the strategy (1 for RandomStrategy, 2 and 3 for AlphaBetaStrategy
+     *              searching 2 and 4 turns ahead, level 3 on every core, 4 for MctsStrategy
+     *              on every core; levels 3 and 4 also think on the opponent's time)
      */
     public void setStrategy(int level) {
         if (level == 1) {
             this.strategy = new RandomStrategy();
+        } else if (level == 2) {
+            this.strategy = new AlphaBetaStrategy(2, 1000);
+        } else if (level == 3) {
+            this.strategy = new PonderingStrategy(new AlphaBetaStrategy(4, 3000,
+                    new TranspositionTable(AlphaBetaStrategy.DEFAULT_TABLE_MEGABYTES),
+                    Runtime.getRuntime().availableProcessors()));
+        } else if (level == 4) {
+            this.strategy = new PonderingStrategy(new MctsStrategy(3000, Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    /**
+     * Makes the player's strategy play the turns of the given opening book while the game is in it.
+     *
+     * @param book the opening book, or null to leave the strategy unchanged
+     */
+    public void setOpeningBook(OpeningBook book) {
+        if (book != null && strategy != null) {
+            this.strategy = new BookStrategy(book, strategy);
+        }
+    }
+
+    /**
+     * Makes the player play perfectly on the 4x4 board, reading the values of the positions from
+     * the given solution and keeping its strategy for the positions that cannot be solved in time.
+     *
+     * @param solution the solution of the 4x4 board, or null to leave the strategy unchanged
+     */
+    public void setSolution(SolutionFile solution) {
+        if (solution != null && strategy != null) {
+            this.strategy = new PerfectPlayStrategy(solution, strategy, 3000);
         }
     }
 
@@ -49,6 +114,38 @@ public class Player {
         }
     }
 
+    /**
+     * Asks the player's strategy to choose a turn on the given board, without playing it.
+     *
+     * @param board a copy of the position to play
+     * @param token the request to stop the choice as soon as possible
+     * @return the chosen turn, encoded with {@link Moves#turn}, or -1 if the player has no
+     *         strategy or no legal turn
+     */
+    public int chooseTurn(Board board, CancellationToken token) {
+        return (strategy != null) ? strategy.chooseTurn(board, token) : -1;
+    }
+
+    /**
+     * Lets the player's strategy think, in the background, while the opponent chooses its turn.
+     *
+     * @param position a copy of the position, with the opponent to move
+     */
+    public void ponder(Board position) {
+        if (strategy != null) {
+            strategy.ponder(position);
+        }
+    }
+
+    /**
+     * Stops the background thinking of the player's strategy, if any.
+     */
+    public void stopPondering() {
+        if (strategy != null) {
+            strategy.stopPondering();
+        }
+    }
+
     /**
      * Returns the color of the player.
      *
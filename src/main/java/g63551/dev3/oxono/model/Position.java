@@ -1,13 +1,27 @@
 package g63551.dev3.oxono.model;
 
-import java.util.Objects;
-
 /**
  * Represents a position on a 2D grid with x and y coordinates.
  */
 public class Position {
-    private int x;
-    private int y;
+
+    /**
+     * The largest board size whose positions are all interned.
+     */
+    public static final int MAX_INTERNED = 16;
+
+    private static final Position[] INTERNED = new Position[MAX_INTERNED * MAX_INTERNED];
+
+    static {
+        for (int x = 0; x < MAX_INTERNED; x++) {
+            for (int y = 0; y < MAX_INTERNED; y++) {
+                INTERNED[x * MAX_INTERNED + y] = new Position(x, y);
+            }
+        }
+    }
+
+    private final int x;
+    private final int y;
 
     /**
      * Constructs a Position object with specified x and y coordinates.
@@ -20,6 +34,33 @@ public class Position {
         this.y = y;
     }
 
+    /**
+     * Returns the canonical position with the given coordinates.
+     * Positions of boards up to {@link #MAX_INTERNED} are taken from a precomputed table,
+     * so no object is created; other coordinates give a new position.
+     *
+     * @param x the x-coordinate of the position
+     * @param y the y-coordinate of the position
+     * @return the position with the given coordinates
+     */
+    public static Position of(int x, int y) {
+        if (x >= 0 && x < MAX_INTERNED && y >= 0 && y < MAX_INTERNED) {
+            return INTERNED[x * MAX_INTERNED + y];
+        }
+        return new Position(x, y);
+    }
+
+    /**
+     * Returns the canonical position of a cell index (row * size + column) on a board of the given size.
+     *
+     * @param cell the index of the cell
+     * @param size the size of the board
+     * @return the position of the cell
+     */
+    public static Position ofCell(int cell, int size) {
+        return of(cell / size, cell % size);
+    }
+
     /**
      * Returns the x-coordinate of the position.
      *
@@ -59,7 +100,7 @@ public class Position {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y;
     }
 
     /**
@@ -6,6 +6,11 @@ package g63551.dev3.oxono.model;
  */
 public class Token extends Piece {
 
+    private static final Token[] CANONICAL = {
+            new Token(Symbol.CROSS, Color.BLACK), new Token(Symbol.CIRCLE, Color.BLACK),
+            new Token(Symbol.CROSS, Color.PINK), new Token(Symbol.CIRCLE, Color.PINK)
+    };
+
     /**
      * Constructs a Token with the specified symbol and color.
      *
@@ -16,4 +21,16 @@ public class Token extends Piece {
         super(symbol);
         this.color = color;
     }
+
+    /**
+     * Returns the shared token with the specified symbol and color.
+     * Tokens carry no identity of their own, so the same instance can be placed on many cells.
+     *
+     * @param symbol the symbol of the token (CROSS or CIRCLE)
+     * @param color the color of the token (BLACK or PINK)
+     * @return the shared token
+     */
+    public static Token of(Symbol symbol, Color color) {
+        return CANONICAL[color.ordinal() * 2 + symbol.ordinal()];
+    }
 }
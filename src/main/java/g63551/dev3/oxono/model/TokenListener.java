@@ -0,0 +1,28 @@
+package g63551.dev3.oxono.model;
+
+/**
+ * Interface for objects following the tokens placed on and removed from a board, to keep data
+ * derived from the grid up to date without scanning it.
+ * A listener is called synchronously by the board, on the thread that modifies it, after the
+ * change; the totems are not reported.
+ */
+public interface TokenListener {
+
+    /**
+     * Called when a token is placed in a cell.
+     *
+     * @param x     the row index of the cell
+     * @param y     the column index of the cell
+     * @param token the token placed
+     */
+    void tokenPlaced(int x, int y, Token token);
+
+    /**
+     * Called when a token is removed from a cell.
+     *
+     * @param x     the row index of the cell
+     * @param y     the column index of the cell
+     * @param token the token removed
+     */
+    void tokenRemoved(int x, int y, Token token);
+}
@@ -0,0 +1,75 @@
+package g63551.dev3.oxono.model;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random keys used to compute the 64-bit Zobrist hash of a game position.
+ * The hash of a position is the XOR of the keys of its tokens and totems, plus the keys of the
+ * side to move, the phase and the pending symbol. Keys are generated from a fixed seed per board
+ * size, so a position has the same hash in every run of the application.
+ */
+final class Zobrist {
+
+    private static final long SEED = 0x0A0B_0C0D_4F58_4F4EL;
+    private static final Map<Integer, Zobrist> KEYS = new ConcurrentHashMap<>();
+
+    private final long[][] tokens;
+    private final long[][] totems;
+    private final long blackToMove;
+    private final long insertPhase;
+    private final long[] pending;
+
+    private Zobrist(int size) {
+        SplittableRandom random = new SplittableRandom(SEED + size);
+        int cells = size * size;
+        this.tokens = new long[4][cells];
+        this.totems = new long[2][cells];
+        for (long[] keys : tokens) {
+            fill(keys, random);
+        }
+        for (long[] keys : totems) {
+            fill(keys, random);
+        }
+        this.blackToMove = random.nextLong();
+        this.insertPhase = random.nextLong();
+        this.pending = new long[]{random.nextLong(), random.nextLong()};
+    }
+
+    private static void fill(long[] keys, SplittableRandom random) {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Returns the keys for a board of the given size.
+     *
+     * @param size the size of the board
+     * @return the keys, shared by every board of that size
+     */
+    static Zobrist forSize(int size) {
+        return KEYS.computeIfAbsent(size, Zobrist::new);
+    }
+
+    long token(Color color, Symbol symbol, int cell) {
+        return tokens[color.ordinal() * 2 + symbol.ordinal()][cell];
+    }
+
+    long totem(Symbol symbol, int cell) {
+        return totems[symbol.ordinal()][cell];
+    }
+
+    long sideToMove(Color color) {
+        return (color == Color.BLACK) ? blackToMove : 0L;
+    }
+
+    long phase(GameState phase) {
+        return (phase == GameState.INSERT) ? insertPhase : 0L;
+    }
+
+    long pending(Symbol symbol) {
+        return (symbol == null) ? 0L : pending[symbol.ordinal()];
+    }
+}
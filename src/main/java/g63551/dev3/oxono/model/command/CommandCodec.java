@@ -0,0 +1,115 @@
+package g63551.dev3.oxono.model.command;
+
+import g63551.dev3.oxono.model.*;
+
+/**
+ * Packs the commands of a game into ints and rebuilds them, so that the history keeps four bytes
+ * per command instead of the command objects.
+ * From the lowest bit, a totem move holds 0, its symbol (1 bit), the previous last moved symbol
+ * (2 bits, 0 for none), its start cell and its target cell (12 bits each); an insertion holds 1,
+ * the symbol and the color of its token (1 bit each, then one unused bit) and its cell (12 bits).
+ * The rebuilt commands act on the board and the players given to the codec.
+ */
+public class CommandCodec {
+    private static final int CELL_BITS = 12;
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+    private static final int FROM_SHIFT = 4;
+    private static final int TO_SHIFT = FROM_SHIFT + CELL_BITS;
+    private static final Symbol[] SYMBOLS = Symbol.values();
+    private static final Color[] COLORS = Color.values();
+
+    private final Board board;   // The board on which the commands act
+    private final Player pink;   // The pink player, who takes the pink tokens
+    private final Player black;  // The black player, who takes the black tokens
+
+    /**
+     * Constructs a CommandCodec for the commands of a game.
+     *
+     * @param board the board of the game
+     * @param pink  the pink player
+     * @param black the black player
+     */
+    public CommandCodec(Board board, Player pink, Player black) {
+        this.board = board;
+        this.pink = pink;
+        this.black = black;
+    }
+
+    /**
+     * Packs a command into an int.
+     *
+     * @param command the command, a {@link MoveTotemCmd} or an {@link InsertTokenCmd}
+     * @return the packed command
+     * @throws IllegalArgumentException if the command cannot be packed
+     */
+    public int encode(Command command) {
+        int size = board.getSize();
+        if (command instanceof MoveTotemCmd move) {
+            Symbol previous = move.getInitialSymbol();
+            return (move.getTotem().getSymbol().ordinal() << 1)
+                    | (((previous == null) ? 0 : previous.ordinal() + 1) << 2)
+                    | (cell(move.getPosInitiale(), size) << FROM_SHIFT)
+                    | (cell(move.getPosFinale(), size) << TO_SHIFT);
+        }
+        if (command instanceof InsertTokenCmd insert) {
+            Token token = insert.getToken();
+            return 1 | (token.getSymbol().ordinal() << 1) | (token.getColor().ordinal() << 2)
+                    | (cell(insert.getPosFinale(), size) << FROM_SHIFT);
+        }
+        throw new IllegalArgumentException("This command cannot be recorded!");
+    }
+
+    private static int cell(Position position, int size) {
+        return position.getX() * size + position.getY();
+    }
+
+    /**
+     * Rebuilds a command packed by {@link #encode}.
+     *
+     * @param packed the packed command
+     * @return the command, acting on the board and the players of the codec
+     */
+    public Command decode(int packed) {
+        int size = board.getSize();
+        Symbol symbol = SYMBOLS[(packed >>> 1) & 1];
+        Position from = Position.ofCell((packed >>> FROM_SHIFT) & CELL_MASK, size);
+        if ((packed & 1) != 0) {
+            Color color = COLORS[(packed >>> 2) & 1];
+            return new InsertTokenCmd(board, Token.of(symbol, color), from, (color == Color.PINK) ? pink : black);
+        }
+        int previous = (packed >>> 2) & 3;
+        Position to = Position.ofCell((packed >>> TO_SHIFT) & CELL_MASK, size);
+        return new MoveTotemCmd(board, board.getTotem(symbol), from, to, (previous == 0) ? null : SYMBOLS[previous - 1]);
+    }
+
+    /**
+     * Checks if a packed command is an insertion.
+     *
+     * @param packed the packed command
+     * @return true for an insertion, false for a totem move
+     */
+    public static boolean isInsertion(int packed) {
+        return (packed & 1) != 0;
+    }
+
+    /**
+     * Returns the symbol of a packed command: the symbol of the moved totem or of the inserted token.
+     *
+     * @param packed the packed command
+     * @return the symbol
+     */
+    public static Symbol symbol(int packed) {
+        return SYMBOLS[(packed >>> 1) & 1];
+    }
+
+    /**
+     * Returns the cell reached by a packed command: the target of a totem move, or the cell of an
+     * insertion.
+     *
+     * @param packed the packed command
+     * @return the index of the cell
+     */
+    public static int targetCell(int packed) {
+        return (packed >>> (isInsertion(packed) ? FROM_SHIFT : TO_SHIFT)) & CELL_MASK;
+    }
+}
@@ -0,0 +1,415 @@
+package g63551.dev3.oxono.model.command;
+
+import g63551.dev3.oxono.model.BoardType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file recording the history of a game, so that the game can be rebuilt after a
+ * crash. The file starts with a 16-byte header (magic number, version, size of the board, level
+ * of the automatic player, board implementation, then the CRC32 of those bytes), followed by one
+ * 8-byte record per history operation: an int holding the operation in its 4 highest bits and its
+ * argument in the others, then the CRC32 of that int.
+ *
+ * <p>{@link #append} only queues the record: a background thread writes every record queued
+ * since its last write in one batch, then forces it to the disk, so the game thread never waits
+ * for the disk and the records that arrive during a force share the next one. A crash may lose
+ * the last records or leave a torn one at the end of the file, which {@link #read} ignores.</p>
+ */
+public final class CommandJournal implements AutoCloseable {
+
+    /**
+     * Operation executing a new command; the argument is the command packed by {@link CommandCodec}.
+     */
+    public static final int DO = 0;
+
+    /**
+     * Operation undoing the last command.
+     */
+    public static final int UNDO = 1;
+
+    /**
+     * Operation redoing the last undone command.
+     */
+    public static final int REDO = 2;
+
+    /**
+     * Operation jumping to a ply of the history; the argument is the ply.
+     */
+    public static final int SEEK = 3;
+
+    /**
+     * The system property giving the journal file of the game, {@code oxono.journal} by default.
+     */
+    public static final String FILE_PROPERTY = "oxono.journal";
+
+    static final int MAGIC = 0x4F584A4C;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 8;
+
+    private static final int OPERATION_SHIFT = 28;
+    private static final int ARGUMENT_MASK = (1 << OPERATION_SHIFT) - 1;
+    private static final BoardType[] BOARD_TYPES = BoardType.values();
+
+    private final FileChannel channel;
+    private final Thread writer;
+    private final Object lock = new Object();
+    private final CRC32 crc = new CRC32(); // Used by the writer thread only
+    private ByteBuffer buffer;             // Used by the writer thread only
+    private int[] queued = new int[64];    // Records waiting for the writer, guarded by lock
+    private int queuedCount;               // Guarded by lock
+    private long appended;                 // Records queued since the opening, guarded by lock
+    private long written;                  // Records forced to the disk, guarded by lock
+    private IOException failure;           // First error of the writer, guarded by lock
+    private boolean closing;               // Guarded by lock
+
+    private CommandJournal(FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(64 * RECORD_BYTES);
+        this.writer = new Thread(this::writeLoop, "oxono-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Creates a journal for a new game, replacing any file with the same name.
+     *
+     * @param file      the journal file
+     * @param size      the size of the board
+     * @param level     the level of the automatic player
+     * @param boardType the implementation of the board
+     * @return the journal, ready to record the operations
+     * @throws IOException if the file cannot be written
+     */
+    public static CommandJournal create(Path file, int size, int level, BoardType boardType) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort((short) VERSION).put((byte) size).put((byte) level)
+                .put((byte) boardType.ordinal());
+        header.putInt(12, checksum(header.array(), 12));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            header.rewind();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new CommandJournal(channel);
+    }
+
+    /**
+     * Reopens a journal read with {@link #read} to record the next operations, cutting off the
+     * torn records at its end.
+     *
+     * @param file     the journal file
+     * @param contents the contents of the file, as read
+     * @return the journal, ready to record the operations
+     * @throws IOException if the file cannot be written
+     */
+    public static CommandJournal reopen(Path file, Contents contents) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        try {
+            long length = HEADER_BYTES + (long) contents.records.length * RECORD_BYTES;
+            if (channel.size() > length) {
+                channel.truncate(length);
+                channel.force(true);
+            }
+            channel.position(length);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new CommandJournal(channel);
+    }
+
+    /**
+     * Reads a journal file, up to its last complete record whose checksum is right.
+     *
+     * @param file the journal file
+     * @return the header and the valid records of the file
+     * @throws IOException           if the file cannot be read
+     * @throws IllegalStateException if the file is not a journal
+     */
+    public static Contents read(Path file) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (bytes.limit() < HEADER_BYTES || bytes.getInt(0) != MAGIC || bytes.getShort(4) != VERSION
+                || bytes.getInt(12) != checksum(bytes.array(), 12)
+                || Byte.toUnsignedInt(bytes.get(8)) >= BOARD_TYPES.length) {
+            throw new IllegalStateException("Not a journal file: " + file);
+        }
+        int[] records = new int[(bytes.limit() - HEADER_BYTES) / RECORD_BYTES];
+        CRC32 crc = new CRC32();
+        int count = 0;
+        for (int offset = HEADER_BYTES; count < records.length; offset += RECORD_BYTES) {
+            crc.reset();
+            crc.update(bytes.array(), offset, Integer.BYTES);
+            if ((int) crc.getValue() != bytes.getInt(offset + Integer.BYTES)) {
+                break;
+            }
+            records[count++] = bytes.getInt(offset);
+        }
+        return new Contents(bytes.get(6), bytes.get(7), BOARD_TYPES[bytes.get(8)], Arrays.copyOf(records, count),
+                bytes.limit() - HEADER_BYTES != count * RECORD_BYTES);
+    }
+
+    /**
+     * Returns the journal file of the game, given by the {@link #FILE_PROPERTY} system property.
+     *
+     * @return the path of the journal file
+     */
+    public static Path defaultFile() {
+        return Path.of(System.getProperty(FILE_PROPERTY, "oxono.journal"));
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Packs an operation and its argument into a record.
+     *
+     * @param operation the operation, {@link #DO}, {@link #UNDO}, {@link #REDO} or {@link #SEEK}
+     * @param argument  the argument of the operation, on 28 bits
+     * @return the record
+     */
+    public static int record(int operation, int argument) {
+        return (operation << OPERATION_SHIFT) | (argument & ARGUMENT_MASK);
+    }
+
+    /**
+     * Returns the operation of a record.
+     *
+     * @param record the record
+     * @return the operation
+     */
+    public static int operation(int record) {
+        return record >>> OPERATION_SHIFT;
+    }
+
+    /**
+     * Returns the argument of a record.
+     *
+     * @param record the record
+     * @return the argument
+     */
+    public static int argument(int record) {
+        return record & ARGUMENT_MASK;
+    }
+
+    /**
+     * Queues an operation to be written. Returns at once: the record reaches the disk with the
+     * next batch of the writer thread.
+     *
+     * @param operation the operation
+     * @param argument  the argument of the operation
+     * @throws UncheckedIOException  if an earlier write failed
+     * @throws IllegalStateException if the journal is closed
+     */
+    public void append(int operation, int argument) {
+        synchronized (lock) {
+            checkFailure();
+            if (closing) {
+                throw new IllegalStateException("The journal is closed!");
+            }
+            if (queuedCount == queued.length) {
+                queued = Arrays.copyOf(queued, 2 * queuedCount);
+            }
+            queued[queuedCount++] = record(operation, argument);
+            appended++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until every operation appended so far is on the disk.
+     *
+     * @throws UncheckedIOException if a write failed
+     */
+    public void flush() {
+        synchronized (lock) {
+            long target = appended;
+            while (written < target && failure == null) {
+                waitForWriter();
+            }
+            checkFailure();
+        }
+    }
+
+    /**
+     * Writes the operations still queued, then stops the writer thread and closes the file.
+     *
+     * @throws IOException if a write failed or the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closing = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+
+    private void waitForWriter() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal!");
+        }
+    }
+
+    /**
+     * Body of the writer thread: takes every queued record, writes them in one batch and forces
+     * them to the disk, until the journal is closed and nothing is left.
+     */
+    private void writeLoop() {
+        int[] batch = new int[queued.length];
+        while (true) {
+            int count;
+            synchronized (lock) {
+                while (queuedCount == 0 && !closing) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (queuedCount == 0) {
+                    return;
+                }
+                int[] swap = queued;
+                queued = (batch.length >= swap.length) ? batch : new int[swap.length];
+                batch = swap;
+                count = queuedCount;
+                queuedCount = 0;
+            }
+            try {
+                writeBatch(batch, count);
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                written += count;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void writeBatch(int[] records, int count) throws IOException {
+        if (buffer.capacity() < count * RECORD_BYTES) {
+            buffer = ByteBuffer.allocate(Integer.highestOneBit(count * RECORD_BYTES) * 2);
+        }
+        buffer.clear();
+        for (int i = 0; i < count; i++) {
+            int position = buffer.position();
+            buffer.putInt(records[i]);
+            crc.reset();
+            crc.update(buffer.array(), position, Integer.BYTES);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Header and valid records of a journal file.
+     */
+    public static final class Contents {
+        private final int size;
+        private final int level;
+        private final BoardType boardType;
+        private final int[] records;
+        private final boolean torn;
+
+        private Contents(int size, int level, BoardType boardType, int[] records, boolean torn) {
+            this.size = size;
+            this.level = level;
+            this.boardType = boardType;
+            this.records = records;
+            this.torn = torn;
+        }
+
+        /**
+         * Returns the size of the board of the game.
+         *
+         * @return the size of the board
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the level of the automatic player of the game.
+         *
+         * @return the level
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * Returns the implementation of the board of the game.
+         *
+         * @return the board implementation
+         */
+        public BoardType getBoardType() {
+            return boardType;
+        }
+
+        /**
+         * Returns the valid records of the file, in order.
+         *
+         * @return a copy of the records
+         */
+        public int[] getRecords() {
+            return records.clone();
+        }
+
+        /**
+         * Checks if the file ends with bytes that are not a valid record, left by a crash.
+         *
+         * @return true if the end of the file is torn, false otherwise
+         */
+        public boolean isTorn() {
+            return torn;
+        }
+    }
+}
@@ -1,63 +1,208 @@
 package g63551.dev3.oxono.model.command;
 
-import java.util.Stack;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 
 /**
  * Manages the execution, undo, and redo of commands.
- * It maintains two stacks: one for undoing and one for redoing actions.
+ * The commands are not kept: each one is packed into an int by a {@link CommandCodec} and rebuilt
+ * when it is undone or redone, so a turn of history takes eight bytes. The undo history is a ring
+ * buffer that grows as needed or, when the history is capped, forgets its oldest commands; the
+ * redo history is a plain stack. The manager is not synchronized and belongs to one game.
+ * When a {@link CommandJournal} is attached, every command done, undone or redone is also
+ * appended to it. A journal that cannot be written is detached, so that the game goes on
+ * without it; its error is kept for {@link #takeJournalFailure()}.
  */
 public class CommandManager {
-    private final Stack<Command> undoStack; // Stack to store commands that can be undone
-    private final Stack<Command> redoStack;  // Stack to store commands that can be redone
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final CommandCodec codec; // Packs and rebuilds the commands
+    private final int maxHistory;     // Greatest number of commands that can be undone
+    private int[] undoRing;           // Packed commands that can be undone, oldest first from undoStart
+    private int undoStart;            // Index of the oldest command in the ring
+    private int undoSize;             // Number of commands that can be undone
+    private int[] redoStack;          // Packed commands that can be redone, the next one last
+    private int redoSize;             // Number of commands that can be redone
+    private CommandJournal journal;   // Records the history on the disk, if any
+    private IOException journalFailure; // Error of the last journal detached, not yet taken
 
     /**
-     * Constructs a CommandManager with empty undo and redo stacks.
+     * Constructs a CommandManager with an unlimited history.
+     *
+     * @param codec the codec of the commands of the game
+     */
+    public CommandManager(CommandCodec codec) {
+        this(codec, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a CommandManager keeping at most the given number of commands to undo.
+     *
+     * @param codec      the codec of the commands of the game
+     * @param maxHistory the greatest number of commands that can be undone
+     * @throws IllegalArgumentException if the history cannot hold one command
      */
-    public CommandManager() {
-        this.undoStack = new Stack<>();
-        this.redoStack = new Stack<>();
+    public CommandManager(CommandCodec codec, int maxHistory) {
+        if (maxHistory < 1) {
+            throw new IllegalArgumentException("The history must hold at least one command!");
+        }
+        this.codec = codec;
+        this.maxHistory = maxHistory;
+        this.undoRing = new int[Math.min(INITIAL_CAPACITY, maxHistory)];
+        this.redoStack = new int[undoRing.length];
     }
 
     /**
-     * Executes the given command and adds it to the undo stack.
-     * Clears the redo stack as the history is altered.
+     * Executes the given command and adds it to the undo history.
+     * Clears the redo history as the history is altered.
      *
      * @param command the command to execute
+     * @throws IllegalArgumentException if the codec cannot pack the command
      */
     public void doIt(Command command) {
+        int packed = codec.encode(command);
         command.execute();
-        undoStack.add(command);
-        redoStack.clear();
+        pushUndo(packed);
+        redoSize = 0;
+        record(CommandJournal.DO, packed);
     }
 
     /**
-     * Undoes the last executed command, if any, and moves it to the redo stack.
+     * Undoes the last executed command, if any, and moves it to the redo history.
      *
      * @throws IllegalStateException if there are no commands to undo
      */
     public void undo() {
-        if (undoStack.isEmpty()) {
+        if (undoSize == 0) {
             throw new IllegalStateException("undo stack is empty !");
-        } else {
-            Command c = undoStack.pop();
-            c.unexecute();
-            redoStack.push(c);
         }
+        undoSize--;
+        int packed = undoRing[(undoStart + undoSize) % undoRing.length];
+        codec.decode(packed).unexecute();
+        pushRedo(packed);
+        record(CommandJournal.UNDO, 0);
     }
 
     /**
-     * Redoes the last undone command, if any, and moves it to the undo stack.
+     * Redoes the last undone command, if any, and moves it to the undo history.
      *
      * @throws IllegalStateException if there are no commands to redo
      */
     public void redo() {
-        if (redoStack.isEmpty()) {
+        if (redoSize == 0) {
             throw new IllegalStateException("redo stack is empty !");
-        } else {
-            Command c = redoStack.pop();
-            c.execute();
-            undoStack.push(c);
         }
+        int packed = redoStack[--redoSize];
+        codec.decode(packed).execute();
+        pushUndo(packed);
+        record(CommandJournal.REDO, 0);
+    }
+
+    /**
+     * Appends an operation to the journal, if any. If the journal cannot be written, it is
+     * detached and closed and its error is kept, so that the operation, already done, never fails.
+     *
+     * @param operation the operation, as defined by {@link CommandJournal}
+     * @param argument  the argument of the operation
+     */
+    public void record(int operation, int argument) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.append(operation, argument);
+        } catch (UncheckedIOException | IllegalStateException e) {
+            CommandJournal failed = journal;
+            journal = null;
+            journalFailure = (e instanceof UncheckedIOException unchecked) ? unchecked.getCause()
+                    : new IOException(e.getMessage(), e);
+            try {
+                failed.close();
+            } catch (IOException ignored) {
+                // The error of the writer is the one kept
+            }
+        }
+    }
+
+    /**
+     * Returns the error of the last journal detached because it could not be written, and forgets
+     * it, so that each failure is reported once.
+     *
+     * @return the error, or null if no journal failed since the last call
+     */
+    public IOException takeJournalFailure() {
+        IOException failure = journalFailure;
+        journalFailure = null;
+        return failure;
+    }
+
+    /**
+     * Sets the journal to which the commands done, undone and redone are appended.
+     *
+     * @param journal the journal, or null to stop recording
+     */
+    public void setJournal(CommandJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Returns the journal to which the commands are appended.
+     *
+     * @return the journal, or null if the history is not recorded
+     */
+    public CommandJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Moves the history to the given number of done commands without executing or undoing any of
+     * them, the caller putting the game in the matching state itself, for instance from a snapshot.
+     * The move is not appended to the journal, which is left to the caller.
+     *
+     * @param ply the number of commands that can be undone afterwards
+     * @throws IllegalArgumentException if the ply is not in the history
+     */
+    public void skipTo(int ply) {
+        if (ply < 0 || ply > undoSize + redoSize) {
+            throw new IllegalArgumentException("This ply is not in the history!");
+        }
+        while (undoSize > ply) {
+            undoSize--;
+            pushRedo(undoRing[(undoStart + undoSize) % undoRing.length]);
+        }
+        while (undoSize < ply) {
+            pushUndo(redoStack[--redoSize]);
+        }
+    }
+
+    /**
+     * Adds a packed command to the undo history, growing the ring if it is full and the history
+     * is not capped, or dropping the oldest command otherwise.
+     */
+    private void pushUndo(int packed) {
+        if (undoSize == undoRing.length) {
+            if (undoSize == maxHistory) {
+                undoRing[undoStart] = packed;
+                undoStart = (undoStart + 1) % undoRing.length;
+                return;
+            }
+            int[] grown = new int[(int) Math.min(2L * undoSize, maxHistory)];
+            for (int i = 0; i < undoSize; i++) {
+                grown[i] = undoRing[(undoStart + i) % undoRing.length];
+            }
+            undoRing = grown;
+            undoStart = 0;
+        }
+        undoRing[(undoStart + undoSize) % undoRing.length] = packed;
+        undoSize++;
+    }
+
+    private void pushRedo(int packed) {
+        if (redoSize == redoStack.length) {
+            redoStack = Arrays.copyOf(redoStack, 2 * redoSize);
+        }
+        redoStack[redoSize++] = packed;
     }
 
     /**
@@ -66,7 +211,7 @@ public class CommandManager {
      * @return true if there are commands to undo, false otherwise
      */
     public boolean canUndo() {
-        return !undoStack.isEmpty();
+        return undoSize > 0;
     }
 
     /**
@@ -75,6 +220,24 @@ public class CommandManager {
      * @return true if there are commands to redo, false otherwise
      */
     public boolean canRedo() {
-        return !redoStack.isEmpty();
+        return redoSize > 0;
+    }
+
+    /**
+     * Returns the number of commands that can be undone.
+     *
+     * @return the size of the undo history
+     */
+    public int getUndoSize() {
+        return undoSize;
+    }
+
+    /**
+     * Returns the number of commands that can be redone.
+     *
+     * @return the size of the redo history
+     */
+    public int getRedoSize() {
+        return redoSize;
     }
 }
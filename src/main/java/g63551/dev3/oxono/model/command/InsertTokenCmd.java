@@ -27,6 +27,24 @@ public class InsertTokenCmd implements Command {
         this.player = player;
     }
 
+    /**
+     * Returns the token to be inserted.
+     *
+     * @return the token
+     */
+    Token getToken() {
+        return token;
+    }
+
+    /**
+     * Returns the position where the token is inserted.
+     *
+     * @return the final position
+     */
+    Position getPosFinale() {
+        return posFinale;
+    }
+
     /**
      * Executes the command by inserting the token at the specified position and decreasing the player's tokens.
      */
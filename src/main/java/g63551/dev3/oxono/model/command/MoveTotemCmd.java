@@ -30,6 +30,42 @@ public class MoveTotemCmd implements Command {
         this.initialSymbol = initialSymbol;
     }
 
+    /**
+     * Returns the totem being moved.
+     *
+     * @return the totem
+     */
+    Totem getTotem() {
+        return totem;
+    }
+
+    /**
+     * Returns the initial position of the totem.
+     *
+     * @return the initial position
+     */
+    Position getPosInitiale() {
+        return posInitiale;
+    }
+
+    /**
+     * Returns the final position for the totem.
+     *
+     * @return the final position
+     */
+    Position getPosFinale() {
+        return posFinale;
+    }
+
+    /**
+     * Returns the last moved symbol before the command.
+     *
+     * @return the previous last moved symbol, or null
+     */
+    Symbol getInitialSymbol() {
+        return initialSymbol;
+    }
+
     /**
      * Executes the command by moving the totem to the final position and updating the last moved symbol.
      */
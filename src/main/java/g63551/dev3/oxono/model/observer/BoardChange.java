@@ -0,0 +1,54 @@
+package g63551.dev3.oxono.model.observer;
+
+import java.util.Arrays;
+
+/**
+ * Describes what changed on the board since the previous notification: the indexes
+ * (row * size + column) of the cells whose piece is different, in increasing order.
+ * A change may carry no cell, when only the turn state changed.
+ */
+public final class BoardChange {
+    private final int[] cells;
+
+    /**
+     * Constructs a change of the given cells.
+     *
+     * @param cells the indexes of the changed cells, in increasing order
+     */
+    public BoardChange(int[] cells) {
+        this.cells = cells.clone();
+    }
+
+    /**
+     * Returns the indexes of the changed cells.
+     *
+     * @return a copy of the indexes, in increasing order
+     */
+    public int[] getCells() {
+        return cells.clone();
+    }
+
+    /**
+     * Checks if the given cell changed.
+     *
+     * @param cell the index of the cell
+     * @return true if the piece of the cell is different, false otherwise
+     */
+    public boolean contains(int cell) {
+        return Arrays.binarySearch(cells, cell) >= 0;
+    }
+
+    /**
+     * Returns the number of changed cells.
+     *
+     * @return the number of cells
+     */
+    public int size() {
+        return cells.length;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardChange" + Arrays.toString(cells);
+    }
+}
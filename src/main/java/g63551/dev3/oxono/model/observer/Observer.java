@@ -10,4 +10,15 @@ public interface Observer {
      * Called to notify the observer of an update.
      */
     public void update();
+
+    /**
+     * Called to notify the observer of an update, with the cells of the board that changed since
+     * the previous notification. Observers that redraw the whole board can ignore the change,
+     * which is what the default implementation does.
+     *
+     * @param change the cells that changed
+     */
+    default void update(BoardChange change) {
+        update();
+    }
 }
@@ -0,0 +1,88 @@
+package g63551.dev3.oxono.model.solver;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.Piece;
+import g63551.dev3.oxono.model.Token;
+import g63551.dev3.oxono.model.Totem;
+
+/**
+ * Key of a 4x4 position that is the same for the 8 symmetric positions (rotations and reflections
+ * of the board), under which the rules of the game are invariant.
+ * Every cell is coded on 3 bits (empty, one of the four tokens, or one of the two totems), so a
+ * position takes 48 bits; the key is the smallest code among the 8 symmetric positions.
+ * The player to move is not part of the key: each turn adds one token, so it follows from the
+ * number of tokens. The stock of tokens is not part of it either, as it cannot run out on a 4x4
+ * board.
+ */
+public final class CanonicalKey {
+
+    /**
+     * The size of the boards that can be keyed.
+     */
+    public static final int SIZE = 4;
+
+    /**
+     * The number of bits of a key.
+     */
+    public static final int BITS = 48;
+
+    private static final int CELLS = SIZE * SIZE;
+    private static final int[][] SYMMETRIES = new int[8][CELLS];
+
+    static {
+        for (int s = 0; s < SYMMETRIES.length; s++) {
+            for (int x = 0; x < SIZE; x++) {
+                for (int y = 0; y < SIZE; y++) {
+                    int u = ((s & 1) != 0) ? y : x;
+                    int v = ((s & 1) != 0) ? x : y;
+                    if ((s & 2) != 0) {
+                        u = SIZE - 1 - u;
+                    }
+                    if ((s & 4) != 0) {
+                        v = SIZE - 1 - v;
+                    }
+                    SYMMETRIES[s][x * SIZE + y] = u * SIZE + v;
+                }
+            }
+        }
+    }
+
+    private CanonicalKey() {
+    }
+
+    /**
+     * Computes the key of the position of the given board.
+     *
+     * @param board a board of size {@link #SIZE}
+     * @return the key of the position
+     * @throws IllegalArgumentException if the board does not have the right size
+     */
+    public static long of(Board board) {
+        if (board.getSize() != SIZE) {
+            throw new IllegalArgumentException("Only 4x4 positions have a canonical key!");
+        }
+        int[] codes = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            codes[cell] = code(board.getPieceAtCell(cell));
+        }
+        long best = Long.MAX_VALUE;
+        for (int[] symmetry : SYMMETRIES) {
+            long key = 0;
+            for (int cell = 0; cell < CELLS; cell++) {
+                key |= (long) codes[cell] << (3 * symmetry[cell]);
+            }
+            best = Math.min(best, key);
+        }
+        return best;
+    }
+
+    private static int code(Piece piece) {
+        if (piece instanceof Token token) {
+            return 1 + token.getColor().ordinal() * 2 + token.getSymbol().ordinal();
+        }
+        if (piece instanceof Totem totem) {
+            return 5 + totem.getSymbol().ordinal();
+        }
+        return 0;
+    }
+}
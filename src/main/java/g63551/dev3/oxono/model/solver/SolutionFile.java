@@ -0,0 +1,118 @@
+package g63551.dev3.oxono.model.solver;
+
+import g63551.dev3.oxono.model.strategy.OpeningBook;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Read-only result file written by {@link SolutionTable#save}, mapped in memory.
+ * A lookup is a binary search on the sorted entries, so the file takes no heap space and answers
+ * in a few microseconds.
+ */
+public final class SolutionFile {
+
+    private static volatile Optional<SolutionFile> defaultSolution;
+
+    private final MappedByteBuffer entries;
+    private final int count;
+
+    private SolutionFile(MappedByteBuffer entries, int count) {
+        this.entries = entries;
+        this.count = count;
+    }
+
+    /**
+     * Maps the result file stored in the given file.
+     *
+     * @param file the result file
+     * @return the result file
+     * @throws IOException           if the file cannot be read
+     * @throws IllegalStateException if the file is not a valid result file
+     */
+    public static SolutionFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < SolutionTable.HEADER_BYTES) {
+                throw new IllegalStateException("Not a solution file: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int count = buffer.getInt(12);
+            if (buffer.getInt(0) != SolutionTable.MAGIC || buffer.getInt(4) != SolutionTable.VERSION
+                    || buffer.getInt(8) != CanonicalKey.SIZE
+                    || length != SolutionTable.HEADER_BYTES + (long) count * Long.BYTES) {
+                throw new IllegalStateException("Not a solution file: " + file);
+            }
+            return new SolutionFile(buffer, count);
+        }
+    }
+
+    /**
+     * Returns the solution of the 4x4 board found in the book directory, named
+     * {@code oxono-4.solution}, in the directory given by the {@link OpeningBook#DIRECTORY_PROPERTY}
+     * system property. The file is mapped once and shared. A file that cannot be read, or is not
+     * a solution file, is ignored: the positions are then solved during the game.
+     *
+     * @return the solution, or null if there is no valid solution file
+     */
+    public static SolutionFile forDefaultDirectory() {
+        Optional<SolutionFile> solution = defaultSolution;
+        if (solution == null) {
+            solution = Optional.empty();
+            Path file = Path.of(System.getProperty(OpeningBook.DIRECTORY_PROPERTY, "books"),
+                    "oxono-" + CanonicalKey.SIZE + ".solution");
+            if (Files.isRegularFile(file)) {
+                try {
+                    solution = Optional.of(open(file));
+                } catch (IOException | IllegalStateException e) {
+                    solution = Optional.empty();
+                }
+            }
+            defaultSolution = solution;
+        }
+        return solution.orElse(null);
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the canonical key of the position
+     * @return the entry of the position, to be read with {@link SolutionTable#value} and
+     *         {@link SolutionTable#bound}, or 0 if the position is not in the file
+     */
+    public long get(long key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long entry = entryAt(middle);
+            long found = SolutionTable.key(entry);
+            if (found < key) {
+                low = middle + 1;
+            } else if (found > key) {
+                high = middle - 1;
+            } else {
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    long entryAt(int index) {
+        return entries.getLong(SolutionTable.HEADER_BYTES + index * Long.BYTES);
+    }
+
+    /**
+     * Returns the number of positions in the file.
+     *
+     * @return the number of entries
+     */
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,225 @@
+package g63551.dev3.oxono.model.solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent table of solved positions, keyed by {@link CanonicalKey}.
+ * Each entry is one long: the 48-bit key in the high bits, then the bound (2 bits) and the value
+ * (8 bits, offset by 128) in the low bits. Entries are claimed with a compare-and-set in an open
+ * addressing table, so the threads of the solver share it without locks; an entry is only ever
+ * replaced by a result for the same position.
+ *
+ * <p>The table is saved as a result file: a header (magic number, version, board size and number
+ * of entries, as four ints) followed by the entries sorted by key. {@link SolutionFile} reads it.</p>
+ */
+public final class SolutionTable {
+
+    /**
+     * The value is a lower bound of the real value.
+     */
+    public static final int LOWER = 1;
+
+    /**
+     * The value is an upper bound of the real value.
+     */
+    public static final int UPPER = 2;
+
+    /**
+     * The value is the real value.
+     */
+    public static final int EXACT = 3;
+
+    static final int MAGIC = 0x4F58_4F53; // "OXOS"
+    static final int VERSION = 2; // Version 1 sorted the keys with their highest bit set first
+    static final int HEADER_BYTES = 16;
+    private static final int PROBES = 16;
+    private static final int DATA_BITS = 64 - CanonicalKey.BITS;
+
+    private final AtomicLongArray entries;
+    private final int mask;
+    private final AtomicInteger count;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param log2Capacity the base 2 logarithm of the number of entries
+     * @throws IllegalArgumentException if the capacity is not between 2^10 and 2^30 entries
+     */
+    public SolutionTable(int log2Capacity) {
+        if (log2Capacity < 10 || log2Capacity > 30) {
+            throw new IllegalArgumentException("The capacity must be between 2^10 and 2^30 entries!");
+        }
+        this.entries = new AtomicLongArray(1 << log2Capacity);
+        this.mask = (1 << log2Capacity) - 1;
+        this.count = new AtomicInteger();
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E37_79B9_7F4A_7C15L) >>> 40) & mask;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the canonical key of the position
+     * @return the entry of the position, to be read with {@link #value} and {@link #bound}, or 0
+     *         if the position is not in the table
+     */
+    public long get(long key) {
+        int slot = slot(key);
+        for (int i = 0; i < PROBES; i++) {
+            long entry = entries.get((slot + i) & mask);
+            if (entry == 0) {
+                return 0;
+            }
+            if (key(entry) == key) {
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the result of a position. The result is dropped if the table is too full around the
+     * slot of the position.
+     *
+     * @param key   the canonical key of the position
+     * @param value the value of the position, between -128 and 127
+     * @param bound {@link #LOWER}, {@link #UPPER} or {@link #EXACT}
+     */
+    public void put(long key, int value, int bound) {
+        put(entry(key, value, bound));
+    }
+
+    private void put(long entry) {
+        long key = key(entry);
+        int slot = slot(key);
+        for (int i = 0; i < PROBES; i++) {
+            int index = (slot + i) & mask;
+            long current = entries.get(index);
+            while (current == 0 || key(current) == key) {
+                if (current != 0 && bound(current) == EXACT) {
+                    return; // Nothing is better than an exact value
+                }
+                if (entries.compareAndSet(index, current, entry)) {
+                    if (current == 0) {
+                        count.incrementAndGet();
+                    }
+                    return;
+                }
+                current = entries.get(index);
+            }
+        }
+    }
+
+    static long entry(long key, int value, int bound) {
+        return (key << DATA_BITS) | ((long) bound << 8) | (value + 128);
+    }
+
+    static long key(long entry) {
+        return entry >>> DATA_BITS;
+    }
+
+    /**
+     * Returns the value stored in an entry.
+     *
+     * @param entry the entry
+     * @return the value, from the point of view of the player to move
+     */
+    public static int value(long entry) {
+        return (int) (entry & 0xFF) - 128;
+    }
+
+    /**
+     * Returns the bound stored in an entry.
+     *
+     * @param entry the entry
+     * @return {@link #LOWER}, {@link #UPPER} or {@link #EXACT}
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> 8) & 3;
+    }
+
+    /**
+     * Returns the number of positions in the table.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return count.get();
+    }
+
+    /**
+     * Writes the table to a result file. The file is written next to its final name and then
+     * moved over it, so an interrupted save leaves the previous file intact. The table may be
+     * modified meanwhile; the file then holds the entries seen by the copy.
+     *
+     * @param file the file to write
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public void save(Path file) {
+        long[] sorted = new long[entries.length()];
+        int n = 0;
+        for (int i = 0; i < entries.length(); i++) {
+            long entry = entries.get(i);
+            if (entry != 0) {
+                sorted[n++] = entry;
+            }
+        }
+        sorted = Arrays.copyOf(sorted, n);
+        // The highest bit of a key is the sign bit of its entry: flipping it makes the signed
+        // order of the entries the unsigned order of the keys
+        for (int i = 0; i < n; i++) {
+            sorted[i] ^= Long.MIN_VALUE;
+        }
+        Arrays.sort(sorted);
+        for (int i = 0; i < n; i++) {
+            sorted[i] ^= Long.MIN_VALUE;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + n * Long.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(CanonicalKey.SIZE).putInt(n);
+        for (long entry : sorted) {
+            buffer.putLong(entry);
+        }
+        buffer.flip();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds the entries of a result file to the table, to resume an interrupted solve.
+     *
+     * @param file the result file
+     * @throws IOException           if the file cannot be read
+     * @throws IllegalStateException if the file is not a valid result file
+     */
+    public void load(Path file) throws IOException {
+        SolutionFile solution = SolutionFile.open(file);
+        for (int i = 0; i < solution.getCount(); i++) {
+            put(solution.entryAt(i));
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package g63551.dev3.oxono.model.solver;
+
+import g63551.dev3.oxono.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact solver of the 4x4 game: an alpha-beta search to the end of the game, without evaluation,
+ * whose results are kept in a {@link SolutionTable} keyed by {@link CanonicalKey}, so that each
+ * position is solved once for its 8 symmetric forms.
+ *
+ * <p>The value of a position is given for the player to move: 0 for a draw, {@code WIN - n} if
+ * the player wins in n plies with best play, {@code n - WIN} if it loses in n plies. Solving the
+ * whole game this way visits far fewer positions than enumerating all of them, as the search
+ * only proves the value of the positions it needs.</p>
+ *
+ * <p>The turns of the root are split between the threads of a pool, which share the table and
+ * the best value found so far. {@link #stop()} may be called from any thread; the results stored
+ * until then stay valid, so an interrupted solve can be resumed from a saved table.</p>
+ */
+public final class Solver {
+
+    /**
+     * Value of a position won at once; a win in n plies is worth {@code WIN - n}.
+     */
+    public static final int WIN = 100;
+
+    /**
+     * Value returned by {@link #solve} when the search was stopped before the end.
+     */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final int INFINITY = WIN + 1;
+    private static final int CHECK_INTERVAL = 1023;
+
+    private final SolutionTable table;
+    private final SolutionFile known;
+    private final LongAdder nodes = new LongAdder();
+    private volatile boolean stopRequested;
+    private volatile int bestTurn = -1;
+
+    /**
+     * Creates a solver storing its results in the given table.
+     *
+     * @param table the table of the solved positions, which may already hold results
+     * @param known positions solved beforehand, looked up before solving, or null
+     */
+    public Solver(SolutionTable table, SolutionFile known) {
+        this.table = table;
+        this.known = known;
+    }
+
+    /**
+     * Solves the position on the calling thread.
+     *
+     * @param board    a 4x4 board in the turn phase, modified during the search and restored afterwards
+     * @param deadline the value of {@link System#nanoTime()} at which the search must stop
+     * @return the value of the position, or {@link #UNKNOWN} if the search was stopped
+     * @throws IllegalArgumentException if the board is not 4x4
+     */
+    public int solve(Board board, long deadline) {
+        checkSize(board);
+        bestTurn = -1;
+        Worker worker = new Worker(board, deadline);
+        int[] turns = worker.turns[0];
+        int count = board.generateTurns(turns);
+        int best = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            int value = worker.valueOf(turns[i], best, INFINITY, 0);
+            if (worker.aborted) {
+                return UNKNOWN;
+            }
+            if (value > best) {
+                best = value;
+                bestTurn = turns[i];
+            }
+        }
+        return finish(board, count, best);
+    }
+
+    /**
+     * Solves the position with the threads of the given pool. The first turn is solved alone,
+     * to get a bound, then the other turns are solved in parallel.
+     *
+     * @param board a 4x4 board in the turn phase, which is only copied
+     * @param pool  the threads of the search
+     * @return the value of the position, or {@link #UNKNOWN} if the search was stopped
+     * @throws IllegalArgumentException if the board is not 4x4
+     */
+    public int solve(Board board, ForkJoinPool pool) {
+        checkSize(board);
+        bestTurn = -1;
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        if (count == 0) {
+            return finish(board, 0, 0);
+        }
+        AtomicLong best = new AtomicLong(pack(-INFINITY, 0));
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            Board copy = board.copy();
+            Runnable task = () -> {
+                Worker worker = new Worker(copy, Long.MAX_VALUE);
+                int alpha = (int) (best.get() >> 32);
+                int value = worker.valueOf(turns[index], alpha, INFINITY, 0);
+                // A value not above alpha is only an upper bound, which may equal the best value
+                // without the turn reaching it
+                if (!worker.aborted && value > alpha) {
+                    best.accumulateAndGet(pack(value, index), Math::max);
+                }
+            };
+            if (i == 0) {
+                task.run();
+            } else {
+                tasks.add(pool.submit(task));
+            }
+        }
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (Exception e) {
+                throw new IllegalStateException("The solver failed!", e);
+            }
+        }
+        if (stopRequested) {
+            return UNKNOWN;
+        }
+        long result = best.get();
+        bestTurn = turns[(int) result];
+        return finish(board, count, (int) (result >> 32));
+    }
+
+    /**
+     * Packs a value and the index of its turn so that the greatest pack holds the best value.
+     */
+    private static long pack(int value, int index) {
+        return ((long) value << 32) | index;
+    }
+
+    private int finish(Board board, int count, int best) {
+        int value = (count == 0) ? 0 : best;
+        table.put(CanonicalKey.of(board), value, SolutionTable.EXACT);
+        return value;
+    }
+
+    private static void checkSize(Board board) {
+        if (board.getSize() != CanonicalKey.SIZE) {
+            throw new IllegalArgumentException("Only 4x4 boards can be solved!");
+        }
+    }
+
+    /**
+     * Converts the value of a position into the value of the turn leading to it, for the player
+     * who played the turn: the sign changes and the win or the loss is one ply further away.
+     *
+     * @param value the value of the position reached, for its player to move
+     * @return the value of the turn
+     */
+    public static int valueOfTurn(int value) {
+        return (value > 0) ? 1 - value : (value < 0) ? -1 - value : 0;
+    }
+
+    /**
+     * Inverse of {@link #valueOfTurn} for the bounds of a window: a turn is worth more than the
+     * bound if and only if the position it reaches is worth less than the returned value.
+     */
+    private static int childBound(int bound) {
+        return (bound > 0) ? -bound - 1 : (bound < 0) ? 1 - bound : 0;
+    }
+
+    /**
+     * Asks the search to stop as soon as possible.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Returns the number of positions searched since the solver was created.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * Returns a best turn of the last position solved.
+     *
+     * @return the turn, or -1 if the position had no turn
+     */
+    public int getBestTurn() {
+        return bestTurn;
+    }
+
+    /**
+     * The search of one thread, on its own board.
+     */
+    private final class Worker {
+
+        private final Board board;
+        private final long deadline;
+        private final int[][] turns;
+        private long count;
+        private boolean aborted;
+
+        Worker(Board board, long deadline) {
+            this.board = board;
+            this.deadline = deadline;
+            int plies = board.getSize() * board.getSize() + 1;
+            this.turns = new int[plies][board.maxTurns()];
+            board.setTrustedMode(true);
+        }
+
+        /**
+         * Plays a turn and returns its value for the player who played it.
+         */
+        int valueOf(int turn, int alpha, int beta, int ply) {
+            board.makeMove(turn);
+            int value = board.isWinningCell(Moves.insertCell(turn))
+                    ? WIN - 1
+                    : valueOfTurn(solve(childBound(beta), childBound(alpha), ply + 1));
+            board.unmakeMove();
+            return value;
+        }
+
+        /**
+         * Negamax search with alpha-beta pruning, to the end of the game.
+         */
+        private int solve(int alpha, int beta, int ply) {
+            if ((++count & CHECK_INTERVAL) == 0) {
+                nodes.add(CHECK_INTERVAL + 1);
+                if (stopRequested || System.nanoTime() - deadline > 0) {
+                    aborted = true;
+                }
+            }
+            if (aborted) {
+                return 0;
+            }
+
+            long key = CanonicalKey.of(board);
+            long entry = table.get(key);
+            if (entry == 0 && known != null) {
+                entry = known.get(key);
+            }
+            if (entry != 0) {
+                int value = SolutionTable.value(entry);
+                int bound = SolutionTable.bound(entry);
+                if (bound == SolutionTable.EXACT
+                        || (bound == SolutionTable.LOWER && value >= beta)
+                        || (bound == SolutionTable.UPPER && value <= alpha)) {
+                    return value;
+                }
+            }
+
+            int[] plyTurns = turns[ply];
+            int count = board.generateTurns(plyTurns);
+            if (count == 0) {
+                table.put(key, 0, SolutionTable.EXACT);
+                return 0; // No cell left: draw
+            }
+            Color color = board.getSideToMove();
+            for (int i = 0; i < count; i++) {
+                int turn = plyTurns[i];
+                Token token = Token.of(Moves.symbol(Moves.totemMove(turn)), color);
+                if (board.completesAlignment(token, Moves.insertCell(turn))) {
+                    table.put(key, WIN - 1, SolutionTable.EXACT);
+                    return WIN - 1;
+                }
+            }
+
+            int originalAlpha = alpha;
+            int best = -INFINITY;
+            for (int i = 0; i < count; i++) {
+                int value = valueOf(plyTurns[i], alpha, beta, ply);
+                if (aborted) {
+                    return 0;
+                }
+                if (value > best) {
+                    best = value;
+                    if (value > alpha) {
+                        alpha = value;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+
+            int bound = (best <= originalAlpha) ? SolutionTable.UPPER
+                    : (best >= beta) ? SolutionTable.LOWER : SolutionTable.EXACT;
+            table.put(key, best, bound);
+            return best;
+        }
+    }
+}
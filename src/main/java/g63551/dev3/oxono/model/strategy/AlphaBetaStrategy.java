@@ -0,0 +1,215 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Strategy searching the game tree with negamax and alpha-beta pruning.
+ * A node of the tree is a full turn: a totem move followed by the insertion of a token.
+ * The search deepens one turn at a time up to its maximum depth, always keeping the best turn of
+ * the last completed depth, and stops when its time budget is spent or when it is cancelled.
+ * Results are kept in a transposition table from one depth, and one turn, to the next.
+ * With a parallelism greater than one, the root turns are split across a fork-join pool, shared
+ * by every strategy with the same parallelism.
+ */
+public class AlphaBetaStrategy implements Strategy {
+
+    /**
+     * The size of the transposition table created by default, in megabytes.
+     */
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>(); // By parallelism
+
+    private final int depth;            // Maximum depth of the search, in turns
+    private final long timeBudgetMillis; // Time allowed to choose a turn
+    private final TranspositionTable table; // Cache of the search results
+    private final int parallelism;      // Number of threads of the search
+    private long lastNodes;             // Positions visited by the last search
+    private long lastCutoffs;           // Cutoffs of the last search
+    private long lastFirstMoveCutoffs;  // Cutoffs of the last search on the first turn tried
+
+    /**
+     * Constructs an AlphaBetaStrategy with the given depth and time budget, and its own
+     * transposition table of {@link #DEFAULT_TABLE_MEGABYTES} megabytes.
+     *
+     * @param depth            the maximum depth of the search, in turns
+     * @param timeBudgetMillis the time allowed to choose a turn, in milliseconds
+     * @throws IllegalArgumentException if the depth or the budget is not positive
+     */
+    public AlphaBetaStrategy(int depth, long timeBudgetMillis) {
+        this(depth, timeBudgetMillis, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Constructs an AlphaBetaStrategy with the given depth and time budget, caching its results
+     * in the given transposition table, which may be shared with other strategies.
+     *
+     * @param depth            the maximum depth of the search, in turns
+     * @param timeBudgetMillis the time allowed to choose a turn, in milliseconds
+     * @param table            the cache of the search results
+     * @throws IllegalArgumentException if the depth or the budget is not positive, or if the
+     *                                  depth cannot be stored in the table
+     */
+    public AlphaBetaStrategy(int depth, long timeBudgetMillis, TranspositionTable table) {
+        this(depth, timeBudgetMillis, table, 1);
+    }
+
+    /**
+     * Constructs an AlphaBetaStrategy searching on several threads.
+     *
+     * @param depth            the maximum depth of the search, in turns
+     * @param timeBudgetMillis the time allowed to choose a turn, in milliseconds
+     * @param table            the cache of the search results, shared by the threads
+     * @param parallelism      the number of threads of the search
+     * @throws IllegalArgumentException if the depth, the budget or the parallelism is not
+     *                                  positive, or if the depth cannot be stored in the table
+     */
+    public AlphaBetaStrategy(int depth, long timeBudgetMillis, TranspositionTable table, int parallelism) {
+        if (depth < 1 || timeBudgetMillis < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("The depth, the time budget and the parallelism must be positive!");
+        }
+        if (depth > TranspositionTable.MAX_DEPTH) {
+            throw new IllegalArgumentException("The depth is too large!");
+        }
+        this.depth = depth;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.table = table;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Searches the position with iterative deepening and returns the best turn found.
+     * Each depth searches the best turn of the previous one first, so a depth interrupted by the
+     * deadline or by the token can only improve on it.
+     *
+     * @param board a copy of the position to play
+     * @param token the request to stop the search, which then returns the best turn found so far
+     * @return the best turn, or -1 if the player to move has no legal turn
+     */
+    @Override
+    public int chooseTurn(Board board, CancellationToken token) {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        table.newSearch();
+        RootSearch searcher = createSearch(board);
+        token.onCancel(searcher::stop);
+        try {
+            int best = -1;
+            for (int d = 1; d <= depth; d++) {
+                int turn = searcher.searchRoot(d, deadline, best);
+                if (turn >= 0) {
+                    best = turn;
+                }
+                if (searcher.isAborted() || searcher.isStopped() || turn < 0
+                        || Math.abs(searcher.getRootScore()) > Searcher.WIN_BOUND) {
+                    break;
+                }
+            }
+            return best;
+        } finally {
+            lastNodes = searcher.getNodes();
+            lastCutoffs = searcher.getCutoffs();
+            lastFirstMoveCutoffs = searcher.getFirstMoveCutoffs();
+        }
+    }
+
+    private RootSearch createSearch(Board board) {
+        Evaluator evaluator = new PatternEvaluator();
+        if (parallelism == 1) {
+            return new Searcher(board, evaluator, depth, table);
+        }
+        ForkJoinPool pool = POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+        return new ParallelSearcher(board, evaluator, depth, table, pool);
+    }
+
+    /**
+     * Returns the best turn stored in the transposition table for the position, which the last
+     * search found as the best answer to its own turn.
+     *
+     * @param board the position, with the opponent of the strategy to move
+     * @return the stored turn if it is legal, or -1
+     */
+    @Override
+    public int predictTurn(Board board) {
+        long entry = table.probe(board.getHash());
+        int turn = (entry != 0) ? TranspositionTable.turn(entry) : -1;
+        if (turn < 0) {
+            return -1;
+        }
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        for (int i = 0; i < count; i++) {
+            if (turns[i] == turn) {
+                return turn;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the maximum depth of the search.
+     *
+     * @return the depth of the search, in turns
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of threads of the search.
+     *
+     * @return the parallelism of the search
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Returns the number of positions visited by the last call to {@link #chooseTurn}.
+     *
+     * @return the number of visited positions
+     */
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    /**
+     * Returns the number of cutoffs of the last call to {@link #chooseTurn}.
+     *
+     * @return the number of cutoffs
+     */
+    public long getLastCutoffs() {
+        return lastCutoffs;
+    }
+
+    /**
+     * Returns the number of cutoffs of the last call to {@link #chooseTurn} caused by the first
+     * turn tried at a node. The closer it is to {@link #getLastCutoffs()}, the better the ordering.
+     *
+     * @return the number of cutoffs on the first turn
+     */
+    public long getLastFirstMoveCutoffs() {
+        return lastFirstMoveCutoffs;
+    }
+
+    /**
+     * Returns the transposition table of the strategy.
+     *
+     * @return the cache of the search results
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the time allowed to choose a turn.
+     *
+     * @return the time budget, in milliseconds
+     */
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+}
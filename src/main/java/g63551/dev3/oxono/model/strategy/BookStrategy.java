@@ -0,0 +1,80 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.Board;
+
+/**
+ * Strategy playing the turns of an opening book while the game is in it, and asking another
+ * strategy once it leaves the book. A book turn is checked against the legal turns of the position
+ * before being played, so a stale or foreign book cannot make an illegal move.
+ */
+public class BookStrategy implements Strategy {
+    private final OpeningBook book;   // Turns of the known openings
+    private final Strategy fallback;  // Strategy used out of the book
+    private int[] turns;              // Reusable buffer receiving the legal turns
+
+    /**
+     * Constructs a BookStrategy.
+     *
+     * @param book     the opening book
+     * @param fallback the strategy used out of the book
+     */
+    public BookStrategy(OpeningBook book, Strategy fallback) {
+        this.book = book;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Returns the book turn of the position if there is a legal one, or the choice of the fallback
+     * strategy otherwise.
+     *
+     * @param board a copy of the position to play
+     * @param token the request to stop the choice of the fallback strategy
+     * @return the chosen turn, or -1 if the player to move has no legal turn
+     */
+    @Override
+    public int chooseTurn(Board board, CancellationToken token) {
+        int turn = (board.getSize() == book.getSize()) ? book.lookup(board.getHash()) : -1;
+        if (turn >= 0 && isLegal(board, turn)) {
+            fallback.stopPondering();
+            return turn;
+        }
+        return fallback.chooseTurn(board, token);
+    }
+
+    private boolean isLegal(Board board, int turn) {
+        if (turns == null || turns.length < board.maxTurns()) {
+            turns = new int[board.maxTurns()];
+        }
+        int count = board.generateTurns(turns);
+        for (int i = 0; i < count; i++) {
+            if (turns[i] == turn) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int predictTurn(Board board) {
+        return fallback.predictTurn(board);
+    }
+
+    @Override
+    public void ponder(Board position) {
+        fallback.ponder(position);
+    }
+
+    @Override
+    public void stopPondering() {
+        fallback.stopPondering();
+    }
+
+    /**
+     * Returns the strategy used out of the book.
+     *
+     * @return the fallback strategy
+     */
+    public Strategy getFallback() {
+        return fallback;
+    }
+}
@@ -0,0 +1,84 @@
+package g63551.dev3.oxono.model.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request to stop one choice of a turn, created by the caller before the choice starts.
+ * As the token belongs to the request and not to the strategy, a cancel sent before the strategy
+ * starts searching is not lost: the search sees it as soon as it registers its stop action.
+ * A token may be cancelled from any thread, once; it is not reset.
+ */
+public final class CancellationToken {
+
+    /**
+     * Token of the choices that are never cancelled.
+     */
+    public static final CancellationToken NONE = new CancellationToken(false);
+
+    private final boolean cancellable;
+    private final List<Runnable> actions; // Stop actions of the running searches, guarded by this
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs a token that is not cancelled yet.
+     */
+    public CancellationToken() {
+        this(true);
+    }
+
+    private CancellationToken(boolean cancellable) {
+        this.cancellable = cancellable;
+        this.actions = new ArrayList<>();
+    }
+
+    /**
+     * Cancels the request: runs the stop actions registered so far, and every later one as soon
+     * as it is registered. Does nothing if the token is already cancelled.
+     *
+     * @throws IllegalStateException if the token is {@link #NONE}
+     */
+    public void cancel() {
+        if (!cancellable) {
+            throw new IllegalStateException("This token cannot be cancelled!");
+        }
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toRun = new ArrayList<>(actions);
+            actions.clear();
+        }
+        toRun.forEach(Runnable::run);
+    }
+
+    /**
+     * Checks if the request was cancelled, for the searches that poll it.
+     *
+     * @return true if {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Registers an action stopping a search, run when the request is cancelled, or at once if it
+     * already was.
+     *
+     * @param action the action stopping the search; it may run on any thread
+     */
+    public void onCancel(Runnable action) {
+        if (!cancellable) {
+            return;
+        }
+        synchronized (this) {
+            if (!cancelled) {
+                actions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+}
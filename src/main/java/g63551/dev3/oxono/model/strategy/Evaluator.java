@@ -0,0 +1,28 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.Board;
+
+/**
+ * Heuristic evaluation of a game position, used at the leaves of a search.
+ */
+interface Evaluator {
+
+    /**
+     * Evaluates the position from the point of view of the player to move.
+     *
+     * @param board the position to evaluate
+     * @return a positive score if the position favours the player to move, a negative one otherwise
+     */
+    int evaluate(Board board);
+
+    /**
+     * Returns an evaluator for the positions of the given board, used by one thread with that
+     * board only. Stateless evaluators return themselves; incremental ones start following the board.
+     *
+     * @param board the board whose positions will be evaluated
+     * @return the evaluator to use with the board
+     */
+    default Evaluator attach(Board board) {
+        return this;
+    }
+}
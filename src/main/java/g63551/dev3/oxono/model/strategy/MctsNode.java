@@ -0,0 +1,193 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.Color;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Node of a Monte Carlo search tree, shared by the threads of the search.
+ * A node is a position; its statistics are kept from the point of view of the player who played
+ * the turn leading to it. The visits are counted when a thread goes down through the node, before
+ * the result of its playout is known, so that a node being explored counts as a loss for the
+ * other threads (virtual loss) until the result is added.
+ */
+final class MctsNode {
+
+    /**
+     * Reward of a won playout. A draw is worth half of it and a loss nothing.
+     */
+    static final int WIN_REWARD = 2;
+
+    private final int turn;
+    private final Color mover;
+    private final long hash;
+    private final boolean won;
+    private final AtomicInteger visits;
+    private final AtomicInteger rewards;
+    private final AtomicInteger nextUnexplored;
+    private volatile int[] turns;
+    private volatile AtomicReferenceArray<MctsNode> children;
+
+    /**
+     * Creates a node for the current position of the board.
+     *
+     * @param board the board, in the position of the node
+     * @param turn  the turn that led to the position, or -1 for the root
+     * @param mover the player who played that turn
+     * @param won   true if that turn won the game
+     */
+    MctsNode(Board board, int turn, Color mover, boolean won) {
+        this.turn = turn;
+        this.mover = mover;
+        this.hash = board.getHash();
+        this.won = won;
+        this.visits = new AtomicInteger();
+        this.rewards = new AtomicInteger();
+        this.nextUnexplored = new AtomicInteger();
+    }
+
+    /**
+     * Returns the legal turns of the position, generating them on first use.
+     *
+     * @param board  the board, in the position of the node
+     * @param buffer a buffer of {@link Board#maxTurns()} turns
+     * @return the legal turns of the position
+     */
+    int[] turns(Board board, int[] buffer) {
+        int[] result = turns;
+        if (result == null) {
+            synchronized (this) {
+                result = turns;
+                if (result == null) {
+                    result = Arrays.copyOf(buffer, board.generateTurns(buffer));
+                    children = new AtomicReferenceArray<>(result.length);
+                    turns = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reserves the index of a child that has never been explored.
+     *
+     * @return the index of the child, or a value at least equal to the number of turns if every
+     *         child has been explored
+     */
+    int reserveUnexplored() {
+        return nextUnexplored.getAndIncrement();
+    }
+
+    /**
+     * Sets the child reached by the turn with the given index.
+     *
+     * @param index the index of the turn
+     * @param child the child node
+     */
+    void setChild(int index, MctsNode child) {
+        children.set(index, child);
+    }
+
+    /**
+     * Returns the child reached by the turn with the given index.
+     *
+     * @param index the index of the turn
+     * @return the child, or null if it has not been created yet
+     */
+    MctsNode child(int index) {
+        AtomicReferenceArray<MctsNode> nodes = children;
+        return (nodes == null) ? null : nodes.get(index);
+    }
+
+    /**
+     * Returns the number of children that may exist.
+     *
+     * @return the number of legal turns, or 0 if they have not been generated
+     */
+    int childCount() {
+        int[] result = turns;
+        return (result == null) ? 0 : result.length;
+    }
+
+    /**
+     * Selects the child with the best upper confidence bound (UCT).
+     * Children being created by another thread are skipped.
+     *
+     * @param exploration the exploration constant
+     * @return the selected child, or null if no child exists yet
+     */
+    MctsNode selectChild(double exploration) {
+        double logVisits = Math.log(Math.max(1, visits.get()));
+        MctsNode best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < childCount(); i++) {
+            MctsNode child = child(i);
+            if (child == null) {
+                continue;
+            }
+            int n = Math.max(1, child.visits.get());
+            double value = child.rewards.get() / (double) (WIN_REWARD * n) + exploration * Math.sqrt(logVisits / n);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the most visited child.
+     *
+     * @return the most visited child, or null if no child exists
+     */
+    MctsNode mostVisitedChild() {
+        MctsNode best = null;
+        for (int i = 0; i < childCount(); i++) {
+            MctsNode child = child(i);
+            if (child != null && (best == null || child.visits.get() > best.visits.get())) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts a thread going down through the node; it is a loss until {@link #addReward} is called.
+     */
+    void addVisit() {
+        visits.incrementAndGet();
+    }
+
+    /**
+     * Adds the result of a playout through the node.
+     *
+     * @param winner the winner of the playout, or null for a draw
+     */
+    void addReward(Color winner) {
+        int reward = (winner == null) ? WIN_REWARD / 2 : (winner == mover) ? WIN_REWARD : 0;
+        rewards.addAndGet(reward);
+    }
+
+    int getTurn() {
+        return turn;
+    }
+
+    Color getMover() {
+        return mover;
+    }
+
+    long getHash() {
+        return hash;
+    }
+
+    boolean isWon() {
+        return won;
+    }
+
+    int getVisits() {
+        return visits.get();
+    }
+}
@@ -0,0 +1,309 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Strategy based on Monte Carlo tree search with upper confidence bounds (UCT).
+ * Several threads grow a shared tree until the time budget is spent; each one goes down the tree
+ * on its own copy of the board, adds a node, then finishes the game with random turns chosen like
+ * {@link RandomStrategy} and propagates the result. Virtual losses keep the threads from exploring
+ * the same line. The tree is kept after each turn, and reused if the opponent answers with a turn
+ * that was explored.
+ */
+public class MctsStrategy implements Strategy {
+
+    /**
+     * The exploration constant of the upper confidence bound.
+     */
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    /**
+     * The greatest number of nodes added to the tree by one search, to bound its memory.
+     */
+    private static final int MAX_NODES = 2_000_000;
+
+    /**
+     * The threads of the searches, shared by every strategy. Each search gets as many threads as
+     * it has tasks; the threads are daemons and end after a minute without work.
+     */
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "oxono-mcts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long timeBudgetMillis; // Time allowed to choose a turn
+    private final int threads;           // Number of threads growing the tree
+    private final Random seeds;          // Source of the seeds of the playouts
+    private MctsNode root;               // Tree of the last search
+    private final AtomicInteger nodes;   // Number of nodes of the tree
+    private long lastPlayouts;           // Playouts of the last search
+
+    /**
+     * Constructs an MctsStrategy with the given time budget and number of threads.
+     *
+     * @param timeBudgetMillis the time allowed to choose a turn, in milliseconds
+     * @param threads          the number of threads growing the tree
+     * @throws IllegalArgumentException if the budget or the number of threads is not positive
+     */
+    public MctsStrategy(long timeBudgetMillis, int threads) {
+        this(timeBudgetMillis, threads, new Random());
+    }
+
+    /**
+     * Constructs an MctsStrategy whose playouts are seeded by the given generator.
+     *
+     * @param timeBudgetMillis the time allowed to choose a turn, in milliseconds
+     * @param threads          the number of threads growing the tree
+     * @param seeds            the source of the seeds of the playouts
+     * @throws IllegalArgumentException if the budget or the number of threads is not positive
+     */
+    public MctsStrategy(long timeBudgetMillis, int threads, Random seeds) {
+        if (timeBudgetMillis < 1 || threads < 1) {
+            throw new IllegalArgumentException("The time budget and the number of threads must be positive!");
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.threads = threads;
+        this.seeds = seeds;
+        this.nodes = new AtomicInteger();
+    }
+
+    /**
+     * Grows the search tree until the time budget is spent, then returns the most visited turn.
+     *
+     * @param board a copy of the position to play
+     * @param token the request to stop the search, which then returns the most visited turn so far
+     * @return the chosen turn, or -1 if the player to move has no legal turn
+     */
+    @Override
+    public int chooseTurn(Board board, CancellationToken token) {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        board.setTrustedMode(true);
+        root = reuseTree(board);
+
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Board copy = (i == 0) ? board : board.copy();
+            long seed = seeds.nextLong();
+            tasks.add(() -> grow(copy, new RandomStrategy(new Random(seed)), deadline, token));
+        }
+        lastPlayouts = runAll(tasks);
+
+        MctsNode best = root.mostVisitedChild();
+        if (best == null) {
+            int[] turns = root.turns(board, new int[board.maxTurns()]);
+            return (turns.length > 0) ? turns[0] : -1;
+        }
+        return best.getTurn();
+    }
+
+    /**
+     * Finds the node of the given position in the tree of the last search: the position two turns
+     * after its root if the opponent answered with an explored turn. Otherwise, a new tree is started.
+     *
+     * @param board the position to play
+     * @return the root of the tree for the position
+     */
+    private MctsNode reuseTree(Board board) {
+        long hash = board.getHash();
+        nodes.set(1);
+        if (root != null) {
+            for (int i = 0; i < root.childCount(); i++) {
+                MctsNode child = root.child(i);
+                for (int j = 0; child != null && j < child.childCount(); j++) {
+                    MctsNode grandChild = child.child(j);
+                    if (grandChild != null && grandChild.getHash() == hash && !grandChild.isWon()) {
+                        return grandChild;
+                    }
+                }
+            }
+        }
+        return new MctsNode(board, -1, null, false);
+    }
+
+    private long runAll(List<Callable<Long>> tasks) {
+        if (threads == 1) {
+            try {
+                return tasks.get(0).call();
+            } catch (Exception e) {
+                throw new IllegalStateException("The search failed!", e);
+            }
+        }
+        long playouts = 0;
+        try {
+            for (Future<Long> result : WORKERS.invokeAll(tasks)) {
+                playouts += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The search failed!", e.getCause());
+        }
+        return playouts;
+    }
+
+    /**
+     * Runs iterations of the search on one thread until the deadline.
+     *
+     * @param board    the copy of the position owned by the thread
+     * @param playout  the random strategy finishing the games
+     * @param deadline the value of {@link System#nanoTime()} at which the search must stop
+     * @param token    the request to stop the search
+     * @return the number of playouts
+     */
+    private long grow(Board board, RandomStrategy playout, long deadline, CancellationToken token) {
+        int[] buffer = new int[board.maxTurns()];
+        MctsNode[] path = new MctsNode[board.getSize() * board.getSize() + 1];
+        long playouts = 0;
+        while (!token.isCancelled() && System.nanoTime() - deadline < 0 && nodes.get() < MAX_NODES) {
+            int movesBefore = board.getMoveCount();
+            int length = 0;
+            MctsNode node = root;
+            node.addVisit();
+            path[length++] = node;
+            Color winner = null;
+            boolean finished = false;
+
+            // Selection and expansion
+            while (!finished) {
+                if (node.isWon()) {
+                    winner = node.getMover();
+                    finished = true;
+                    break;
+                }
+                int[] turns = node.turns(board, buffer);
+                if (turns.length == 0) {
+                    finished = true; // Draw
+                    break;
+                }
+                int index = node.reserveUnexplored();
+                if (index < turns.length) {
+                    node = expand(node, index, turns[index], board);
+                    path[length++] = node;
+                    break;
+                }
+                MctsNode child = node.selectChild(EXPLORATION);
+                if (child == null) {
+                    break; // Every child is being created by another thread
+                }
+                board.makeMove(child.getTurn());
+                child.addVisit();
+                node = child;
+                path[length++] = node;
+            }
+
+            // Simulation
+            if (!finished) {
+                winner = node.isWon() ? node.getMover() : playout(board, playout);
+            }
+
+            // Back-propagation
+            for (int i = 0; i < length; i++) {
+                path[i].addReward(winner);
+            }
+            while (board.getMoveCount() > movesBefore) {
+                board.unmakeMove();
+            }
+            playouts++;
+        }
+        return playouts;
+    }
+
+    private MctsNode expand(MctsNode parent, int index, int turn, Board board) {
+        Color mover = board.getSideToMove();
+        board.makeMove(turn);
+        MctsNode child = new MctsNode(board, turn, mover, board.isWinningCell(Moves.insertCell(turn)));
+        child.addVisit();
+        parent.setChild(index, child);
+        nodes.incrementAndGet();
+        return child;
+    }
+
+    /**
+     * Finishes the game with random turns.
+     *
+     * @param board   the board, in the position of the node; the turns are taken back by the caller
+     * @param playout the random strategy choosing the turns
+     * @return the winner, or null for a draw
+     */
+    private Color playout(Board board, RandomStrategy playout) {
+        while (true) {
+            Color mover = board.getSideToMove();
+            int turn = playout.chooseTurn(board);
+            if (turn < 0) {
+                return null;
+            }
+            board.makeMove(turn);
+            if (board.isWinningCell(Moves.insertCell(turn))) {
+                return mover;
+            }
+        }
+    }
+
+    /**
+     * Returns the most visited answer to the turn that led to the position in the tree of the
+     * last search.
+     *
+     * @param board the position, with the opponent of the strategy to move
+     * @return the most visited turn of the position, or -1 if the position is not in the tree
+     */
+    @Override
+    public int predictTurn(Board board) {
+        MctsNode tree = root;
+        long hash = board.getHash();
+        for (int i = 0; tree != null && i < tree.childCount(); i++) {
+            MctsNode child = tree.child(i);
+            if (child != null && child.getHash() == hash && !child.isWon()) {
+                MctsNode best = child.mostVisitedChild();
+                return (best != null) ? best.getTurn() : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of playouts of the last call to {@link #chooseTurn}.
+     *
+     * @return the number of playouts
+     */
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    /**
+     * Returns the root of the tree of the last search.
+     *
+     * @return the root of the tree, or null before the first search
+     */
+    MctsNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the time allowed to choose a turn.
+     *
+     * @return the time budget, in milliseconds
+     */
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    /**
+     * Returns the number of threads growing the tree.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+}
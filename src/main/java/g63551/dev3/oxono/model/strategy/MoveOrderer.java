@@ -0,0 +1,226 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+
+import java.util.Arrays;
+
+/**
+ * Orders the turns of a node so that alpha-beta finds its cutoffs early.
+ * Turns are tried in this order: the best turn stored in the transposition table, the turns that
+ * win at once, the turns that take a cell where the opponent would win, the two killer turns of
+ * the ply (turns that caused a cutoff in a sibling node), then the other turns by their history
+ * score, the sum of the squared depths of the cutoffs caused by the same insertion.
+ * The turns are not sorted up front: {@link #pick} brings the best remaining turn forward, which
+ * costs nothing for the turns that a cutoff makes useless. An orderer belongs to one searcher.
+ */
+final class MoveOrderer {
+
+    private static final int TABLE_SCORE = 1 << 30;
+    private static final int WIN_SCORE = 1 << 29;
+    private static final int BLOCK_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int HISTORY_LIMIT = 1 << 26;
+
+    private static final int WINS_CROSS = 1;
+    private static final int WINS_CIRCLE = 2;
+    private static final int BLOCKS = 4;
+
+    private final boolean enabled;
+    private final int cells;
+    private final int[][] killers;
+    private final int[] history;
+    private final int[][] scores;
+    private final byte[] threats;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    /**
+     * Creates an orderer for the searches of a board.
+     *
+     * @param size     the size of the board
+     * @param maxDepth the maximum depth of the searches, in turns
+     * @param maxTurns the maximum number of turns of a node
+     * @param enabled  false to only try the transposition table turn first, keeping the
+     *                 generation order for the others
+     */
+    MoveOrderer(int size, int maxDepth, int maxTurns, boolean enabled) {
+        this.enabled = enabled;
+        this.cells = size * size;
+        this.killers = new int[maxDepth + 1][2];
+        for (int[] ply : killers) {
+            Arrays.fill(ply, -1);
+        }
+        this.history = new int[2 * cells];
+        this.scores = new int[maxDepth + 1][maxTurns];
+        this.threats = new byte[cells];
+    }
+
+    /**
+     * Scores the turns of a node, to be picked with {@link #pick}.
+     *
+     * @param board     the board, in the position of the node
+     * @param turns     the turns of the node
+     * @param count     the number of turns
+     * @param ply       the distance of the node from the root
+     * @param tableTurn the turn stored in the transposition table, or -1
+     */
+    void score(Board board, int[] turns, int count, int ply, int tableTurn) {
+        int[] plyScores = scores[ply];
+        if (!enabled) {
+            for (int i = 0; i < count; i++) {
+                plyScores[i] = (turns[i] == tableTurn) ? TABLE_SCORE : -i;
+            }
+            return;
+        }
+        findThreats(board);
+        int[] plyKillers = killers[ply];
+        for (int i = 0; i < count; i++) {
+            int turn = turns[i];
+            int insertCell = Moves.insertCell(turn);
+            Symbol symbol = Moves.symbol(Moves.totemMove(turn));
+            int threat = threats[insertCell];
+            int score;
+            if (turn == tableTurn) {
+                score = TABLE_SCORE;
+            } else if ((threat & ((symbol == Symbol.CROSS) ? WINS_CROSS : WINS_CIRCLE)) != 0) {
+                score = WIN_SCORE;
+            } else if ((threat & BLOCKS) != 0) {
+                score = BLOCK_SCORE;
+            } else if (turn == plyKillers[0]) {
+                score = KILLER_SCORE + 1;
+            } else if (turn == plyKillers[1]) {
+                score = KILLER_SCORE;
+            } else {
+                score = history[symbol.ordinal() * cells + insertCell];
+            }
+            plyScores[i] = score;
+        }
+    }
+
+    /**
+     * Marks the empty cells where the player to move would win with each symbol, and those where
+     * the opponent would win with a token of its color.
+     *
+     * @param board the board, in the position of the node
+     */
+    private void findThreats(Board board) {
+        Color color = board.getSideToMove();
+        Color opponent = (color == Color.PINK) ? Color.BLACK : Color.PINK;
+        for (int cell = 0; cell < cells; cell++) {
+            int threat = 0;
+            if (board.isEmpty(cell)) {
+                if (board.completesAlignment(Token.of(Symbol.CROSS, color), cell)) {
+                    threat |= WINS_CROSS;
+                }
+                if (board.completesAlignment(Token.of(Symbol.CIRCLE, color), cell)) {
+                    threat |= WINS_CIRCLE;
+                }
+                if (board.completesAlignment(Token.of(Symbol.CROSS, opponent), cell)
+                        || board.completesAlignment(Token.of(Symbol.CIRCLE, opponent), cell)) {
+                    threat |= BLOCKS;
+                }
+            }
+            threats[cell] = (byte) threat;
+        }
+    }
+
+    /**
+     * Moves the best of the turns not tried yet to the given index.
+     *
+     * @param turns the turns of the node, scored with {@link #score}
+     * @param count the number of turns
+     * @param index the index of the next turn to try
+     * @param ply   the distance of the node from the root
+     */
+    void pick(int[] turns, int count, int index, int ply) {
+        int[] plyScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (plyScores[i] > plyScores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int turn = turns[best];
+            turns[best] = turns[index];
+            turns[index] = turn;
+            int score = plyScores[best];
+            plyScores[best] = plyScores[index];
+            plyScores[index] = score;
+        }
+    }
+
+    /**
+     * Sorts all the turns of a node, best first, for the searches that need the whole list in
+     * order, like the parallel root search.
+     *
+     * @param board     the board, in the position of the node
+     * @param turns     the turns of the node
+     * @param count     the number of turns
+     * @param ply       the distance of the node from the root
+     * @param tableTurn the turn to put first, or -1
+     */
+    void sort(Board board, int[] turns, int count, int ply, int tableTurn) {
+        score(board, turns, count, ply, tableTurn);
+        int[] plyScores = scores[ply];
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) -plyScores[i] << 32) | i; // Stable: equal scores keep their order
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = turns[(int) keys[i]];
+        }
+        System.arraycopy(sorted, 0, turns, 0, count);
+    }
+
+    /**
+     * Records a turn that caused a cutoff, updating the killers of the ply, the history and the
+     * counters.
+     *
+     * @param turn  the turn that caused the cutoff
+     * @param ply   the distance of the node from the root
+     * @param depth the remaining depth of the node, in turns
+     * @param index the position of the turn in the order in which the turns were tried
+     */
+    void recordCutoff(int turn, int ply, int depth, int index) {
+        cutoffs++;
+        if (index == 0) {
+            firstMoveCutoffs++;
+        }
+        if (!enabled) {
+            return;
+        }
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != turn) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = turn;
+        }
+        int entry = Moves.symbol(Moves.totemMove(turn)).ordinal() * cells + Moves.insertCell(turn);
+        history[entry] += depth * depth;
+        if (history[entry] >= HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cutoffs since the orderer was created.
+     *
+     * @return the number of cutoffs
+     */
+    long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Returns the number of cutoffs caused by the first turn tried.
+     *
+     * @return the number of cutoffs on the first turn
+     */
+    long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+}
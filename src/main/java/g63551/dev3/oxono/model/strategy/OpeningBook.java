@@ -0,0 +1,159 @@
+package g63551.dev3.oxono.model.strategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only book of opening turns, keyed by the Zobrist hash of the positions.
+ * The book is a binary file mapped in memory: a header (magic number, version, board size and
+ * number of entries, as four ints) followed by the entries sorted by key, each one a long key and
+ * an int turn. A lookup is a binary search in the mapped file, so the book takes no heap space
+ * and answers in O(log n).
+ */
+public final class OpeningBook {
+
+    /**
+     * The system property naming the directory of the books used by the game.
+     */
+    public static final String DIRECTORY_PROPERTY = "oxono.books";
+
+    private static final int MAGIC = 0x4F58_4F42; // "OXOB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 12;
+    private static final Map<Integer, Optional<OpeningBook>> BOOKS = new ConcurrentHashMap<>();
+
+    private final MappedByteBuffer entries;
+    private final int size;
+    private final int count;
+
+    private OpeningBook(MappedByteBuffer entries, int size, int count) {
+        this.entries = entries;
+        this.size = size;
+        this.count = count;
+    }
+
+    /**
+     * Maps the book stored in the given file.
+     *
+     * @param file the book file
+     * @return the book
+     * @throws IOException           if the file cannot be read
+     * @throws IllegalStateException if the file is not a valid book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES) {
+                throw new IllegalStateException("Not an opening book: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int count = buffer.getInt(12);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || length != HEADER_BYTES + (long) count * ENTRY_BYTES) {
+                throw new IllegalStateException("Not an opening book: " + file);
+            }
+            return new OpeningBook(buffer, buffer.getInt(8), count);
+        }
+    }
+
+    /**
+     * Returns the book of the given board size found in the book directory, named
+     * {@code oxono-<size>.book}. The directory is given by the {@link #DIRECTORY_PROPERTY} system
+     * property, {@code books} by default. Books are mapped once and shared. A file that cannot be
+     * read, or is not a book of that size, is ignored: the game is then played without book.
+     *
+     * @param size the size of the board
+     * @return the book, or null if there is no valid book for that size
+     */
+    public static OpeningBook forSize(int size) {
+        return BOOKS.computeIfAbsent(size, s -> {
+            Path file = Path.of(System.getProperty(DIRECTORY_PROPERTY, "books"), "oxono-" + s + ".book");
+            if (!Files.isRegularFile(file)) {
+                return Optional.empty();
+            }
+            try {
+                OpeningBook book = open(file);
+                return (book.size == s) ? Optional.of(book) : Optional.empty();
+            } catch (IOException | IllegalStateException e) {
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Writes a book file holding the given entries.
+     *
+     * @param file  the file to write
+     * @param size  the size of the board of the positions
+     * @param turns the turn to play in each position, keyed by the hash of the position
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public static void write(Path file, int size, Map<Long, Integer> turns) {
+        long[] keys = turns.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + keys.length * ENTRY_BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(keys.length);
+        for (long key : keys) {
+            buffer.putLong(key).putInt(turns.get(key));
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Looks up the turn to play in the position with the given hash.
+     *
+     * @param hash the hash of the position
+     * @return the turn, or -1 if the position is not in the book
+     */
+    public int lookup(long hash) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long key = entries.getLong(HEADER_BYTES + middle * ENTRY_BYTES);
+            if (key < hash) {
+                low = middle + 1;
+            } else if (key > hash) {
+                high = middle - 1;
+            } else {
+                return entries.getInt(HEADER_BYTES + middle * ENTRY_BYTES + 8);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the size of the board of the positions in the book.
+     *
+     * @return the size of the board
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of positions in the book.
+     *
+     * @return the number of entries
+     */
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,227 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.Board;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Root search splitting the list of root turns across the threads of a {@link ForkJoinPool}.
+ * The root turns are sorted by the move ordering first. The first turn, usually the best one of
+ * the previous depth, is searched alone to get a good bound; the other turns are then split in
+ * halves recursively, and idle threads steal the halves.
+ * Every thread searches on its own copy of the board with its own {@link Searcher}, and the best
+ * score found so far is shared between them as the lower bound of their searches. The searchers
+ * also share the transposition table.
+ */
+class ParallelSearcher implements RootSearch {
+
+    /**
+     * The number of root turns below which a range is searched by one thread.
+     */
+    private static final int GRAIN = 4;
+
+    private final Board board;
+    private final Evaluator evaluator;
+    private final int maxDepth;
+    private final TranspositionTable table;
+    private final ForkJoinPool pool;
+    private final Searcher rootSearcher;
+    private final Queue<Searcher> idle;
+    private final Queue<Searcher> all;
+    private final AtomicBoolean stopRequested;
+    private final LongAdder nodes;
+    private int[] rootTurns;
+    private volatile boolean aborted;
+    private int rootScore;
+
+    /**
+     * Creates a parallel search of the given board.
+     *
+     * @param board     the board to search, modified during the search and restored afterwards
+     * @param evaluator the evaluation of the leaf positions, attached to its board by each searcher
+     * @param maxDepth  the maximum depth of the searches, in turns
+     * @param table     the cache of the search results, shared by the threads
+     * @param pool      the threads of the search
+     */
+    ParallelSearcher(Board board, Evaluator evaluator, int maxDepth, TranspositionTable table, ForkJoinPool pool) {
+        this.board = board;
+        this.evaluator = evaluator;
+        this.maxDepth = maxDepth;
+        this.table = table;
+        this.pool = pool;
+        this.rootSearcher = new Searcher(board, evaluator, maxDepth, table);
+        this.idle = new ConcurrentLinkedQueue<>();
+        this.all = new ConcurrentLinkedQueue<>();
+        this.stopRequested = new AtomicBoolean();
+        this.nodes = new LongAdder();
+    }
+
+    @Override
+    public int searchRoot(int depth, long deadline, int firstTurn) {
+        aborted = false;
+        if (rootTurns == null) {
+            rootTurns = new int[board.maxTurns()];
+        }
+        int count = board.generateTurns(rootTurns);
+        if (count == 0) {
+            return -1;
+        }
+        long key = board.getHash();
+        if (firstTurn < 0) {
+            long entry = table.probe(key);
+            firstTurn = (entry != 0) ? TranspositionTable.turn(entry) : -1;
+        }
+        rootSearcher.sortRootTurns(rootTurns, count, firstTurn);
+
+        long before = rootSearcher.getNodes();
+        int firstScore = rootSearcher.searchTurn(rootTurns[0], depth, -Searcher.INFINITY, deadline);
+        nodes.add(rootSearcher.getNodes() - before);
+        if (rootSearcher.isAborted()) {
+            aborted = true;
+            return rootTurns[0];
+        }
+
+        AtomicLong best = new AtomicLong(pack(firstScore, 0));
+        pool.invoke(new RangeTask(rootTurns, 1, count, depth, deadline, best));
+
+        int bestIndex = unpackIndex(best.get());
+        this.rootScore = unpackScore(best.get());
+        if (!aborted) {
+            table.store(key, depth, TranspositionTable.EXACT, rootScore, rootTurns[bestIndex]);
+        }
+        return rootTurns[bestIndex];
+    }
+
+    /**
+     * Packs a score and the index of its turn so that the greatest packed value holds the best
+     * score and, among equal scores, the first turn.
+     */
+    private static long pack(int score, int index) {
+        return ((long) score << 32) | (~index & 0xFFFF_FFFFL);
+    }
+
+    private static int unpackScore(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    private static int unpackIndex(long packed) {
+        return ~(int) packed;
+    }
+
+    /**
+     * Takes a searcher that no thread is using, creating one on a new copy of the board if needed.
+     *
+     * @return a searcher for the calling thread
+     */
+    private Searcher acquire() {
+        Searcher searcher = idle.poll();
+        if (searcher == null) {
+            searcher = new Searcher(board.copy(), evaluator, maxDepth, table);
+            all.add(searcher);
+            if (stopRequested.get()) {
+                searcher.stop();
+            }
+        }
+        return searcher;
+    }
+
+    @Override
+    public void stop() {
+        stopRequested.set(true);
+        rootSearcher.stop();
+        for (Searcher searcher : all) {
+            searcher.stop();
+        }
+    }
+
+    @Override
+    public boolean isStopped() {
+        return stopRequested.get();
+    }
+
+    @Override
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    @Override
+    public int getRootScore() {
+        return rootScore;
+    }
+
+    @Override
+    public long getCutoffs() {
+        long cutoffs = rootSearcher.getCutoffs();
+        for (Searcher searcher : all) {
+            cutoffs += searcher.getCutoffs();
+        }
+        return cutoffs;
+    }
+
+    @Override
+    public long getFirstMoveCutoffs() {
+        long cutoffs = rootSearcher.getFirstMoveCutoffs();
+        for (Searcher searcher : all) {
+            cutoffs += searcher.getFirstMoveCutoffs();
+        }
+        return cutoffs;
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * Searches a range of root turns, splitting it while it is larger than {@link #GRAIN}.
+     */
+    private final class RangeTask extends RecursiveAction {
+        private final int[] turns;
+        private final int from;
+        private final int to;
+        private final int depth;
+        private final long deadline;
+        private final AtomicLong best;
+
+        RangeTask(int[] turns, int from, int to, int depth, long deadline, AtomicLong best) {
+            this.turns = turns;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+            this.deadline = deadline;
+            this.best = best;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GRAIN) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(turns, from, middle, depth, deadline, best),
+                        new RangeTask(turns, middle, to, depth, deadline, best));
+                return;
+            }
+            Searcher searcher = acquire();
+            long before = searcher.getNodes();
+            try {
+                for (int i = from; i < to && !aborted; i++) {
+                    int alpha = unpackScore(best.get());
+                    int score = searcher.searchTurn(turns[i], depth, alpha, deadline);
+                    if (searcher.isAborted()) {
+                        aborted = true;
+                    } else if (score > alpha) {
+                        best.accumulateAndGet(pack(score, i), Math::max);
+                    }
+                }
+            } finally {
+                nodes.add(searcher.getNodes() - before);
+                idle.add(searcher);
+            }
+        }
+    }
+}
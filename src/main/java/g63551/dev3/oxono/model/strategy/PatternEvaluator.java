@@ -0,0 +1,170 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+
+import java.util.Arrays;
+
+/**
+ * Evaluation with the patterns of {@link WindowEvaluator}, kept up to date as tokens are placed
+ * and removed instead of recomputed at every leaf.
+ * For every window of four cells on the rows and columns, the evaluator attached to a board counts
+ * its tokens, its pink tokens and its circle tokens; a token placed or removed only changes the
+ * windows holding its cell, at most eight, and the scores of those windows are swapped in two
+ * running sums, one for the color patterns and one for the symbol patterns. Evaluating a position
+ * then costs the same on every board size.
+ *
+ * <p>An evaluator made by the public constructor is not attached to any board: {@link #attach}
+ * returns one that is, to be used by a single thread with that board only. Positions of other
+ * boards are evaluated by counting their windows from scratch.</p>
+ */
+class PatternEvaluator implements Evaluator, TokenListener {
+
+    private static final int WINDOW = 4;
+
+    private final int[] colorWeights;
+    private final int[] symbolWeights;
+    private final Board board;
+    private final int size;
+    private final int[][] windowsOfCell;
+    private final byte[] tokens;
+    private final byte[] pink;
+    private final byte[] circle;
+    private int colorScore;
+    private int symbolScore;
+
+    /**
+     * Creates an evaluator with the given weights.
+     *
+     * @param color2  the weight of an open window holding two tokens of the same color
+     * @param color3  the weight of an open window holding three tokens of the same color
+     * @param symbol2 the weight of an open window holding two tokens of the same symbol
+     * @param symbol3 the weight of an open window holding three tokens of the same symbol
+     */
+    PatternEvaluator(int color2, int color3, int symbol2, int symbol3) {
+        this(new int[]{0, 0, color2, color3, color3}, new int[]{0, 0, symbol2, symbol3, symbol3}, null, false);
+    }
+
+    /**
+     * Creates an evaluator with the default weights.
+     */
+    PatternEvaluator() {
+        this(4, 32, 2, 16);
+    }
+
+    /**
+     * Creates an evaluator counting the windows of the given board.
+     *
+     * @param board  the board, or null for an evaluator attached to no board
+     * @param listen true to follow the changes of the board, false to only count its current position
+     */
+    private PatternEvaluator(int[] colorWeights, int[] symbolWeights, Board board, boolean listen) {
+        this.colorWeights = colorWeights;
+        this.symbolWeights = symbolWeights;
+        this.board = board;
+        this.size = (board != null) ? board.getSize() : 0;
+        int windows = (size >= WINDOW) ? 2 * size * (size - WINDOW + 1) : 0;
+        this.tokens = new byte[windows];
+        this.pink = new byte[windows];
+        this.circle = new byte[windows];
+        this.windowsOfCell = new int[size * size][];
+        if (board != null) {
+            indexWindows();
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    if (board.getPieceAtPos(x, y) instanceof Token token) {
+                        tokenPlaced(x, y, token);
+                    }
+                }
+            }
+            if (listen) {
+                board.setTokenListener(this);
+            }
+        }
+    }
+
+    /**
+     * Lists the windows holding each cell. The windows of row x are numbered from
+     * {@code x * starts}, those of column y from {@code (size + y) * starts}.
+     */
+    private void indexWindows() {
+        int starts = size - WINDOW + 1;
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int[] windows = new int[2 * Math.min(WINDOW, starts)];
+                int count = 0;
+                for (int start = Math.max(0, y - WINDOW + 1); start <= Math.min(y, starts - 1); start++) {
+                    windows[count++] = x * starts + start;
+                }
+                for (int start = Math.max(0, x - WINDOW + 1); start <= Math.min(x, starts - 1); start++) {
+                    windows[count++] = (size + y) * starts + start;
+                }
+                windowsOfCell[x * size + y] = Arrays.copyOf(windows, count);
+            }
+        }
+    }
+
+    /**
+     * Returns an evaluator following the tokens of the given board, which it starts listening to.
+     *
+     * @param board the board whose positions will be evaluated
+     * @return the attached evaluator
+     */
+    @Override
+    public Evaluator attach(Board board) {
+        return new PatternEvaluator(colorWeights, symbolWeights, board, true);
+    }
+
+    @Override
+    public int evaluate(Board board) {
+        if (board != this.board) {
+            return new PatternEvaluator(colorWeights, symbolWeights, board, false).evaluate(board);
+        }
+        return ((board.getSideToMove() == Color.PINK) ? colorScore : -colorScore) + symbolScore;
+    }
+
+    @Override
+    public void tokenPlaced(int x, int y, Token token) {
+        update(x, y, token, 1);
+    }
+
+    @Override
+    public void tokenRemoved(int x, int y, Token token) {
+        update(x, y, token, -1);
+    }
+
+    private void update(int x, int y, Token token, int change) {
+        int isPink = (token.getColor() == Color.PINK) ? change : 0;
+        int isCircle = (token.getSymbol() == Symbol.CIRCLE) ? change : 0;
+        for (int window : windowsOfCell[x * size + y]) {
+            colorScore -= colorScore(window);
+            symbolScore -= symbolScore(window);
+            tokens[window] += change;
+            pink[window] += isPink;
+            circle[window] += isCircle;
+            colorScore += colorScore(window);
+            symbolScore += symbolScore(window);
+        }
+    }
+
+    /**
+     * Returns the score of the color patterns of a window, for the pink player.
+     */
+    private int colorScore(int window) {
+        int count = tokens[window];
+        if (count < 2) {
+            return 0;
+        }
+        return (pink[window] == count) ? colorWeights[count] : (pink[window] == 0) ? -colorWeights[count] : 0;
+    }
+
+    /**
+     * Returns the score of the symbol patterns of a window, for the player to move.
+     */
+    private int symbolScore(int window) {
+        int count = tokens[window];
+        if (count < 2) {
+            return 0;
+        }
+        return (circle[window] == count || circle[window] == 0) ? symbolWeights[count] : 0;
+    }
+}
@@ -0,0 +1,142 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+import g63551.dev3.oxono.model.solver.CanonicalKey;
+import g63551.dev3.oxono.model.solver.SolutionFile;
+import g63551.dev3.oxono.model.solver.SolutionTable;
+import g63551.dev3.oxono.model.solver.Solver;
+
+/**
+ * Strategy playing perfectly on the 4x4 board.
+ * The value of every turn is read from a solution file written by the solver: a turn is played
+ * as soon as the entry of the position it reaches proves that it keeps the value of the current
+ * position. Positions missing from the file, which the opponent reaches by leaving the lines of
+ * perfect play, are solved on the spot within the time budget; only if that fails, or on another
+ * board size, is the choice left to the fallback strategy.
+ */
+public class PerfectPlayStrategy implements Strategy {
+    private static final int CACHE_LOG2_CAPACITY = 20;
+
+    private final SolutionFile solution;   // Positions solved beforehand, or null
+    private final SolutionTable cache;     // Positions solved during the game
+    private final Strategy fallback;       // Strategy used when the position cannot be solved
+    private final long timeBudgetMillis;   // Time allowed to solve a missing position
+
+    /**
+     * Constructs a PerfectPlayStrategy.
+     *
+     * @param solution         the positions solved beforehand, or null to solve every position on the spot
+     * @param fallback         the strategy used when a position cannot be solved in time
+     * @param timeBudgetMillis the time allowed to solve a position missing from the solution
+     * @throws IllegalArgumentException if the time budget is not positive
+     */
+    public PerfectPlayStrategy(SolutionFile solution, Strategy fallback, long timeBudgetMillis) {
+        if (timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("The time budget must be positive!");
+        }
+        this.solution = solution;
+        this.cache = new SolutionTable(CACHE_LOG2_CAPACITY);
+        this.fallback = fallback;
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Returns a turn keeping the value of the position, or the choice of the fallback strategy if
+     * the position cannot be solved in time. The background search of the fallback strategy, if
+     * any, is stopped when the position is solved, as its result is not needed.
+     *
+     * @param board a copy of the position to play
+     * @param token the request to stop the solver or the fallback strategy
+     * @return the chosen turn, or -1 if the player to move has no legal turn
+     */
+    @Override
+    public int chooseTurn(Board board, CancellationToken token) {
+        if (board.getSize() != CanonicalKey.SIZE) {
+            return fallback.chooseTurn(board, token);
+        }
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        if (count == 0) {
+            return -1;
+        }
+        int turn = findTurn(board, turns, count);
+        if (turn >= 0) {
+            fallback.stopPondering();
+            return turn;
+        }
+
+        Solver solver = new Solver(cache, solution);
+        token.onCancel(solver::stop);
+        int value = solver.solve(board, System.nanoTime() + timeBudgetMillis * 1_000_000);
+        if (value != Solver.UNKNOWN) {
+            fallback.stopPondering();
+            return solver.getBestTurn();
+        }
+        return token.isCancelled() ? turns[0] : fallback.chooseTurn(board, token);
+    }
+
+    /**
+     * Looks for a turn proven to keep the value of the position with the stored entries only.
+     *
+     * @return the turn, or -1 if the entries do not prove any
+     */
+    private int findTurn(Board board, int[] turns, int count) {
+        Color color = board.getSideToMove();
+        for (int i = 0; i < count; i++) {
+            Token token = Token.of(Moves.symbol(Moves.totemMove(turns[i])), color);
+            if (board.completesAlignment(token, Moves.insertCell(turns[i]))) {
+                return turns[i];
+            }
+        }
+        long entry = lookup(CanonicalKey.of(board));
+        if (entry == 0 || SolutionTable.bound(entry) != SolutionTable.EXACT) {
+            return -1;
+        }
+        int value = SolutionTable.value(entry);
+        for (int i = 0; i < count; i++) {
+            board.makeMove(turns[i]);
+            long child = lookup(CanonicalKey.of(board));
+            board.unmakeMove();
+            // The turn is worth at least the value of the position if the value of the position
+            // reached is exact or an upper bound, as the turn changes the sign
+            if (child != 0 && SolutionTable.bound(child) != SolutionTable.LOWER
+                    && Solver.valueOfTurn(SolutionTable.value(child)) >= value) {
+                return turns[i];
+            }
+        }
+        return -1;
+    }
+
+    private long lookup(long key) {
+        long entry = (solution != null) ? solution.get(key) : 0;
+        if (entry == 0 || SolutionTable.bound(entry) != SolutionTable.EXACT) {
+            long solved = cache.get(key);
+            entry = (solved != 0) ? solved : entry;
+        }
+        return entry;
+    }
+
+    @Override
+    public int predictTurn(Board board) {
+        return fallback.predictTurn(board);
+    }
+
+    @Override
+    public void ponder(Board position) {
+        fallback.ponder(position);
+    }
+
+    @Override
+    public void stopPondering() {
+        fallback.stopPondering();
+    }
+
+    /**
+     * Returns the strategy used when a position cannot be solved in time.
+     *
+     * @return the fallback strategy
+     */
+    public Strategy getFallback() {
+        return fallback;
+    }
+}
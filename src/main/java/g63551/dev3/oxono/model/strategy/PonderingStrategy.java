@@ -0,0 +1,210 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.Moves;
+
+/**
+ * Strategy thinking on the opponent's time.
+ * Once the strategy has played, {@link #ponder} guesses the answer of the opponent, with
+ * {@link Strategy#predictTurn} or, failing that, by choosing a turn for it, then starts choosing
+ * its own turn in the position that answer leads to, on a background thread. If the opponent plays
+ * the expected turn, {@link #chooseTurn} takes the result of that search, waiting for it to end
+ * if needed; otherwise the search is stopped and the position is searched as usual, which still
+ * benefits from what the background search left in the caches of the strategy.
+ * The wrapped strategy is only ever used by one thread at a time.
+ */
+public class PonderingStrategy implements Strategy {
+    private final Strategy strategy;  // Strategy choosing the turns, in the background or not
+    private Ponder pondering;         // Background search, if any
+    private int hits;                 // Turns taken from a background search
+    private int misses;               // Background searches thrown away
+
+    /**
+     * Constructs a PonderingStrategy.
+     *
+     * @param strategy the strategy choosing the turns
+     */
+    public PonderingStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Returns the result of the background search if it was searching the given position, or
+     * the choice of the wrapped strategy otherwise.
+     *
+     * @param board a copy of the position to play
+     * @param token the request to stop the choice, in the background or not, which then returns
+     *              its best turn so far
+     * @return the chosen turn, or -1 if the player to move has no legal turn
+     */
+    @Override
+    public int chooseTurn(Board board, CancellationToken token) {
+        Ponder ponder = take();
+        if (ponder != null) {
+            if (ponder.expectedHash == board.getHash() && ponder.expectedSize == board.getSize()) {
+                token.onCancel(ponder.token::cancel);
+                int turn = ponder.await();
+                if (turn >= 0) {
+                    hits++;
+                    return turn;
+                }
+            } else {
+                ponder.stop();
+            }
+            misses++;
+        }
+        return strategy.chooseTurn(board, token);
+    }
+
+    /**
+     * Starts a background search of the position expected after the answer of the opponent,
+     * stopping the previous one.
+     *
+     * @param position a copy of the position, with the opponent of the strategy to move
+     */
+    @Override
+    public void ponder(Board position) {
+        stopPondering();
+        Ponder ponder = new Ponder(position);
+        synchronized (this) {
+            pondering = ponder;
+        }
+        ponder.thread.start();
+    }
+
+    @Override
+    public void stopPondering() {
+        Ponder ponder = take();
+        if (ponder != null) {
+            ponder.stop();
+        }
+    }
+
+    private synchronized Ponder take() {
+        Ponder ponder = pondering;
+        pondering = null;
+        return ponder;
+    }
+
+    @Override
+    public int predictTurn(Board board) {
+        return strategy.predictTurn(board);
+    }
+
+    /**
+     * Returns the number of turns taken from a background search.
+     *
+     * @return the number of hits
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of background searches thrown away because the opponent played
+     * another turn.
+     *
+     * @return the number of misses
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the strategy choosing the turns.
+     *
+     * @return the wrapped strategy
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * A background search: the guess of the answer of the opponent, then the search of the
+     * position it leads to.
+     */
+    private final class Ponder {
+        private final Board position;
+        private final Thread thread;
+        private final CancellationToken token;
+        private volatile long expectedHash;
+        private volatile int expectedSize;
+        private final boolean guessed;
+        private boolean searchable;
+        private int turn = -1;
+
+        /**
+         * Prepares the background search. A guess given by {@link Strategy#predictTurn} is played
+         * at once, so that the expected position is known before the opponent can answer.
+         */
+        Ponder(Board position) {
+            this.position = position;
+            this.token = new CancellationToken();
+            int answer = strategy.predictTurn(position);
+            this.guessed = answer >= 0;
+            this.searchable = guessed && expect(answer);
+            this.thread = new Thread(this::run, "oxono-ponder");
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Plays the guessed answer of the opponent, if any, on the position.
+         *
+         * @return true if the answer leads to a position to search
+         */
+        private boolean expect(int answer) {
+            if (answer < 0 || token.isCancelled()) {
+                return false;
+            }
+            position.makeMove(answer);
+            if (position.isWinningCell(Moves.insertCell(answer))) {
+                return false;
+            }
+            expectedSize = position.getSize();
+            expectedHash = position.getHash();
+            return true;
+        }
+
+        private void run() {
+            if (!guessed) {
+                searchable = expect(strategy.chooseTurn(position.copy(), token));
+            }
+            if (searchable && !token.isCancelled()) {
+                turn = strategy.chooseTurn(position, token);
+            }
+        }
+
+        /**
+         * Waits for the search to end.
+         *
+         * @return the turn chosen by the search, or -1 if it was stopped before searching
+         */
+        int await() {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop();
+            }
+            return turn;
+        }
+
+        /**
+         * Stops the search and waits for it to end.
+         */
+        void stop() {
+            token.cancel();
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
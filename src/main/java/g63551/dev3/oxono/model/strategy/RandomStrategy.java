@@ -2,7 +2,6 @@ package g63551.dev3.oxono.model.strategy;
 
 import g63551.dev3.oxono.model.*;
 
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -11,33 +10,61 @@ import java.util.Random;
  */
 public class RandomStrategy implements Strategy {
     private final Random random; // Random object to generate random moves
+    private int[] moves;         // Reusable buffer receiving the generated moves
 
     /**
      * Constructs a RandomStrategy with a new Random object.
      */
     public RandomStrategy() {
-        this.random = new Random();
+        this(new Random());
     }
 
     /**
-     * Executes the random strategy by selecting a random totem move and a random token placement.
+     * Constructs a RandomStrategy drawing its moves from the given generator.
      *
-     * @param game the game instance in which the random moves are made
+     * @param random the generator of the random moves
+     */
+    public RandomStrategy(Random random) {
+        this.random = random;
+        this.moves = new int[0];
+    }
+
+    /**
+     * Chooses a random symbol among those the player still has tokens of, a random move for
+     * its totem and a random insertion next to the totem.
+     *
+     * @param board the position to play
+     * @param token ignored, as the choice is immediate
+     * @return the chosen turn, or -1 if the player to move has no legal turn
      */
     @Override
-    public void play(Game game) {
-        Symbol symbol = random.nextBoolean() ? Symbol.CROSS : Symbol.CIRCLE;
-
-        // Select a random move for the totem
-        List<Position> possibleTotemMoves = game.getPossibleTotemMoves(symbol);
-        Position randomMove = possibleTotemMoves.get(random.nextInt(possibleTotemMoves.size()));
-        game.move(randomMove.getX(), randomMove.getY(), symbol);
-
-        // Select a random position to insert a token
-        List<Position> possibleTokenPositions = game.getEmptyPositions(game.getToInsert(), game.getCurrentColor());
-        Position randomPosition = possibleTokenPositions.get(random.nextInt(possibleTokenPositions.size()));
-        int x = randomPosition.getX();
-        int y = randomPosition.getY();
-        game.insert(x, y);
+    public int chooseTurn(Board board, CancellationToken token) {
+        int cells = board.getSize() * board.getSize();
+        if (moves.length < cells) {
+            moves = new int[cells];
+        }
+        Color color = board.getSideToMove();
+        Symbol first = random.nextBoolean() ? Symbol.CROSS : Symbol.CIRCLE;
+        Symbol second = (first == Symbol.CROSS) ? Symbol.CIRCLE : Symbol.CROSS;
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Symbol symbol = (attempt == 0) ? first : second;
+            if (board.getTokensLeft(color, symbol) <= 0) {
+                continue;
+            }
+            // Select a random move for the totem
+            int count = board.generateTotemMoves(symbol, moves);
+            if (count == 0) {
+                continue;
+            }
+            int totemMove = moves[random.nextInt(count)];
+
+            // Select a random position to insert a token
+            count = board.generateInsertsAfter(totemMove, moves);
+            if (count > 0) {
+                return Moves.turn(totemMove, Moves.cell(moves[random.nextInt(count)]));
+            }
+        }
+        return -1;
     }
 }
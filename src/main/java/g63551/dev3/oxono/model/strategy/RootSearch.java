@@ -0,0 +1,70 @@
+package g63551.dev3.oxono.model.strategy;
+
+/**
+ * Search of the best turn from a root position, driven depth by depth by iterative deepening.
+ * Implementations may use one thread or several.
+ */
+interface RootSearch {
+
+    /**
+     * Searches the position to the given depth, trying the given turn first.
+     * The search stops early if the deadline is reached or if {@link #stop()} is called; the best
+     * turn found so far is returned.
+     *
+     * @param depth     the depth of the search, in turns
+     * @param deadline  the value of {@link System#nanoTime()} at which the search must stop
+     * @param firstTurn the turn to search first, or -1
+     * @return the best turn, or -1 if the player to move has no legal turn
+     */
+    int searchRoot(int depth, long deadline, int firstTurn);
+
+    /**
+     * Asks the running search, and every later one, to stop as soon as possible.
+     * It may be called from any thread.
+     */
+    void stop();
+
+    /**
+     * Checks if {@link #stop()} has been called.
+     *
+     * @return true if the search was asked to stop
+     */
+    boolean isStopped();
+
+    /**
+     * Checks if the last search stopped because of the deadline or a call to {@link #stop()}.
+     *
+     * @return true if the last search was stopped early
+     */
+    boolean isAborted();
+
+    /**
+     * Returns the score of the best turn of the last completed search, from the point of view of
+     * the player to move. The score is meaningless if the search was aborted.
+     *
+     * @return the score of the last search
+     */
+    int getRootScore();
+
+    /**
+     * Returns the number of positions visited since the search was created.
+     *
+     * @return the number of visited positions
+     */
+    long getNodes();
+
+    /**
+     * Returns the number of cutoffs since the search was created.
+     *
+     * @return the number of cutoffs
+     */
+    long getCutoffs();
+
+    /**
+     * Returns the number of cutoffs caused by the first turn tried at a node, a measure of the
+     * quality of the move ordering.
+     *
+     * @return the number of cutoffs on the first turn
+     */
+    long getFirstMoveCutoffs();
+}
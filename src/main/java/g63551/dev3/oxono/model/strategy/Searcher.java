@@ -0,0 +1,293 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+
+/**
+ * Negamax search with alpha-beta pruning over full turns (totem move and insertion).
+ * Results are cached in a {@link TranspositionTable}, which may be shared with other searchers,
+ * and the turns of every node are tried in the order given by a {@link MoveOrderer}.
+ * A searcher owns its board and one turn buffer per ply, so it allocates nothing while searching;
+ * it is not thread-safe and each thread needs its own instance, except for {@link #stop()} which
+ * may be called from any thread.
+ */
+class Searcher implements RootSearch {
+
+    /**
+     * Score of a won position, reduced by the number of plies needed to reach it
+     * so that quicker wins are preferred.
+     */
+    static final int WIN = 1_000_000;
+
+    /**
+     * Scores above this bound are wins or losses.
+     */
+    static final int WIN_BOUND = WIN - 1_000;
+
+    static final int INFINITY = WIN + 1;
+    private static final int CHECK_INTERVAL = 1023;
+
+    private final Board board;
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final MoveOrderer orderer;
+    private final int[][] turns;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    private int rootScore;
+
+    /**
+     * Creates a searcher working on the given board.
+     *
+     * @param board     the board to search, modified during the search and restored afterwards
+     * @param evaluator the evaluation of the leaf positions
+     * @param maxDepth  the maximum depth of the searches, in turns
+     * @param table     the cache of the search results
+     */
+    Searcher(Board board, Evaluator evaluator, int maxDepth, TranspositionTable table) {
+        this(board, evaluator, maxDepth, table, true);
+    }
+
+    /**
+     * Creates a searcher working on the given board, with or without move ordering.
+     *
+     * @param board     the board to search, modified during the search and restored afterwards
+     * @param evaluator the evaluation of the leaf positions, attached to the board by the searcher
+     * @param maxDepth  the maximum depth of the searches, in turns
+     * @param table     the cache of the search results
+     * @param ordering  false to only try the transposition table turn first, for comparison
+     */
+    Searcher(Board board, Evaluator evaluator, int maxDepth, TranspositionTable table, boolean ordering) {
+        this.board = board;
+        this.evaluator = evaluator.attach(board);
+        this.table = table;
+        this.turns = new int[maxDepth + 1][board.maxTurns()];
+        this.orderer = new MoveOrderer(board.getSize(), maxDepth, board.maxTurns(), ordering);
+        this.board.setTrustedMode(true);
+    }
+
+    /**
+     * Searches the position to the given depth and returns the best turn for the player to move.
+     * The search stops early if the deadline is reached or if {@link #stop()} is called; the best
+     * turn found so far is returned.
+     *
+     * @param depth    the depth of the search, in turns
+     * @param deadline the value of {@link System#nanoTime()} at which the search must stop
+     * @return the best turn, or -1 if the player to move has no legal turn
+     */
+    int searchRoot(int depth, long deadline) {
+        return searchRoot(depth, deadline, -1);
+    }
+
+    /**
+     * Searches the position to the given depth, trying the given turn first.
+     * Iterative deepening passes the best turn of the previous depth, so that a search stopped
+     * early still returns a turn at least as good as the one already known.
+     */
+    @Override
+    public int searchRoot(int depth, long deadline, int firstTurn) {
+        this.deadline = deadline;
+        this.aborted = false;
+        int[] rootTurns = turns[0];
+        int count = board.generateTurns(rootTurns);
+        long key = board.getHash();
+        if (firstTurn < 0) {
+            long entry = table.probe(key);
+            firstTurn = (entry != 0) ? TranspositionTable.turn(entry) : -1;
+        }
+        orderer.score(board, rootTurns, count, 0, firstTurn);
+        int alpha = -INFINITY;
+        int bestTurn = -1;
+
+        for (int i = 0; i < count; i++) {
+            orderer.pick(rootTurns, count, i, 0);
+            if (i == 0) {
+                bestTurn = rootTurns[0];
+            }
+            int score = scoreTurn(rootTurns[i], depth, alpha, INFINITY, 0);
+            if (aborted) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestTurn = rootTurns[i];
+            }
+        }
+        this.rootScore = alpha;
+        if (!aborted && count > 0) {
+            table.store(key, depth, TranspositionTable.EXACT, alpha, bestTurn);
+        }
+        return bestTurn;
+    }
+
+    /**
+     * Plays one root turn and scores it from the point of view of the player who played it,
+     * with the given lower bound. Parallel searches use it to share the bound between threads.
+     *
+     * @param turn     the turn to score
+     * @param depth    the depth of the search, in turns, including this turn
+     * @param alpha    the score to beat
+     * @param deadline the value of {@link System#nanoTime()} at which the search must stop
+     * @return the score of the turn, exact if it is above alpha; meaningless if the search was aborted
+     */
+    int searchTurn(int turn, int depth, int alpha, long deadline) {
+        this.deadline = deadline;
+        this.aborted = false;
+        return scoreTurn(turn, depth, alpha, INFINITY, 0);
+    }
+
+    /**
+     * Sorts the given root turns, best first, for the searches that split the list between threads.
+     *
+     * @param rootTurns the turns of the root position
+     * @param count     the number of turns
+     * @param firstTurn the turn to put first, or -1
+     */
+    void sortRootTurns(int[] rootTurns, int count, int firstTurn) {
+        orderer.sort(board, rootTurns, count, 0, firstTurn);
+    }
+
+    /**
+     * Plays a turn, scores it from the point of view of the player who played it, and takes it back.
+     *
+     * @param turn  the turn to score
+     * @param depth the remaining depth, including this turn
+     * @param alpha the lower bound of the window
+     * @param beta  the upper bound of the window
+     * @param ply   the distance from the root
+     * @return the score of the turn
+     */
+    private int scoreTurn(int turn, int depth, int alpha, int beta, int ply) {
+        board.makeMove(turn);
+        int score;
+        if (board.isWinningCell(Moves.insertCell(turn))) {
+            score = WIN - ply;
+        } else if (depth <= 1) {
+            score = -evaluator.evaluate(board);
+        } else {
+            score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+        }
+        board.unmakeMove();
+        return score;
+    }
+
+    /**
+     * Negamax search with alpha-beta pruning.
+     *
+     * @param depth the remaining depth, in turns
+     * @param alpha the lower bound of the window
+     * @param beta  the upper bound of the window
+     * @param ply   the distance from the root
+     * @return the score of the position for the player to move
+     */
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if ((++nodes & CHECK_INTERVAL) == 0 && (stopRequested || System.nanoTime() - deadline > 0)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        long key = board.getHash();
+        long entry = table.probe(key);
+        int tableTurn = -1;
+        if (entry != 0) {
+            tableTurn = TranspositionTable.turn(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] plyTurns = turns[ply];
+        int count = board.generateTurns(plyTurns);
+        if (count == 0) {
+            return 0; // No token or no cell left: draw
+        }
+        orderer.score(board, plyTurns, count, ply, tableTurn);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestTurn = -1;
+        for (int i = 0; i < count; i++) {
+            orderer.pick(plyTurns, count, i, ply);
+            int score = scoreTurn(plyTurns[i], depth, alpha, beta, ply);
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestTurn = plyTurns[i];
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        orderer.recordCutoff(bestTurn, ply, depth, i);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = (best <= originalAlpha) ? TranspositionTable.UPPER
+                : (best >= beta) ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, depth, bound, toTable(best, ply), bestTurn);
+        return best;
+    }
+
+    /**
+     * Converts a score relative to the root into a score relative to the current node, so that
+     * a win stored in the table keeps its distance when the position is reached at another ply.
+     *
+     * @param score the score relative to the root
+     * @param ply   the distance of the node from the root
+     * @return the score to store
+     */
+    private static int toTable(int score, int ply) {
+        return (score > WIN_BOUND) ? score + ply : (score < -WIN_BOUND) ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return (score > WIN_BOUND) ? score - ply : (score < -WIN_BOUND) ? score + ply : score;
+    }
+
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return stopRequested;
+    }
+
+    @Override
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    @Override
+    public int getRootScore() {
+        return rootScore;
+    }
+
+    @Override
+    public long getCutoffs() {
+        return orderer.getCutoffs();
+    }
+
+    @Override
+    public long getFirstMoveCutoffs() {
+        return orderer.getFirstMoveCutoffs();
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes;
+    }
+}
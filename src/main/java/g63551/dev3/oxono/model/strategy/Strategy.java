@@ -1,17 +1,77 @@
 package g63551.dev3.oxono.model.strategy;
 
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.BoardType;
 import g63551.dev3.oxono.model.Game;
 
 /**
  * Interface for different strategies that define how a player makes a move in the game.
- * Implementing classes should provide the logic for playing a game based on a specific strategy.
+ * Implementing classes choose a full turn (a totem move and an insertion) on a copy of the board,
+ * so the choice can be computed away from the game, for instance on a background thread.
  */
 public interface Strategy {
 
+    /**
+     * Chooses a turn for the player to move on the given board.
+     * The board is a copy of the game that the strategy may modify; it must answer within its own
+     * time budget and return early, with the best turn found so far, once the token is cancelled.
+     * Strategies that always answer immediately can ignore the token.
+     *
+     * @param board a copy of the position to play
+     * @param token the request to stop the choice, created by the caller
+     * @return the chosen turn, encoded with {@link g63551.dev3.oxono.model.Moves#turn}, or -1 if
+     *         the player to move has no legal turn
+     */
+    int chooseTurn(Board board, CancellationToken token);
+
+    /**
+     * Chooses a turn for the player to move on the given board, without any way to stop the
+     * choice before the time budget is spent.
+     *
+     * @param board a copy of the position to play
+     * @return the chosen turn, or -1 if the player to move has no legal turn
+     */
+    default int chooseTurn(Board board) {
+        return chooseTurn(board, CancellationToken.NONE);
+    }
+
+    /**
+     * Guesses the turn that the player to move will play, from what the strategy learned while
+     * choosing its own turn, without searching.
+     *
+     * @param board the position, with the opponent of the strategy to move
+     * @return the expected turn, or -1 if the strategy has no guess
+     */
+    default int predictTurn(Board board) {
+        return -1;
+    }
+
+    /**
+     * Starts thinking, in the background, about the position that the given one will probably
+     * lead to, while the opponent chooses its turn. Strategies that do not ponder ignore it.
+     *
+     * @param position a copy of the position, with the opponent of the strategy to move, that
+     *                 the strategy may keep and modify
+     */
+    default void ponder(Board position) {
+    }
+
+    /**
+     * Stops the background thinking started by {@link #ponder}, if any, and waits for it to end.
+     */
+    default void stopPondering() {
+    }
+
     /**
      * Executes the strategy for making a move in the game.
+     * The turn is chosen on a snapshot of the game, then played on the game itself.
      *
      * @param game the game instance in which the move is made
      */
-    void play(Game game);
+    default void play(Game game) {
+        int turn = chooseTurn(game.snapshot(BoardType.fastestFor(game.getSize())));
+        if (turn >= 0) {
+            game.applyTurn(turn);
+        }
+    }
 }
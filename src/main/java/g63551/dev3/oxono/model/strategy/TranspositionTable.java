@@ -0,0 +1,182 @@
+package g63551.dev3.oxono.model.strategy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Fixed-size cache of search results, indexed by the Zobrist hash of the positions.
+ * Each entry takes two longs of a flat array: the key XORed with the data, then the data.
+ * A reader recomputes the key from both words and rejects the entry if it does not match, so
+ * several threads can share the table without locks: an entry torn by a concurrent write simply
+ * looks like a miss. A slot is replaced when the new result is at least as deep as the stored one,
+ * or when the stored one comes from an older search.
+ *
+ * <p>The data packs, from the lowest bit: the best turn (32 bits), the score (22 bits, signed),
+ * the depth (6 bits), the bound (2 bits) and the generation of the search (2 bits).</p>
+ */
+public final class TranspositionTable {
+
+    /**
+     * The stored score is a lower bound of the real score.
+     */
+    static final int LOWER = 1;
+
+    /**
+     * The stored score is an upper bound of the real score.
+     */
+    static final int UPPER = 2;
+
+    /**
+     * The stored score is the real score.
+     */
+    static final int EXACT = 3;
+
+    /**
+     * The greatest depth that can be stored.
+     */
+    static final int MAX_DEPTH = 63;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int ENTRY_BYTES = 16;
+    private static final int SCORE_SHIFT = 32;
+    private static final int SCORE_BITS = 22;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + SCORE_BITS;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + 6;
+    private static final int GENERATION_SHIFT = BOUND_SHIFT + 2;
+
+    private final long[] slots;
+    private final int mask;
+    private volatile int generation;
+
+    /**
+     * Creates a table using at most the given amount of memory.
+     * The number of entries is the greatest power of two that fits in the budget.
+     *
+     * @param megabytes the memory budget, in megabytes
+     * @throws IllegalArgumentException if the budget is not between 1 and 1024 megabytes
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > 1024) {
+            throw new IllegalArgumentException("The size of the table must be between 1 and 1024 MB!");
+        }
+        int entries = Integer.highestOneBit((int) ((long) megabytes * 1024 * 1024 / ENTRY_BYTES));
+        this.slots = new long[entries * 2];
+        this.mask = entries - 1;
+    }
+
+    /**
+     * Starts a new search, so that the entries of the previous ones are replaced first.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 3;
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            SLOTS.setOpaque(slots, i, 0L);
+        }
+    }
+
+    /**
+     * Returns the number of entries of the table.
+     *
+     * @return the capacity of the table
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Looks up the entry of the given position.
+     *
+     * @param key the hash of the position
+     * @return the data of the entry, to be read with the static accessors, or 0 if the position
+     *         is not in the table
+     */
+    long probe(long key) {
+        int index = index(key);
+        long check = (long) SLOTS.getOpaque(slots, index);
+        long data = (long) SLOTS.getOpaque(slots, index + 1);
+        return ((check ^ data) == key) ? data : 0L;
+    }
+
+    /**
+     * Stores the result of a search, unless the slot holds a deeper result of the same search.
+     *
+     * @param key   the hash of the position
+     * @param depth the depth of the search, in turns
+     * @param bound {@link #LOWER}, {@link #UPPER} or {@link #EXACT}
+     * @param score the score of the position for the player to move
+     * @param turn  the best turn found, or -1 if there is none
+     */
+    void store(long key, int depth, int bound, int score, int turn) {
+        int index = index(key);
+        long check = (long) SLOTS.getOpaque(slots, index);
+        long old = (long) SLOTS.getOpaque(slots, index + 1);
+        int current = generation;
+        if (old != 0 && generation(old) == current && depth(old) > depth) {
+            return;
+        }
+        if (turn < 0 && (check ^ old) == key) {
+            turn = turn(old); // Keep the best turn found by a previous search of the position
+        }
+        long data = (turn & 0xFFFF_FFFFL)
+                | ((score & ((1L << SCORE_BITS) - 1)) << SCORE_SHIFT)
+                | ((long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) current << GENERATION_SHIFT);
+        SLOTS.setOpaque(slots, index, key ^ data);
+        SLOTS.setOpaque(slots, index + 1, data);
+    }
+
+    private int index(long key) {
+        return (int) (key & mask) << 1;
+    }
+
+    /**
+     * Returns the best turn stored in an entry.
+     *
+     * @param data the data of the entry
+     * @return the best turn, or -1 if there is none
+     */
+    static int turn(long data) {
+        return (int) data;
+    }
+
+    /**
+     * Returns the score stored in an entry.
+     *
+     * @param data the data of the entry
+     * @return the score, for the player to move
+     */
+    static int score(long data) {
+        return (int) (data << (64 - SCORE_SHIFT - SCORE_BITS) >> (64 - SCORE_BITS));
+    }
+
+    /**
+     * Returns the depth stored in an entry.
+     *
+     * @param data the data of the entry
+     * @return the depth of the search, in turns
+     */
+    static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 63;
+    }
+
+    /**
+     * Returns the bound stored in an entry.
+     *
+     * @param data the data of the entry
+     * @return {@link #LOWER}, {@link #UPPER} or {@link #EXACT}
+     */
+    static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 3;
+    }
+}
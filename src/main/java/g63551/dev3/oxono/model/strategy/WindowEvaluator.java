@@ -0,0 +1,92 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+
+/**
+ * Evaluation counting the open runs of every window of four cells on the rows and columns.
+ * A window is open for a color (or a symbol) when all its tokens share it; open windows with
+ * two or three tokens are worth points. Color runs count for their owner and against the
+ * opponent, while symbol runs can be completed by either player and favour the player to move.
+ */
+class WindowEvaluator implements Evaluator {
+
+    private static final int WINDOW = 4;
+
+    private final int[] colorWeights;
+    private final int[] symbolWeights;
+
+    /**
+     * Creates an evaluator with the given weights.
+     *
+     * @param color2  the weight of an open window holding two tokens of the same color
+     * @param color3  the weight of an open window holding three tokens of the same color
+     * @param symbol2 the weight of an open window holding two tokens of the same symbol
+     * @param symbol3 the weight of an open window holding three tokens of the same symbol
+     */
+    WindowEvaluator(int color2, int color3, int symbol2, int symbol3) {
+        this.colorWeights = new int[]{0, 0, color2, color3, color3};
+        this.symbolWeights = new int[]{0, 0, symbol2, symbol3, symbol3};
+    }
+
+    /**
+     * Creates an evaluator with the default weights.
+     */
+    WindowEvaluator() {
+        this(4, 32, 2, 16);
+    }
+
+    @Override
+    public int evaluate(Board board) {
+        int size = board.getSize();
+        int score = 0;
+        for (int line = 0; line < size; line++) {
+            for (int start = 0; start + WINDOW <= size; start++) {
+                score += evaluateWindow(board, line, start, 0, 1);
+                score += evaluateWindow(board, start, line, 1, 0);
+            }
+        }
+        return (board.getSideToMove() == Color.PINK) ? score : -score;
+    }
+
+    /**
+     * Evaluates one window from the point of view of the pink player, symbol runs being credited
+     * to the player to move.
+     *
+     * @param board the position to evaluate
+     * @param x     the row index of the first cell of the window
+     * @param y     the column index of the first cell of the window
+     * @param dx    the change in row index per cell
+     * @param dy    the change in column index per cell
+     * @return the score of the window
+     */
+    private int evaluateWindow(Board board, int x, int y, int dx, int dy) {
+        int tokens = 0;
+        int pink = 0;
+        int circle = 0;
+        for (int k = 0; k < WINDOW; k++) {
+            if (board.getPieceAtPos(x + k * dx, y + k * dy) instanceof Token token) {
+                tokens++;
+                if (token.getColor() == Color.PINK) {
+                    pink++;
+                }
+                if (token.getSymbol() == Symbol.CIRCLE) {
+                    circle++;
+                }
+            }
+        }
+        if (tokens < 2) {
+            return 0;
+        }
+
+        int score = 0;
+        if (pink == tokens) {
+            score += colorWeights[tokens];
+        } else if (pink == 0) {
+            score -= colorWeights[tokens];
+        }
+        if (circle == tokens || circle == 0) {
+            score += (board.getSideToMove() == Color.PINK) ? symbolWeights[tokens] : -symbolWeights[tokens];
+        }
+        return score;
+    }
+}
@@ -0,0 +1,187 @@
+package g63551.dev3.oxono.tools;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.BoardType;
+import g63551.dev3.oxono.model.Color;
+import g63551.dev3.oxono.model.Moves;
+import g63551.dev3.oxono.model.strategy.AlphaBetaStrategy;
+import g63551.dev3.oxono.model.strategy.CancellationToken;
+import g63551.dev3.oxono.model.strategy.MctsStrategy;
+import g63551.dev3.oxono.model.strategy.RandomStrategy;
+import g63551.dev3.oxono.model.strategy.Strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays a match between two strategies without any interface, to compare bots.
+ * Games are played in pairs: both games of a pair start with the same random opening, seeded by
+ * the number of the pair, and each strategy plays pink (who moves first) in one of them. Every
+ * thread plays whole pairs with its own instances of the strategies, each one single-threaded,
+ * and every turn is cancelled once its time is spent. The score is printed after every pair with
+ * the Elo difference and its error bars; the match stops early as soon as the sequential
+ * probability ratio test accepts one of its hypotheses.
+ *
+ * <p>Usage: {@code Arena [size] [games] [millis] [threads] [first] [second] [elo0] [elo1] [plies]},
+ * by default {@code 6 1000 100 <number of cores> alphabeta:4 mcts 0 20 4}. A strategy is
+ * {@code random}, {@code alphabeta:<depth>} or {@code mcts}; the test compares H0, a difference of
+ * elo0, with H1, a difference of elo1, with error rates of 5%. The opening is made of the given
+ * number of random turns.</p>
+ */
+public class Arena {
+
+    private static final double ERROR_RATE = 0.05;
+
+    /**
+     * Plays the match and prints its result.
+     *
+     * @param args the size of the board, the maximum number of games, the time per turn in
+     *             milliseconds, the number of threads, the two strategies, the bounds of the
+     *             test and the number of turns of the openings
+     * @throws InterruptedException if the match is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 6;
+        int games = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+        long millis = (args.length > 2) ? Long.parseLong(args[2]) : 100;
+        int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        String first = (args.length > 4) ? args[4] : "alphabeta:4";
+        String second = (args.length > 5) ? args[5] : "mcts";
+        double elo0 = (args.length > 6) ? Double.parseDouble(args[6]) : 0;
+        double elo1 = (args.length > 7) ? Double.parseDouble(args[7]) : 20;
+        int plies = (args.length > 8) ? Integer.parseInt(args[8]) : 4;
+
+        createStrategy(first, millis); // Fails now on a bad description rather than in the threads
+        createStrategy(second, millis);
+        System.out.printf("%s vs %s on %dx%d, %d ms per turn, %d threads%n", first, second, size, size, millis, threads);
+
+        MatchScore score = new MatchScore();
+        AtomicInteger nextPair = new AtomicInteger();
+        AtomicBoolean decided = new AtomicBoolean();
+        int pairs = (games + 1) / 2;
+        ScheduledExecutorService clock = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "arena-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExecutorService players = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(players.submit(() -> {
+                    Strategy firstStrategy = createStrategy(first, millis);
+                    Strategy secondStrategy = createStrategy(second, millis);
+                    for (int pair = nextPair.getAndIncrement(); pair < pairs && !decided.get(); pair = nextPair.getAndIncrement()) {
+                        Board opening = createOpening(size, plies, new Random(pair));
+                        int pinkFirst = playGame(opening.copy(), firstStrategy, secondStrategy, millis, clock);
+                        int blackFirst = -playGame(opening.copy(), secondStrategy, firstStrategy, millis, clock);
+                        synchronized (score) {
+                            score.add(pinkFirst);
+                            score.add(blackFirst);
+                            int decision = score.sprt(elo0, elo1, ERROR_RATE, ERROR_RATE);
+                            System.out.printf("%s, LLR %.2f%n", score, score.llr(elo0, elo1));
+                            if (decision != 0 && decided.compareAndSet(false, true)) {
+                                System.out.printf("SPRT: %s accepted%n", (decision > 0) ? "H1 (elo1)" : "H0 (elo0)");
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A game failed!", e.getCause());
+                }
+            }
+        } finally {
+            decided.set(true); // Stops the other players after their pair if one of them failed
+            players.shutdown();
+            clock.shutdown();
+        }
+        System.out.println("Final: " + score);
+    }
+
+    /**
+     * Creates a single-threaded strategy from its description.
+     *
+     * @param description {@code random}, {@code alphabeta:<depth>} or {@code mcts}
+     * @param millis      the time per turn
+     * @return the strategy
+     * @throws IllegalArgumentException if the description is unknown
+     */
+    static Strategy createStrategy(String description, long millis) {
+        String[] parts = description.split(":");
+        return switch (parts[0]) {
+            case "random" -> new RandomStrategy();
+            case "alphabeta" -> new AlphaBetaStrategy((parts.length > 1) ? Integer.parseInt(parts[1]) : 4, millis);
+            case "mcts" -> new MctsStrategy(millis, 1);
+            default -> throw new IllegalArgumentException("Unknown strategy: " + description + "!");
+        };
+    }
+
+    /**
+     * Plays random turns from the initial position, starting over until none of them ends the game.
+     *
+     * @param size   the size of the board
+     * @param plies  the number of turns
+     * @param random the source of the turns
+     * @return the position reached, pink to move if the number of turns is even
+     */
+    static Board createOpening(int size, int plies, Random random) {
+        RandomStrategy strategy = new RandomStrategy(random);
+        while (true) {
+            Board board = BoardType.fastestFor(size).create(size);
+            boolean over = false;
+            for (int i = 0; i < plies && !over; i++) {
+                int turn = strategy.chooseTurn(board);
+                over = turn < 0;
+                if (!over) {
+                    board.makeMove(turn);
+                    over = board.isWinningCell(Moves.insertCell(turn));
+                }
+            }
+            if (!over) {
+                return board;
+            }
+        }
+    }
+
+    /**
+     * Plays a game to its end.
+     *
+     * @param board  the opening position
+     * @param pink   the strategy playing pink
+     * @param black  the strategy playing black
+     * @param millis the time per turn, after which the strategy is cancelled
+     * @param clock  the thread cancelling the strategies
+     * @return 1 if pink wins, -1 if black wins, 0 for a draw
+     */
+    static int playGame(Board board, Strategy pink, Strategy black, long millis, ScheduledExecutorService clock) {
+        while (true) {
+            Color color = board.getSideToMove();
+            Strategy strategy = (color == Color.PINK) ? pink : black;
+            CancellationToken token = new CancellationToken();
+            ScheduledFuture<?> timeout = clock.schedule(token::cancel, millis, TimeUnit.MILLISECONDS);
+            int turn = strategy.chooseTurn(board.copy(), token);
+            timeout.cancel(false);
+            if (turn < 0) {
+                return 0; // No cell or no token left
+            }
+            board.makeMove(turn);
+            if (board.isWinningCell(Moves.insertCell(turn))) {
+                return (color == Color.PINK) ? 1 : -1;
+            }
+        }
+    }
+}
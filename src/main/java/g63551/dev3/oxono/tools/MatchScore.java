@@ -0,0 +1,165 @@
+package g63551.dev3.oxono.tools;
+
+/**
+ * Score of a match between two strategies, with the Elo difference it implies and the sequential
+ * probability ratio test deciding whether the first strategy is stronger.
+ * The Elo difference uses the logistic model: a score s (wins plus half the draws, per game) is
+ * worth {@code -400 log10(1/s - 1)} Elo. Its error bars come from the variance of the result of a
+ * game. The test is the generalized SPRT on the score, with the normal approximation used by
+ * chess engine testing tools: it accepts H1 (the difference is elo1) over H0 (it is elo0) once the
+ * log-likelihood ratio leaves the bounds given by the error rates.
+ */
+final class MatchScore {
+
+    private static final double Z_95 = 1.959964;
+
+    private int wins;
+    private int draws;
+    private int losses;
+
+    /**
+     * Records the result of a game, for the first strategy.
+     *
+     * @param result 1 for a win, 0 for a draw, -1 for a loss
+     */
+    void add(int result) {
+        if (result > 0) {
+            wins++;
+        } else if (result < 0) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    /**
+     * Returns the number of games won by the first strategy.
+     *
+     * @return the number of games won by the first strategy
+     */
+    int getWins() {
+        return wins;
+    }
+
+    /**
+     * Returns the number of drawn games.
+     *
+     * @return the number of drawn games
+     */
+    int getDraws() {
+        return draws;
+    }
+
+    /**
+     * Returns the number of games lost by the first strategy.
+     *
+     * @return the number of games lost by the first strategy
+     */
+    int getLosses() {
+        return losses;
+    }
+
+    /**
+     * Returns the number of games played.
+     *
+     * @return the number of games played
+     */
+    int getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Returns the score of the first strategy per game.
+     *
+     * @return the score, between 0 and 1
+     */
+    double score() {
+        return (wins + draws / 2.0) / getGames();
+    }
+
+    /**
+     * Returns the variance of the score of one game, counting half a game more of each result so
+     * that a match where every game ends the same way still has a variance.
+     */
+    private double variance() {
+        double w = wins + 0.5;
+        double d = draws + 0.5;
+        double l = losses + 0.5;
+        double games = w + d + l;
+        double s = score();
+        return (w * (1 - s) * (1 - s) + d * (0.5 - s) * (0.5 - s) + l * s * s) / games;
+    }
+
+    /**
+     * Returns the Elo difference between the first and the second strategy.
+     *
+     * @return the Elo difference, infinite if one strategy won every game
+     */
+    double elo() {
+        return elo(score());
+    }
+
+    /**
+     * Returns the half-width of the 95% confidence interval of the Elo difference.
+     *
+     * @return the error bar, in Elo, infinite while the interval reaches a score of 0 or 1
+     */
+    double eloError() {
+        double margin = Z_95 * Math.sqrt(variance() / getGames());
+        return (elo(score() + margin) - elo(score() - margin)) / 2;
+    }
+
+    /**
+     * Returns the log-likelihood ratio of H1 (the Elo difference is elo1) against H0 (it is elo0).
+     *
+     * @param elo0 the Elo difference under H0
+     * @param elo1 the Elo difference under H1
+     * @return the log-likelihood ratio
+     */
+    double llr(double elo0, double elo1) {
+        double variance = variance();
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return (s1 - s0) * (2 * score() - s0 - s1) / (2 * variance / getGames());
+    }
+
+    /**
+     * Returns the decision of the test.
+     *
+     * @param elo0  the Elo difference under H0
+     * @param elo1  the Elo difference under H1
+     * @param alpha the probability of accepting H1 when H0 holds
+     * @param beta  the probability of accepting H0 when H1 holds
+     * @return 1 if H1 is accepted, -1 if H0 is accepted, 0 if more games are needed
+     */
+    int sprt(double elo0, double elo1, double alpha, double beta) {
+        double llr = llr(elo0, elo1);
+        if (llr >= Math.log((1 - beta) / alpha)) {
+            return 1;
+        }
+        if (llr <= Math.log(beta / (1 - alpha))) {
+            return -1;
+        }
+        return 0;
+    }
+
+    private static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games: +%d =%d -%d, Elo %+.1f +/- %.1f", getGames(), wins, draws, losses,
+                elo(), eloError());
+    }
+}
@@ -0,0 +1,98 @@
+package g63551.dev3.oxono.tools;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.BoardType;
+import g63551.dev3.oxono.model.Moves;
+import g63551.dev3.oxono.model.strategy.AlphaBetaStrategy;
+import g63551.dev3.oxono.model.strategy.OpeningBook;
+import g63551.dev3.oxono.model.strategy.RandomStrategy;
+import g63551.dev3.oxono.model.strategy.TranspositionTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds an opening book by self-play.
+ * Every game starts from the initial position; for each of its first turns, the alpha-beta
+ * strategy searches the position if it is not in the book yet and the best turn is recorded.
+ * The game then goes on with that turn, or with a random one from time to time so that the book
+ * also covers the positions reached by other openings.
+ *
+ * <p>Usage: {@code OpeningBookBuilder [size] [plies] [games] [depth] [millis] [file]}, by default
+ * {@code 6 6 200 4 2000 books/oxono-<size>.book}. The game reads its books from the {@code books}
+ * directory, or from the one given by the {@code oxono.books} system property.</p>
+ */
+public class OpeningBookBuilder {
+
+    private static final double DEVIATION_RATE = 0.3;
+
+    /**
+     * Builds the book and writes it.
+     *
+     * @param args the size of the board, the number of turns covered, the number of games, the
+     *             depth and the time budget of the searches, and the book file
+     * @throws IOException if the book directory cannot be created
+     */
+    public static void main(String[] args) throws IOException {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 6;
+        int plies = (args.length > 1) ? Integer.parseInt(args[1]) : 6;
+        int games = (args.length > 2) ? Integer.parseInt(args[2]) : 200;
+        int depth = (args.length > 3) ? Integer.parseInt(args[3]) : 4;
+        long millis = (args.length > 4) ? Long.parseLong(args[4]) : 2000;
+        Path file = (args.length > 5) ? Path.of(args[5]) : Path.of("books", "oxono-" + size + ".book");
+
+        Map<Long, Integer> book = build(size, plies, games, depth, millis, new Random(size));
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        OpeningBook.write(file, size, book);
+        System.out.printf("%d positions written to %s%n", book.size(), file);
+    }
+
+    /**
+     * Plays the self-play games and collects the best turn of every position met.
+     *
+     * @param size   the size of the board
+     * @param plies  the number of turns of each game covered by the book
+     * @param games  the number of games
+     * @param depth  the depth of the searches
+     * @param millis the time budget of each search
+     * @param random the source of the deviations
+     * @return the best turn of each position, keyed by its hash
+     */
+    static Map<Long, Integer> build(int size, int plies, int games, int depth, long millis, Random random) {
+        Map<Long, Integer> book = new HashMap<>();
+        AlphaBetaStrategy search = new AlphaBetaStrategy(depth, millis,
+                new TranspositionTable(AlphaBetaStrategy.DEFAULT_TABLE_MEGABYTES),
+                Runtime.getRuntime().availableProcessors());
+        RandomStrategy deviation = new RandomStrategy(random);
+
+        for (int game = 0; game < games; game++) {
+            Board board = BoardType.fastestFor(size).create(size);
+            for (int ply = 0; ply < plies; ply++) {
+                Integer best = book.get(board.getHash());
+                if (best == null) {
+                    best = search.chooseTurn(board.copy());
+                    if (best < 0) {
+                        break;
+                    }
+                    book.put(board.getHash(), best);
+                }
+                int turn = (random.nextDouble() < DEVIATION_RATE) ? deviation.chooseTurn(board) : best;
+                if (turn < 0) {
+                    break;
+                }
+                board.makeMove(turn);
+                if (board.isWinningCell(Moves.insertCell(turn))) {
+                    break;
+                }
+            }
+            System.out.printf("game %d: %d positions%n", game + 1, book.size());
+        }
+        return book;
+    }
+}
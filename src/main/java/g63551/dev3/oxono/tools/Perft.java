@@ -0,0 +1,197 @@
+package g63551.dev3.oxono.tools;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.BoardType;
+import g63551.dev3.oxono.model.Moves;
+import g63551.dev3.oxono.model.Symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the positions reached after a number of full turns (a totem move and an insertion), to
+ * measure the speed of the turn generation and to check it against the rules.
+ * A winning turn ends the game, so it counts as a position at its own depth but is not followed.
+ * The counts of the reference {@link Board} are the oracle for every other implementation, and
+ * {@link #countReference} recomputes them without the generator, by trying every totem move and
+ * insertion through the validation of {@link Board#makeMove}.
+ *
+ * <p>Usage: {@code Perft [size] [depth] [type] [threads] [mode]}, by default
+ * {@code 6 3 BITBOARD <number of cores> count}. The mode is {@code count} (one line per depth
+ * with the number of positions and the speed), {@code divide} (the positions below each turn of
+ * the first depth) or {@code check} (the count of the generator compared with the reference at
+ * each depth). With more than one thread, the count is split across a fork-join pool.</p>
+ */
+public class Perft {
+
+    private static final int SPLIT_DEPTH = 2;
+
+    /**
+     * Runs the count and prints its result.
+     *
+     * @param args the size of the board, the depth, the type of board, the number of threads and the mode
+     */
+    public static void main(String[] args) {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 6;
+        int depth = (args.length > 1) ? Integer.parseInt(args[1]) : 3;
+        BoardType type = (args.length > 2) ? BoardType.valueOf(args[2]) : BoardType.BITBOARD;
+        int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        String mode = (args.length > 4) ? args[4] : "count";
+        Board board = type.create(size);
+        ForkJoinPool pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+
+        System.out.printf("%s %dx%d, %d threads%n", type, size, size, threads);
+        switch (mode) {
+            case "divide" -> {
+                int[] turns = new int[board.maxTurns()];
+                int count = board.generateTurns(turns);
+                long total = 0;
+                for (int i = 0; i < count; i++) {
+                    board.makeMove(turns[i]);
+                    long nodes = board.isWinningCell(Moves.insertCell(turns[i])) ? ((depth == 1) ? 1 : 0)
+                            : count(board, depth - 1, pool);
+                    board.unmakeMove();
+                    total += nodes;
+                    System.out.printf("%-24s %d%n", describe(turns[i], size), nodes);
+                }
+                System.out.printf("%d turns, %d positions%n", count, total);
+            }
+            case "check" -> {
+                for (int d = 1; d <= depth; d++) {
+                    long generated = count(board, d, pool);
+                    long reference = countReference(board.copy(), d);
+                    System.out.printf("depth %d: %d generated, %d reference %s%n", d, generated, reference,
+                            (generated == reference) ? "OK" : "MISMATCH");
+                }
+            }
+            default -> {
+                System.out.printf("%6s %16s %12s %14s%n", "depth", "positions", "time (ms)", "positions/s");
+                for (int d = 1; d <= depth; d++) {
+                    long start = System.nanoTime();
+                    long nodes = count(board, d, pool);
+                    double millis = (System.nanoTime() - start) / 1e6;
+                    System.out.printf("%6d %16d %12.1f %14.0f%n", d, nodes, millis, nodes / millis * 1000);
+                }
+            }
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Counts the positions reached after the given number of turns with the generator of the board.
+     *
+     * @param board the start position, restored afterwards
+     * @param depth the number of turns, at least 1
+     * @param pool  the threads sharing the count, or null to count on the calling thread
+     * @return the number of positions
+     */
+    static long count(Board board, int depth, ForkJoinPool pool) {
+        if (pool == null || depth <= SPLIT_DEPTH) {
+            boolean trusted = board.isTrustedMode();
+            board.setTrustedMode(true);
+            long nodes = countSerial(board, depth, new int[depth][board.maxTurns()]);
+            board.setTrustedMode(trusted);
+            return nodes;
+        }
+        return pool.invoke(new CountTask(board.copy(), depth));
+    }
+
+    private static long countSerial(Board board, int depth, int[][] buffers) {
+        int[] turns = buffers[depth - 1];
+        int count = board.generateTurns(turns);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(turns[i]);
+            if (!board.isWinningCell(Moves.insertCell(turns[i]))) {
+                nodes += countSerial(board, depth - 1, buffers);
+            }
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the positions below one position, forking a task per turn until the remaining depth
+     * is small enough to be counted by one thread.
+     */
+    private static final class CountTask extends RecursiveTask<Long> {
+        private final Board board;
+        private final int depth;
+
+        CountTask(Board board, int depth) {
+            this.board = board;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SPLIT_DEPTH) {
+                return count(board, depth, null);
+            }
+            int[] turns = new int[board.maxTurns()];
+            int count = board.generateTurns(turns);
+            List<CountTask> tasks = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                board.makeMove(turns[i]);
+                if (!board.isWinningCell(Moves.insertCell(turns[i]))) {
+                    tasks.add(new CountTask(board.copy(), depth - 1));
+                }
+                board.unmakeMove();
+            }
+            long nodes = 0;
+            for (CountTask task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Counts the positions reached after the given number of turns without the generator: every
+     * symbol, totem cell and insertion cell is tried with {@link Board#makeMove} out of trusted
+     * mode, which keeps the turns accepted by {@link Board#isValidMove} and
+     * {@link Board#isValidInsert}. It is much slower and only meant to check small depths.
+     *
+     * @param board the start position, restored afterwards, not in trusted mode
+     * @param depth the number of turns, at least 1
+     * @return the number of positions
+     */
+    static long countReference(Board board, int depth) {
+        int cells = board.getSize() * board.getSize();
+        long nodes = 0;
+        for (Symbol symbol : Symbol.values()) {
+            for (int target = 0; target < cells; target++) {
+                for (int insert = 0; insert < cells; insert++) {
+                    int turn = Moves.turn(Moves.encode(target, symbol), insert);
+                    try {
+                        board.makeMove(turn);
+                    } catch (IllegalArgumentException e) {
+                        continue;
+                    }
+                    if (depth == 1) {
+                        nodes++;
+                    } else if (!board.isWinningCell(insert)) {
+                        nodes += countReference(board, depth - 1);
+                    }
+                    board.unmakeMove();
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static String describe(int turn, int size) {
+        int totemMove = Moves.totemMove(turn);
+        int target = Moves.cell(totemMove);
+        int insert = Moves.insertCell(turn);
+        return String.format("%s (%d,%d) -> (%d,%d)", Moves.symbol(totemMove), target / size, target % size,
+                insert / size, insert % size);
+    }
+}
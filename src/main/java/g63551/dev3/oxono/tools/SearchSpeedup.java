@@ -0,0 +1,86 @@
+package g63551.dev3.oxono.tools;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.BoardType;
+import g63551.dev3.oxono.model.Game;
+import g63551.dev3.oxono.model.strategy.AlphaBetaStrategy;
+import g63551.dev3.oxono.model.strategy.RandomStrategy;
+import g63551.dev3.oxono.model.strategy.TranspositionTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the speedup of the parallel alpha-beta search over the single-threaded one.
+ * A set of positions is reached by seeded random play, then each position is searched to a fixed
+ * depth with 1, 2, 4... threads, each run starting from an empty transposition table.
+ *
+ * <p>Usage: {@code SearchSpeedup [size] [depth] [positions] [maxThreads]}, by default
+ * {@code 6 3 8 <number of cores>}.</p>
+ */
+public class SearchSpeedup {
+
+    private static final long NO_TIME_LIMIT = 3_600_000;
+    private static final int TABLE_MEGABYTES = 64;
+
+    /**
+     * Runs the measure and prints one line per number of threads.
+     *
+     * @param args the size of the board, the depth, the number of positions and the maximum
+     *             number of threads
+     */
+    public static void main(String[] args) {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 6;
+        int depth = (args.length > 1) ? Integer.parseInt(args[1]) : 3;
+        int nbPositions = (args.length > 2) ? Integer.parseInt(args[2]) : 8;
+        int maxThreads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        List<Board> positions = createPositions(size, nbPositions, new Random(size * 31L + depth));
+        for (Board position : positions) { // Warm-up, so that the first row is not penalised by the JIT
+            new AlphaBetaStrategy(depth, NO_TIME_LIMIT, new TranspositionTable(TABLE_MEGABYTES), 1).chooseTurn(position.copy());
+        }
+        System.out.printf("Board %dx%d, depth %d, %d positions%n", size, size, depth, positions.size());
+        System.out.printf("%8s %12s %14s %14s %9s%n", "threads", "time (ms)", "nodes", "nodes/s", "speedup");
+
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads = (threads == maxThreads) ? threads + 1 : Math.min(threads * 2, maxThreads)) {
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (Board position : positions) {
+                AlphaBetaStrategy strategy = new AlphaBetaStrategy(depth, NO_TIME_LIMIT, new TranspositionTable(TABLE_MEGABYTES), threads);
+                strategy.chooseTurn(position.copy());
+                nodes += strategy.getLastNodes();
+            }
+            double millis = (System.nanoTime() - start) / 1e6;
+            if (threads == 1) {
+                baseline = millis;
+            }
+            System.out.printf("%8d %12.1f %14d %14.0f %9.2f%n", threads, millis, nodes, nodes / millis * 1000, baseline / millis);
+        }
+    }
+
+    /**
+     * Plays random openings of a few turns and keeps the positions where the game goes on.
+     *
+     * @param size        the size of the board
+     * @param nbPositions the number of positions to create
+     * @param random      the source of the random openings
+     * @return the positions, pink to move
+     */
+    private static List<Board> createPositions(int size, int nbPositions, Random random) {
+        List<Board> positions = new ArrayList<>();
+        RandomStrategy strategy = new RandomStrategy(random);
+        while (positions.size() < nbPositions) {
+            Game game = new Game(size, 1);
+            int turns = 2 + 2 * random.nextInt(3);
+            for (int i = 0; i < turns && !game.isEnd(); i++) {
+                strategy.play(game);
+            }
+            if (!game.isEnd() && !game.isDraw()) {
+                positions.add(game.snapshot(BoardType.fastestFor(size)));
+            }
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,85 @@
+package g63551.dev3.oxono.tools;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.BoardType;
+import g63551.dev3.oxono.model.solver.CanonicalKey;
+import g63551.dev3.oxono.model.solver.SolutionTable;
+import g63551.dev3.oxono.model.solver.Solver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves the 4x4 board from the initial position and writes the solution read by the game.
+ * The table of the solved positions is saved to a checkpoint file at regular intervals; a solve
+ * started while a checkpoint exists loads it first, so an interrupted solve resumes where it
+ * stopped instead of starting over.
+ *
+ * <p>Usage: {@code SmallBoardSolver [threads] [log2Capacity] [seconds] [file]}, by default every
+ * core, 2^25 entries (256 MB), a checkpoint every 60 seconds and {@code books/oxono-4.solution}.
+ * The checkpoint is the result file followed by {@code .part}.</p>
+ */
+public class SmallBoardSolver {
+
+    /**
+     * Solves the board and writes the solution.
+     *
+     * @param args the number of threads, the base 2 logarithm of the capacity of the table, the
+     *             interval between checkpoints in seconds, and the result file
+     * @throws IOException if the checkpoint cannot be read or the directory cannot be created
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int log2Capacity = (args.length > 1) ? Integer.parseInt(args[1]) : 25;
+        long seconds = (args.length > 2) ? Long.parseLong(args[2]) : 60;
+        Path file = (args.length > 3) ? Path.of(args[3])
+                : Path.of("books", "oxono-" + CanonicalKey.SIZE + ".solution");
+        Path checkpoint = file.resolveSibling(file.getFileName() + ".part");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        SolutionTable table = new SolutionTable(log2Capacity);
+        if (Files.isRegularFile(checkpoint)) {
+            table.load(checkpoint);
+            System.out.printf("Resuming from %s: %d positions%n", checkpoint, table.size());
+        }
+        ScheduledExecutorService saver = Executors.newSingleThreadScheduledExecutor();
+        saver.scheduleWithFixedDelay(() -> {
+            table.save(checkpoint);
+            System.out.printf("Checkpoint: %d positions%n", table.size());
+        }, seconds, seconds, TimeUnit.SECONDS);
+
+        Board board = BoardType.fastestFor(CanonicalKey.SIZE).create(CanonicalKey.SIZE);
+        Solver solver = new Solver(table, null);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        int value = solver.solve(board, pool);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        pool.shutdown();
+        saver.shutdown();
+        try {
+            saver.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        table.save(file);
+        Files.deleteIfExists(checkpoint);
+        System.out.printf("Value %d (%s) in %d ms, %d nodes, %d positions written to %s%n", value,
+                describe(value), millis, solver.getNodes(), table.size(), file);
+    }
+
+    private static String describe(int value) {
+        if (value == 0) {
+            return "draw";
+        }
+        int plies = Solver.WIN - Math.abs(value);
+        return ((value > 0) ? "first player wins in " : "first player loses in ") + plies + " plies";
+    }
+}
@@ -22,6 +22,7 @@ public class BoardView extends GridPane {
 
     private Game game;
     private Controller controller;
+    private StackPane[] cells; // Cells of the grid, by index (row * size + column)
 
     /**
      * Constructs a BoardView object and initializes the grid for the board.
@@ -43,15 +44,31 @@ public class BoardView extends GridPane {
      * @param size The size of the grid (i.e., the number of rows/columns).
      */
     public void initialisationGrid(int size) {
+        this.getChildren().clear();
+        this.cells = new StackPane[size * size];
         for (int row = 0; row < size; row++) {
             for (int col = 0; col < size; col++) {
-                Position pos = new Position(row, col);
+                Position pos = Position.of(row, col);
                 StackPane cell = createCell(game, pos);
+                cells[row * size + col] = cell;
                 this.add(cell, col, row);
             }
         }
     }
 
+    /**
+     * Redraws the pieces of the given cells only, keeping the other cells and the highlights
+     * as they are.
+     *
+     * @param changed The indexes (row * size + column) of the cells to redraw.
+     */
+    public void updateCells(int[] changed) {
+        int size = game.getSize();
+        for (int cell : changed) {
+            cells[cell].getChildren().set(1, getImageForPosition(game, Position.ofCell(cell, size)));
+        }
+    }
+
     /**
      * Creates a StackPane for a specific position on the board, including a background
      * and an image representing a piece (if any).
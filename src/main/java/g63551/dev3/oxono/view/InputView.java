@@ -41,7 +41,7 @@ public class InputView extends VBox {
         dropdownMenuSize.setValue(6);
 
         levelMenu = new ComboBox<>();
-        levelMenu.getItems().addAll(1);
+        levelMenu.getItems().addAll(1, 2, 3, 4);
         levelMenu.setValue(1);
 
         setupLayout();
@@ -3,6 +3,7 @@ package g63551.dev3.oxono.view;
 import g63551.dev3.oxono.controller.Controller;
 import g63551.dev3.oxono.model.Game;
 import g63551.dev3.oxono.model.Position;
+import g63551.dev3.oxono.model.observer.BoardChange;
 import g63551.dev3.oxono.model.observer.Observer;
 import javafx.geometry.Pos;
 import javafx.scene.layout.*;
@@ -93,6 +94,26 @@ public class MainView implements Observer {
     @Override
     public void update() {
         boardView.initialisationGrid(game.getSize());
+        updatePanels();
+    }
+
+    /**
+     * Updates the view after a change of the game, redrawing only the cells of the board that
+     * changed, then the information panel and the buttons.
+     *
+     * @param change The cells of the board that changed since the previous update.
+     */
+    @Override
+    public void update(BoardChange change) {
+        boardView.updateCells(change.getCells());
+        updatePanels();
+    }
+
+    /**
+     * Updates the information panel and the buttons, and displays the winner or draw if the game
+     * has ended.
+     */
+    private void updatePanels() {
         infoView.update();
         buttonView.update();
         if (game.isEnd()) {
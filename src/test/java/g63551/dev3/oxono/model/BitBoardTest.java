@@ -0,0 +1,78 @@
+package g63551.dev3.oxono.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitBoardTest extends BoardTest {
+
+    @Override
+    Board createBoard(int size) {
+        return new BitBoard(size);
+    }
+
+    @Test
+    void testSizeTooLarge() {
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(9));
+    }
+
+    @Test
+    void testSameAnswersAsReferenceBoard() {
+        Random random = new Random(42);
+        for (int size : new int[]{4, 6, 8}) {
+            for (int game = 0; game < 20; game++) {
+                Board reference = new Board(size);
+                Board bitBoard = new BitBoard(size);
+                Color color = Color.PINK;
+
+                while (true) {
+                    assertSameAnswers(reference, bitBoard);
+
+                    Symbol symbol = random.nextBoolean() ? Symbol.CROSS : Symbol.CIRCLE;
+                    List<Position> moves = reference.getPossibleTotemMoves(symbol);
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+                    Position move = moves.get(random.nextInt(moves.size()));
+                    reference.move(reference.getTotem(symbol), move);
+                    bitBoard.move(bitBoard.getTotem(symbol), move);
+
+                    List<Position> inserts = reference.getEmptyPositions(symbol, color);
+                    if (inserts.isEmpty()) {
+                        break;
+                    }
+                    Position insert = inserts.get(random.nextInt(inserts.size()));
+                    reference.insert(new Token(symbol, color), insert);
+                    bitBoard.insert(new Token(symbol, color), insert);
+                    color = (color == Color.PINK) ? Color.BLACK : Color.PINK;
+                }
+            }
+        }
+    }
+
+    private void assertSameAnswers(Board reference, Board bitBoard) {
+        int size = reference.getSize();
+        assertEquals(reference.countEmpty(), bitBoard.countEmpty());
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                Position pos = new Position(x, y);
+                assertEquals(reference.isEmpty(pos), bitBoard.isEmpty(pos));
+                for (Symbol symbol : Symbol.values()) {
+                    Token token = new Token(symbol, Color.PINK);
+                    assertEquals(reference.isValidMove(reference.getTotem(symbol), pos),
+                            bitBoard.isValidMove(bitBoard.getTotem(symbol), pos));
+                    assertEquals(reference.isValidInsert(token, pos), bitBoard.isValidInsert(token, pos));
+                }
+                if (x + 3 < size) {
+                    assertEquals(reference.checkAlignment(x, y, 1, 0), bitBoard.checkAlignment(x, y, 1, 0));
+                }
+                if (y + 3 < size) {
+                    assertEquals(reference.checkAlignment(x, y, 0, 1), bitBoard.checkAlignment(x, y, 0, 1));
+                }
+            }
+        }
+    }
+}
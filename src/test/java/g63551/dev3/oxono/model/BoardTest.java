@@ -3,7 +3,9 @@ package g63551.dev3.oxono.model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -12,7 +14,11 @@ class BoardTest {
 
     @BeforeEach
     void setUp() {
-        board = new Board(6);
+        board = createBoard(6);
+    }
+
+    Board createBoard(int size) {
+        return new Board(size);
     }
 
     @Test
@@ -175,6 +181,112 @@ class BoardTest {
         }
     }
 
+    @Test
+    void testGenerateMoves() {
+        board.insert(new Token(Symbol.CIRCLE, Color.PINK), new Position(2, 1));
+        int[] moves = new int[board.getSize() * board.getSize()];
+
+        int count = board.generateTotemMoves(Symbol.CIRCLE, moves);
+        List<Position> totemMoves = scanTotemMoves(board, Symbol.CIRCLE);
+        assertEquals(totemMoves.size(), count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(Symbol.CIRCLE, Moves.symbol(moves[i]));
+            int cell = Moves.cell(moves[i]);
+            assertTrue(totemMoves.contains(new Position(cell / 6, cell % 6)));
+        }
+
+        count = board.generateInserts(Symbol.CROSS, moves);
+        List<Position> inserts = scanInserts(board, Symbol.CROSS);
+        assertEquals(inserts.size(), count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(Symbol.CROSS, Moves.symbol(moves[i]));
+            int cell = Moves.cell(moves[i]);
+            assertTrue(inserts.contains(new Position(cell / 6, cell % 6)));
+        }
+    }
+
+    @Test
+    void testGenerateInsertsAfterMatchesTurns() {
+        board.insert(new Token(Symbol.CIRCLE, Color.PINK), new Position(2, 1));
+        long hash = board.getHash();
+        Position circle = board.getPosO();
+        int[] turns = new int[board.maxTurns()];
+        int nbTurns = board.generateTurns(turns);
+        int[] totemMoves = new int[36];
+        int[] inserts = new int[36];
+
+        int index = 0;
+        for (Symbol symbol : Symbol.values()) {
+            int nbMoves = board.generateTotemMoves(symbol, totemMoves);
+            for (int i = 0; i < nbMoves; i++) {
+                int count = board.generateInsertsAfter(totemMoves[i], inserts);
+                for (int j = 0; j < count; j++) {
+                    assertEquals(turns[index++], Moves.turn(totemMoves[i], Moves.cell(inserts[j])));
+                }
+            }
+        }
+        assertEquals(nbTurns, index);
+        assertEquals(hash, board.getHash());
+        assertEquals(circle, board.getPosO());
+    }
+
+    @Test
+    void testGeneratorsMatchValidityChecks() {
+        Random random = new Random(7);
+        for (int size : new int[]{4, 6, 8}) {
+            for (int game = 0; game < 20; game++) {
+                Board b = createBoard(size);
+                int[] moves = new int[size * size];
+                Color color = Color.PINK;
+                while (true) {
+                    for (Symbol symbol : Symbol.values()) {
+                        assertEquals(scanTotemMoves(b, symbol), b.getPossibleTotemMoves(symbol));
+                        assertEquals(scanInserts(b, symbol), b.getEmptyPositions(symbol, color));
+                    }
+                    Symbol symbol = random.nextBoolean() ? Symbol.CROSS : Symbol.CIRCLE;
+                    int count = b.generateTotemMoves(symbol, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    int cell = Moves.cell(moves[random.nextInt(count)]);
+                    b.move(b.getTotem(symbol), new Position(cell / size, cell % size));
+
+                    count = b.generateInserts(symbol, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    cell = Moves.cell(moves[random.nextInt(count)]);
+                    b.insert(new Token(symbol, color), new Position(cell / size, cell % size));
+                    color = (color == Color.PINK) ? Color.BLACK : Color.PINK;
+                }
+            }
+        }
+    }
+
+    private List<Position> scanTotemMoves(Board b, Symbol symbol) {
+        List<Position> moves = new ArrayList<>();
+        for (int row = 0; row < b.getSize(); row++) {
+            for (int col = 0; col < b.getSize(); col++) {
+                if (b.isValidMove(b.getTotem(symbol), new Position(row, col))) {
+                    moves.add(new Position(row, col));
+                }
+            }
+        }
+        return moves;
+    }
+
+    private List<Position> scanInserts(Board b, Symbol symbol) {
+        List<Position> inserts = new ArrayList<>();
+        for (int row = 0; row < b.getSize(); row++) {
+            for (int col = 0; col < b.getSize(); col++) {
+                if (b.isValidInsert(new Token(symbol, Color.PINK), new Position(row, col))) {
+                    inserts.add(new Position(row, col));
+                }
+            }
+        }
+        return inserts;
+    }
+
     @Test
     void testCheckAlignment() {
         Token token = new Token(Symbol.CIRCLE, Color.PINK);
@@ -192,6 +304,103 @@ class BoardTest {
     }
 
 
+    @Test
+    void testIsWinningCell() {
+        Token token = new Token(Symbol.CIRCLE, Color.PINK);
+        Totem totemO = board.getTotem(Symbol.CIRCLE);
+        board.insert(token, new Position(1, 2));
+        board.move(totemO, new Position(2, 3));
+        board.insert(new Token(Symbol.CIRCLE, Color.BLACK), new Position(1, 3));
+        board.move(totemO, new Position(2, 4));
+        board.insert(token, new Position(1, 4));
+        board.move(totemO, new Position(2, 5));
+        assertFalse(board.isWinningCell(1, 4));
+
+        board.insert(token, new Position(1, 5));
+        assertTrue(board.isWinningCell(1, 5));
+        assertTrue(board.isWinningCell(1, 2));
+        assertFalse(board.isWinningCell(0, 0));
+        assertFalse(board.isWinningCell(2, 5));
+
+        board.removeToken(new Position(1, 5));
+        assertFalse(board.isWinningCell(1, 2));
+    }
+
+    @Test
+    void testIsWinningCellMatchesCheckAlignment() {
+        Random random = new Random(11);
+        for (int game = 0; game < 200; game++) {
+            Board b = createBoard(6);
+            int[] moves = new int[36];
+            for (int turn = 0; turn < 30; turn++) {
+                Symbol symbol = random.nextBoolean() ? Symbol.CROSS : Symbol.CIRCLE;
+                int count = b.generateTotemMoves(symbol, moves);
+                if (count == 0) {
+                    break;
+                }
+                int cell = Moves.cell(moves[random.nextInt(count)]);
+                b.move(b.getTotem(symbol), new Position(cell / 6, cell % 6));
+                count = b.generateInserts(symbol, moves);
+                cell = Moves.cell(moves[random.nextInt(count)]);
+                Position pos = new Position(cell / 6, cell % 6);
+                Color color = random.nextBoolean() ? Color.PINK : Color.BLACK;
+                boolean completes = b.completesAlignment(Token.of(symbol, color), cell);
+                b.insert(new Token(symbol, color), pos);
+                assertEquals(b.isWinningCell(cell), completes);
+                if (random.nextInt(4) == 0) {
+                    b.removeToken(pos);
+                }
+                for (int x = 0; x < 6; x++) {
+                    for (int y = 0; y < 6; y++) {
+                        assertEquals(scanAlignment(b, x, y), b.isWinningCell(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean scanAlignment(Board b, int row, int col) {
+        int size = b.getSize();
+        boolean aligned = false;
+        for (int j = Math.max(0, col - 3); j <= Math.min(size - 4, col); j++) {
+            aligned |= b.checkAlignment(row, j, 0, 1);
+        }
+        for (int i = Math.max(0, row - 3); i <= Math.min(size - 4, row); i++) {
+            aligned |= b.checkAlignment(i, col, 1, 0);
+        }
+        return aligned;
+    }
+
+    @Test
+    void testHashIsIncremental() {
+        Totem totemO = board.getTotem(Symbol.CIRCLE);
+        Token token = new Token(Symbol.CIRCLE, Color.PINK);
+        long initial = board.getHash();
+        assertEquals(board.computeHash(), initial);
+
+        board.move(totemO, new Position(1, 2));
+        board.setPhase(GameState.INSERT);
+        board.setPendingSymbol(Symbol.CIRCLE);
+        long afterMove = board.getHash();
+        assertNotEquals(initial, afterMove);
+        assertEquals(board.computeHash(), afterMove);
+
+        board.insert(token, new Position(0, 2));
+        board.setPhase(GameState.MOVE);
+        board.setSideToMove(Color.BLACK);
+        assertEquals(board.computeHash(), board.getHash());
+
+        board.setSideToMove(Color.PINK);
+        board.setPhase(GameState.INSERT);
+        board.removeToken(new Position(0, 2));
+        assertEquals(afterMove, board.getHash());
+
+        board.backMove(totemO, new Position(2, 2));
+        board.setPhase(GameState.MOVE);
+        assertEquals(initial, board.getHash());
+        assertEquals(initial, createBoard(6).getHash());
+    }
+
     @Test
     void testRemoveToken() {
         Token token = new Token(Symbol.CIRCLE, Color.PINK);
@@ -214,6 +423,154 @@ class BoardTest {
         assertEquals(initialEmptyCount - 1, board.countEmpty());
     }
 
+    @Test
+    void testCellIndexOverloads() {
+        int cell = board.cellOf(2, 1);
+        assertEquals(13, cell);
+        assertTrue(board.isEmpty(cell));
+        assertTrue(board.isValidInsert(Symbol.CIRCLE, cell));
+        assertFalse(board.isValidInsert(Symbol.CIRCLE, 36));
+
+        board.insert(Token.of(Symbol.CIRCLE, Color.PINK), cell);
+        assertFalse(board.isEmpty(cell));
+        assertEquals(new Token(Symbol.CIRCLE, Color.PINK), board.getPieceAtCell(cell));
+
+        assertTrue(board.isValidMove(Symbol.CIRCLE, board.cellOf(1, 2)));
+        board.move(board.getTotem(Symbol.CIRCLE), board.cellOf(1, 2));
+        assertSame(Position.of(1, 2), board.getPosO());
+
+        board.removeToken(cell);
+        assertNull(board.getPieceAtCell(cell));
+    }
+
+    @Test
+    void testMakeUnmakeMoveRestoresState() {
+        Random random = new Random(3);
+        int[] turns = new int[board.maxTurns()];
+        long[] hashes = new long[40];
+        Symbol[] lastMoved = new Symbol[40];
+        int played = 0;
+        while (played < 30) {
+            hashes[played] = board.getHash();
+            lastMoved[played] = board.getLastMoved();
+            int count = board.generateTurns(turns);
+            if (count == 0) {
+                break;
+            }
+            int turn = turns[random.nextInt(count)];
+            Color color = board.getSideToMove();
+            Symbol symbol = Moves.symbol(Moves.totemMove(turn));
+            int left = board.getTokensLeft(color, symbol);
+
+            board.makeMove(turn);
+            played++;
+            assertEquals(left - 1, board.getTokensLeft(color, symbol));
+            assertEquals(symbol, board.getLastMoved());
+            assertNotEquals(color, board.getSideToMove());
+            assertEquals(Token.of(symbol, color), board.getPieceAtCell(Moves.insertCell(turn)));
+            assertEquals(board.getTotem(symbol), board.getPieceAtCell(Moves.cell(Moves.totemMove(turn))));
+            assertEquals(board.computeHash(), board.getHash());
+        }
+
+        assertEquals(played, board.getMoveCount());
+        while (played > 0) {
+            board.unmakeMove();
+            played--;
+            assertEquals(hashes[played], board.getHash());
+            assertEquals(lastMoved[played], board.getLastMoved());
+        }
+        assertEquals(34, board.countEmpty());
+        assertEquals(8, board.getTokensLeft(Color.PINK, Symbol.CROSS));
+        assertEquals(Color.PINK, board.getSideToMove());
+        assertThrows(IllegalStateException.class, () -> board.unmakeMove());
+    }
+
+    @Test
+    void testMakeMoveValidation() {
+        int invalidTotem = Moves.turn(Moves.encode(board.cellOf(5, 5), Symbol.CIRCLE), board.cellOf(5, 4));
+        assertThrows(IllegalArgumentException.class, () -> board.makeMove(invalidTotem));
+
+        int invalidInsert = Moves.turn(Moves.encode(board.cellOf(2, 0), Symbol.CIRCLE), board.cellOf(5, 5));
+        assertThrows(IllegalArgumentException.class, () -> board.makeMove(invalidInsert));
+        assertEquals(Position.of(2, 2), board.getPosO());
+        assertEquals(0, board.getMoveCount());
+
+        board.setTrustedMode(true);
+        board.makeMove(invalidInsert);
+        assertEquals(Position.of(2, 0), board.getPosO());
+        assertNotNull(board.getPieceAtPos(5, 5));
+        board.unmakeMove();
+        assertNull(board.getPieceAtPos(5, 5));
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        Token token = new Token(Symbol.CIRCLE, Color.PINK);
+        board.insert(token, new Position(2, 1));
+        Board copy = board.copy();
+        assertEquals(board.getClass(), copy.getClass());
+        assertEquals(board.getHash(), copy.getHash());
+
+        copy.move(copy.getTotem(Symbol.CIRCLE), new Position(1, 2));
+        copy.insert(token, new Position(0, 2));
+        assertEquals(Position.of(2, 2), board.getPosO());
+        assertTrue(board.isEmpty(new Position(1, 2)));
+        assertTrue(board.isEmpty(new Position(0, 2)));
+        assertFalse(copy.isEmpty(new Position(0, 2)));
+
+        board.removeToken(new Position(2, 1));
+        assertEquals(token, copy.getPieceAtPos(2, 1));
+        assertEquals(copy.computeHash(), copy.getHash());
+        assertEquals(board.computeHash(), board.getHash());
+        assertEquals(board.countEmpty() - 2, copy.countEmpty());
+    }
+
+    @Test
+    void testCopiesTakenByOtherThreadsAreIndependent() throws InterruptedException {
+        Token token = new Token(Symbol.CIRCLE, Color.PINK);
+        board.insert(token, new Position(2, 1));
+        Board[] copies = new Board[4];
+        Thread[] threads = new Thread[copies.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> copies[index] = board.copy());
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        board.removeToken(new Position(2, 1));
+        for (Board copy : copies) {
+            assertEquals(token, copy.getPieceAtPos(2, 1));
+            assertEquals(copy.computeHash(), copy.getHash());
+        }
+    }
+
+    @Test
+    void testRestoreComesBackToTheSnapshot() {
+        Token token = new Token(Symbol.CIRCLE, Color.PINK);
+        board.insert(token, new Position(2, 1));
+        Board snapshot = board.copy();
+        List<Position> moves = board.getPossibleTotemMoves(Symbol.CIRCLE);
+
+        board.move(board.getTotem(Symbol.CIRCLE), new Position(1, 2));
+        board.insert(token, new Position(1, 1));
+        board.removeToken(new Position(2, 1));
+        board.restore(snapshot);
+        assertEquals(snapshot.getHash(), board.getHash());
+        assertEquals(board.computeHash(), board.getHash());
+        assertEquals(Position.of(2, 2), board.getPosO());
+        assertEquals(token, board.getPieceAtPos(2, 1));
+        assertTrue(board.isEmpty(new Position(1, 1)));
+        assertEquals(moves, board.getPossibleTotemMoves(Symbol.CIRCLE));
+        assertEquals(snapshot.countEmpty(), board.countEmpty());
+
+        board.insert(token, new Position(1, 2));
+        assertTrue(snapshot.isEmpty(new Position(1, 2)));
+        assertThrows(IllegalArgumentException.class, () -> board.restore(createBoard(4)));
+    }
+
     @Test
     void testSetPosTotem() {
         Totem totemO = board.getTotem(Symbol.CIRCLE);
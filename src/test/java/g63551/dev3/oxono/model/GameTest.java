@@ -1,9 +1,19 @@
 package g63551.dev3.oxono.model;
 
+import g63551.dev3.oxono.model.observer.BoardChange;
+import g63551.dev3.oxono.model.observer.Observer;
+import g63551.dev3.oxono.model.strategy.CancellationToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -271,6 +281,49 @@ class GameTest {
         game.move(0,2,Symbol.CIRCLE);
     }
 
+    @Test
+    void testHashFollowsUndoRedo() {
+        long initial = game.getHash();
+        game.move(2, 0, Symbol.CIRCLE);
+        long afterMove = game.getHash();
+        game.insert(2, 1);
+        long afterInsert = game.getHash();
+        assertNotEquals(initial, afterMove);
+        assertNotEquals(afterMove, afterInsert);
+
+        game.undo();
+        assertEquals(afterMove, game.getHash());
+        game.undo();
+        assertEquals(initial, game.getHash());
+        game.redo();
+        assertEquals(afterMove, game.getHash());
+    }
+
+    @Test
+    void testForkIsIndependent() {
+        game.move(2, 0, Symbol.CIRCLE);
+        game.insert(2, 1);
+        Game fork = game.fork();
+        assertEquals(game.getHash(), fork.getHash());
+        assertEquals(Color.BLACK, fork.getCurrentColor());
+        assertEquals(GameState.MOVE, fork.getGameState());
+        assertFalse(fork.canUndo());
+
+        fork.move(1, 0, Symbol.CIRCLE);
+        fork.insert(1, 1);
+        assertNull(game.getPieceAtPos(1, 1));
+        assertNull(game.getPieceAtPos(1, 0));
+        assertEquals(7, fork.getNbTokens(Color.BLACK, Symbol.CIRCLE));
+        assertEquals(8, game.getNbTokens(Color.BLACK, Symbol.CIRCLE));
+
+        game.move(3, 0, Symbol.CROSS);
+        game.insert(3, 1);
+        assertNull(fork.getPieceAtPos(3, 1));
+        assertEquals(Symbol.CIRCLE, fork.getPieceAtPos(1, 1).getSymbol());
+        assertEquals(Symbol.CIRCLE, fork.getPieceAtPos(2, 1).getSymbol());
+        assertEquals(-1, fork.chooseAutoTurn(fork.snapshot(BoardType.ARRAY), CancellationToken.NONE));
+    }
+
     @Test
     void testGetEmptyPositionsToInsert(){
         game.move(2,0,Symbol.CIRCLE);
@@ -278,4 +331,181 @@ class GameTest {
         assertEquals(liste,game.getEmptyPositions(Symbol.CIRCLE,Color.PINK));
     }
 
+    /**
+     * Plays random plies on the game and returns its hash, player and phase before each of them.
+     */
+    private List<String> playRandomPlies(int plies, Random random) {
+        List<String> states = new ArrayList<>();
+        for (int i = 0; i < plies && !game.isEnd(); i++) {
+            states.add(describe());
+            if (game.getGameState() == GameState.MOVE) {
+                Symbol symbol = (random.nextBoolean()) ? Symbol.CROSS : Symbol.CIRCLE;
+                List<Position> moves = game.getPossibleTotemMoves(symbol);
+                Position pos = moves.get(random.nextInt(moves.size()));
+                game.move(pos.getX(), pos.getY(), symbol);
+            } else {
+                List<Position> cells = game.getEmptyPositions(game.getToInsert(), game.getCurrentColor());
+                Position pos = cells.get(random.nextInt(cells.size()));
+                game.insert(pos.getX(), pos.getY());
+            }
+        }
+        return states;
+    }
+
+    private String describe() {
+        return game.getHash() + " " + game.getCurrentColor() + " " + game.getGameState() + " "
+                + game.getNbTokens(Color.PINK, Symbol.CROSS) + " " + game.getNbTokens(Color.BLACK, Symbol.CIRCLE);
+    }
+
+    @Test
+    void testSeekRestoresEveryPly() {
+        List<String> states = playRandomPlies(50, new Random(3));
+        int[] notifications = new int[1];
+        game.registerObserver(() -> notifications[0]++);
+        Random random = new Random(4);
+
+        for (int i = 0; i < 40; i++) {
+            int ply = random.nextInt(states.size());
+            game.seek(ply);
+            assertEquals(ply, game.getPly());
+            assertEquals(states.get(ply), describe());
+        }
+        assertEquals(40, notifications[0]);
+    }
+
+    @Test
+    void testSeekMatchesUndo() {
+        List<String> states = playRandomPlies(40, new Random(5));
+        int length = game.getHistoryLength();
+        game.seek(0);
+        assertEquals(states.get(0), describe());
+        assertFalse(game.canUndo());
+        game.seek(length);
+        assertEquals(length, game.getPly());
+        game.seek(states.size() - 1);
+        while (game.getPly() > 3) {
+            game.undo();
+            assertEquals(states.get(game.getPly()), describe());
+        }
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> game.seek(length + 1));
+        assertEquals("This ply is not in the history!", exception.getMessage());
+    }
+
+    @Test
+    void testPlayingAfterSeekForgetsTheRedoneHistory() {
+        playRandomPlies(40, new Random(6));
+        game.seek(20);
+        playRandomPlies(2, new Random(7));
+        assertEquals(22, game.getHistoryLength());
+        String state = describe();
+        game.seek(0);
+        game.seek(22);
+        assertEquals(state, describe());
+    }
+
+    /**
+     * Observer recording the changes it receives.
+     */
+    private static class ChangeRecorder implements Observer {
+        private final List<BoardChange> changes = new ArrayList<>();
+
+        @Override
+        public void update() {
+            fail("The change should be given to the observer!");
+        }
+
+        @Override
+        public void update(BoardChange change) {
+            changes.add(change);
+        }
+    }
+
+    private int cell(int row, int col) {
+        return row * game.getSize() + col;
+    }
+
+    @Test
+    void testUndoOfAFullRoundNotifiesOnce() {
+        game.move(2, 0, Symbol.CIRCLE);
+        game.insert(2, 1);
+        game.move(3, 5, Symbol.CROSS);
+        game.insert(3, 4);
+        game.move(1, 0, Symbol.CIRCLE);
+        ChangeRecorder recorder = new ChangeRecorder();
+        game.registerObserver(recorder);
+
+        game.undo();
+        assertEquals(1, recorder.changes.size());
+        BoardChange change = recorder.changes.get(0);
+        assertArrayEquals(new int[]{cell(1, 0), cell(2, 0)}, change.getCells());
+
+        game.undo();
+        assertEquals(2, recorder.changes.size());
+        change = recorder.changes.get(1);
+        assertArrayEquals(new int[]{cell(2, 1), cell(3, 3), cell(3, 4), cell(3, 5)},
+                change.getCells());
+        assertEquals(Color.PINK, game.getCurrentColor());
+        assertEquals(GameState.INSERT, game.getGameState());
+    }
+
+    @Test
+    void testTransactionMergesTheNotifications() {
+        ChangeRecorder recorder = new ChangeRecorder();
+        game.registerObserver(recorder);
+        game.transaction(() -> {
+            game.move(2, 0, Symbol.CIRCLE);
+            game.transaction(() -> game.insert(2, 1));
+            assertTrue(recorder.changes.isEmpty());
+        });
+        assertEquals(1, recorder.changes.size());
+        assertArrayEquals(new int[]{cell(2, 0), cell(2, 1), cell(2, 2)}, recorder.changes.get(0).getCells());
+
+        game.applyTurn(Moves.turn(Moves.encode(cell(3, 5), Symbol.CROSS), cell(3, 4)));
+        assertEquals(2, recorder.changes.size());
+        assertTrue(recorder.changes.get(1).contains(cell(3, 4)));
+        assertEquals(3, recorder.changes.get(1).size());
+    }
+
+    @Test
+    void testRecoverReplaysTheJournal(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("game.journal");
+        game.journalTo(file);
+        playRandomPlies(30, new Random(8));
+        game.undo();
+        game.undo();
+        game.redo();
+        game.seek(7);
+        playRandomPlies(5, new Random(9));
+        String state = describe();
+        int ply = game.getPly();
+        game.closeJournal();
+
+        game = Game.recover(file);
+        assertEquals(state, describe());
+        assertEquals(ply, game.getPly());
+        assertEquals(ply, game.getHistoryLength());
+        game.closeJournal();
+    }
+
+    @Test
+    void testRecoverCutsATornRecord(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("game.journal");
+        game.journalTo(file);
+        game.move(2, 0, Symbol.CIRCLE);
+        game.insert(2, 1);
+        String state = describe();
+        game.move(3, 5, Symbol.CROSS);
+        game.closeJournal();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        game = Game.recover(file);
+        assertEquals(state, describe());
+        game.move(3, 5, Symbol.CROSS);
+        game.closeJournal();
+        assertEquals(3, Game.recover(file).getPly());
+        assertThrows(IllegalStateException.class, () -> game.fork().journalTo(file));
+    }
 }
@@ -0,0 +1,73 @@
+package g63551.dev3.oxono.model.command;
+
+import g63551.dev3.oxono.model.BoardType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsAreReadBack() throws IOException {
+        Path file = directory.resolve("game.journal");
+        try (CommandJournal journal = CommandJournal.create(file, 6, 3, BoardType.BITBOARD)) {
+            for (int i = 0; i < 1000; i++) {
+                journal.append(CommandJournal.DO, i * 37);
+            }
+            journal.append(CommandJournal.UNDO, 0);
+            journal.append(CommandJournal.SEEK, 12);
+            journal.flush();
+            assertEquals(CommandJournal.HEADER_BYTES + 1002L * CommandJournal.RECORD_BYTES, Files.size(file));
+        }
+
+        CommandJournal.Contents contents = CommandJournal.read(file);
+        assertEquals(6, contents.getSize());
+        assertEquals(3, contents.getLevel());
+        assertEquals(BoardType.BITBOARD, contents.getBoardType());
+        assertFalse(contents.isTorn());
+        int[] records = contents.getRecords();
+        assertEquals(1002, records.length);
+        assertEquals(CommandJournal.record(CommandJournal.DO, 999 * 37), records[999]);
+        assertEquals(CommandJournal.UNDO, CommandJournal.operation(records[1000]));
+        assertEquals(CommandJournal.SEEK, CommandJournal.operation(records[1001]));
+        assertEquals(12, CommandJournal.argument(records[1001]));
+    }
+
+    @Test
+    void testTornTailIsCutOff() throws IOException {
+        Path file = directory.resolve("game.journal");
+        try (CommandJournal journal = CommandJournal.create(file, 8, 2, BoardType.ARRAY)) {
+            journal.append(CommandJournal.DO, 5);
+            journal.append(CommandJournal.DO, 6);
+        }
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, StandardOpenOption.APPEND);
+
+        CommandJournal.Contents contents = CommandJournal.read(file);
+        assertTrue(contents.isTorn());
+        assertEquals(2, contents.getRecords().length);
+        try (CommandJournal journal = CommandJournal.reopen(file, contents)) {
+            journal.append(CommandJournal.REDO, 0);
+        }
+        contents = CommandJournal.read(file);
+        assertFalse(contents.isTorn());
+        assertEquals(3, contents.getRecords().length);
+        assertEquals(CommandJournal.REDO, CommandJournal.operation(contents.getRecords()[2]));
+    }
+
+    @Test
+    void testNotAJournal() throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file, new byte[32]);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> CommandJournal.read(file));
+        assertEquals("Not a journal file: " + file, exception.getMessage());
+    }
+}
@@ -0,0 +1,119 @@
+package g63551.dev3.oxono.model.command;
+
+import g63551.dev3.oxono.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandManagerTest {
+    private Board board;
+    private Player pink;
+    private Player black;
+    private CommandCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        board = BoardType.ARRAY.create(6);
+        pink = new Player(Color.PINK);
+        black = new Player(Color.BLACK);
+        codec = new CommandCodec(board, pink, black);
+    }
+
+    /**
+     * Plays random turns through the manager and returns the hash of the board before each command.
+     */
+    private List<Long> playRandomTurns(CommandManager manager, int turns, Random random) {
+        List<Long> hashes = new ArrayList<>();
+        Player player = pink;
+        for (int i = 0; i < turns; i++) {
+            Symbol symbol = random.nextBoolean() ? Symbol.CROSS : Symbol.CIRCLE;
+            List<Position> moves = board.getPossibleTotemMoves(symbol);
+            hashes.add(board.getHash());
+            manager.doIt(new MoveTotemCmd(board, board.getTotem(symbol), board.getPosTotem(symbol),
+                    moves.get(random.nextInt(moves.size())), board.getLastMoved()));
+            List<Position> cells = board.getEmptyPositions(symbol, player.getColor());
+            hashes.add(board.getHash());
+            manager.doIt(new InsertTokenCmd(board, Token.of(symbol, player.getColor()),
+                    cells.get(random.nextInt(cells.size())), player));
+            player = (player == pink) ? black : pink;
+        }
+        hashes.add(board.getHash());
+        return hashes;
+    }
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        Position from = board.getPosTotem(Symbol.CIRCLE);
+        Command move = new MoveTotemCmd(board, board.getTotem(Symbol.CIRCLE), from, Position.of(2, 0), Symbol.CROSS);
+        Command insert = new InsertTokenCmd(board, Token.of(Symbol.CROSS, Color.BLACK), Position.of(5, 4), black);
+
+        MoveTotemCmd decodedMove = (MoveTotemCmd) codec.decode(codec.encode(move));
+        assertSame(board.getTotem(Symbol.CIRCLE), decodedMove.getTotem());
+        assertEquals(from, decodedMove.getPosInitiale());
+        assertEquals(Position.of(2, 0), decodedMove.getPosFinale());
+        assertEquals(Symbol.CROSS, decodedMove.getInitialSymbol());
+
+        InsertTokenCmd decodedInsert = (InsertTokenCmd) codec.decode(codec.encode(insert));
+        assertSame(Token.of(Symbol.CROSS, Color.BLACK), decodedInsert.getToken());
+        assertEquals(Position.of(5, 4), decodedInsert.getPosFinale());
+    }
+
+    @Test
+    void testUndoRedoRestoresTheBoard() {
+        CommandManager manager = new CommandManager(codec);
+        List<Long> hashes = playRandomTurns(manager, 10, new Random(1));
+        int pinkCrosses = pink.getNbTokens(Symbol.CROSS);
+
+        for (int i = hashes.size() - 1; i > 0; i--) {
+            assertEquals(hashes.get(i), board.getHash());
+            manager.undo();
+        }
+        assertEquals(hashes.get(0), board.getHash());
+        assertEquals(8, pink.getNbTokens(Symbol.CROSS));
+        assertFalse(manager.canUndo());
+
+        while (manager.canRedo()) {
+            manager.redo();
+        }
+        assertEquals(hashes.get(hashes.size() - 1), board.getHash());
+        assertEquals(pinkCrosses, pink.getNbTokens(Symbol.CROSS));
+    }
+
+    @Test
+    void testCappedHistoryForgetsTheOldestCommands() {
+        CommandManager manager = new CommandManager(codec, 5);
+        List<Long> hashes = playRandomTurns(manager, 6, new Random(2));
+        assertEquals(5, manager.getUndoSize());
+
+        for (int i = 0; i < 5; i++) {
+            manager.undo();
+        }
+        assertEquals(hashes.get(hashes.size() - 6), board.getHash());
+        IllegalStateException exception = assertThrows(IllegalStateException.class, manager::undo);
+        assertEquals("undo stack is empty !", exception.getMessage());
+    }
+
+    @Test
+    void testJournalFailureDetachesTheJournal(@TempDir Path directory) throws IOException {
+        CommandManager manager = new CommandManager(codec);
+        CommandJournal journal = CommandJournal.create(directory.resolve("oxono.journal"), 6, 1, BoardType.ARRAY);
+        manager.setJournal(journal);
+        journal.close(); // Later appends fail like a journal whose writer failed
+
+        playRandomTurns(manager, 2, new Random(3));
+        assertNull(manager.getJournal());
+        assertEquals(4, manager.getUndoSize());
+        assertNotNull(manager.takeJournalFailure());
+        assertNull(manager.takeJournalFailure());
+        manager.undo();
+        assertEquals(1, manager.getRedoSize());
+    }
+}
@@ -0,0 +1,137 @@
+package g63551.dev3.oxono.model.solver;
+
+import g63551.dev3.oxono.model.*;
+import g63551.dev3.oxono.model.strategy.RandomStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverTest {
+
+    @TempDir
+    Path directory;
+
+    private static int transpose(int cell) {
+        return (cell % 4) * 4 + cell / 4;
+    }
+
+    /**
+     * Plays random turns until the given number of tokens is on the board, without ending the game.
+     */
+    private static Board randomPosition(long seed, int tokens) {
+        Random random = new Random(seed);
+        while (true) {
+            Board board = new Board(4);
+            RandomStrategy strategy = new RandomStrategy(random);
+            int played = 0;
+            while (played < tokens) {
+                int turn = strategy.chooseTurn(board);
+                board.makeMove(turn);
+                if (board.isWinningCell(Moves.insertCell(turn))) {
+                    break;
+                }
+                played++;
+            }
+            if (played == tokens) {
+                return board;
+            }
+        }
+    }
+
+    /**
+     * Plain negamax to the end of the game, returning 1, 0 or -1 for the player to move.
+     */
+    private static int outcome(Board board) {
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        int best = (count == 0) ? 0 : -1;
+        for (int i = 0; i < count && best < 1; i++) {
+            board.makeMove(turns[i]);
+            int result = board.isWinningCell(Moves.insertCell(turns[i])) ? 1 : -outcome(board);
+            board.unmakeMove();
+            best = Math.max(best, result);
+        }
+        return best;
+    }
+
+    @Test
+    void testCanonicalKeyIsTheSameForSymmetricPositions() {
+        Random random = new Random(3);
+        Board board = new Board(4);
+        Board transposed = new Board(4);
+        RandomStrategy strategy = new RandomStrategy(random);
+        for (int i = 0; i < 6; i++) {
+            int turn = strategy.chooseTurn(board);
+            int totemMove = Moves.totemMove(turn);
+            board.makeMove(turn);
+            transposed.makeMove(Moves.turn(
+                    Moves.encode(transpose(Moves.cell(totemMove)), Moves.symbol(totemMove)),
+                    transpose(Moves.insertCell(turn))));
+            assertEquals(CanonicalKey.of(board), CanonicalKey.of(transposed));
+        }
+        assertThrows(IllegalArgumentException.class, () -> CanonicalKey.of(new Board(6)));
+    }
+
+    @Test
+    void testSolveAgreesWithPlainSearch() {
+        for (long seed = 0; seed < 6; seed++) {
+            Board board = randomPosition(seed, 8);
+            int expected = outcome(board.copy());
+            int value = new Solver(new SolutionTable(16), null).solve(board, Long.MAX_VALUE);
+            assertEquals(expected, Integer.signum(value), "seed " + seed);
+            Solver solver = new Solver(new SolutionTable(16), null);
+            int parallel = solver.solve(board, ForkJoinPool.commonPool());
+            assertEquals(value, parallel, "seed " + seed);
+
+            board.makeMove(solver.getBestTurn());
+            int reached = board.isWinningCell(Moves.insertCell(solver.getBestTurn())) ? Solver.WIN - 1
+                    : Solver.valueOfTurn(new Solver(new SolutionTable(16), null).solve(board, Long.MAX_VALUE));
+            board.unmakeMove();
+            assertEquals(value, reached, "seed " + seed);
+        }
+    }
+
+    @Test
+    void testSolutionFileKeepsTheSolvedPositions() throws IOException {
+        Board board = randomPosition(7, 6);
+        SolutionTable table = new SolutionTable(18);
+        int value = new Solver(table, null).solve(board, Long.MAX_VALUE);
+        Path file = directory.resolve("oxono-4.solution");
+        table.save(file);
+
+        SolutionFile solution = SolutionFile.open(file);
+        assertEquals(table.size(), solution.getCount());
+        long entry = solution.get(CanonicalKey.of(board));
+        assertEquals(SolutionTable.EXACT, SolutionTable.bound(entry));
+        assertEquals(value, SolutionTable.value(entry));
+        assertEquals(0, solution.get(1L));
+
+        SolutionTable resumed = new SolutionTable(18);
+        resumed.load(file);
+        assertEquals(table.size(), resumed.size());
+        assertEquals(value, new Solver(resumed, null).solve(board, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testSolutionFileFindsKeysWithTheirHighestBitSet() throws IOException {
+        SolutionTable table = new SolutionTable(10);
+        long[] keys = {1L, 0x7FFF_FFFF_FFFFL, 1L << 47, (1L << CanonicalKey.BITS) - 1, 0x8123_4567_89ABL};
+        for (long key : keys) {
+            table.put(key, 3, SolutionTable.EXACT);
+        }
+        Path file = directory.resolve("oxono-4.solution");
+        table.save(file);
+
+        SolutionFile solution = SolutionFile.open(file);
+        for (long key : keys) {
+            assertEquals(3, SolutionTable.value(solution.get(key)), "key " + Long.toHexString(key));
+        }
+        assertEquals(0, solution.get(0x8000_0000_0001L));
+    }
+}
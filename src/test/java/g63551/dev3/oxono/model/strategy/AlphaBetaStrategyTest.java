@@ -0,0 +1,128 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlphaBetaStrategyTest {
+
+    @Test
+    void testCompletesAlignment() {
+        Game game = TestPositions.threeCirclesInColumnOne();
+
+        new AlphaBetaStrategy(1, 1000).play(game);
+        assertTrue(game.isEnd());
+        assertEquals(Color.BLACK, game.getCurrentColor());
+    }
+
+    @Test
+    void testNeverMissesWinOrAvoidableLoss() {
+        for (int game = 0; game < 30; game++) {
+            Game g = new Game(6, 1);
+            RandomStrategy random = new RandomStrategy();
+            for (int turn = 0; turn < 8 + game % 10 && !g.isEnd() && !g.isDraw(); turn++) {
+                random.play(g);
+            }
+            if (g.isEnd() || g.isDraw()) {
+                continue;
+            }
+
+            Board board = g.snapshot(BoardType.ARRAY);
+            int[] turns = new int[board.maxTurns()];
+            int count = board.generateTurns(turns);
+            boolean canWin = false;
+            boolean canAvoidLoss = false;
+            for (int i = 0; i < count; i++) {
+                board.makeMove(turns[i]);
+                if (board.isWinningCell(Moves.insertCell(turns[i]))) {
+                    canWin = true;
+                } else if (!hasWinningTurn(board)) {
+                    canAvoidLoss = true;
+                }
+                board.unmakeMove();
+            }
+
+            new AlphaBetaStrategy(2, 5000).play(g);
+            if (canWin) {
+                assertTrue(g.isEnd());
+            } else if (canAvoidLoss) {
+                assertFalse(hasWinningTurn(g.snapshot(BoardType.ARRAY)));
+            }
+        }
+    }
+
+    private boolean hasWinningTurn(Board board) {
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        for (int i = 0; i < count; i++) {
+            board.makeMove(turns[i]);
+            boolean won = board.isWinningCell(Moves.insertCell(turns[i]));
+            board.unmakeMove();
+            if (won) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testRespectsTimeBudget() {
+        for (int size : new int[]{6, 8}) {
+            Game game = new Game(size, 1);
+            game.move(size / 2 - 1, 0, Symbol.CIRCLE);
+            game.insert(size / 2 - 1, 1);
+            long start = System.nanoTime();
+            new AlphaBetaStrategy(8, 300).play(game);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(elapsedMillis < 1000, "search took " + elapsedMillis + " ms");
+            assertEquals(Color.PINK, game.getCurrentColor());
+        }
+    }
+
+    @Test
+    void testCancelReturnsBestSoFar() throws Exception {
+        Game game = new Game(8, 1);
+        game.move(3, 0, Symbol.CIRCLE);
+        game.insert(3, 1);
+        Board board = game.snapshot(BoardType.BITBOARD);
+        AlphaBetaStrategy strategy = new AlphaBetaStrategy(8, 60_000);
+        CancellationToken token = new CancellationToken();
+        int[] chosen = new int[1];
+        Thread search = new Thread(() -> chosen[0] = strategy.chooseTurn(board, token));
+
+        long start = System.nanoTime();
+        search.start();
+        Thread.sleep(200);
+        token.cancel();
+        search.join(2000);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertFalse(search.isAlive());
+        assertTrue(elapsedMillis < 2000, "search took " + elapsedMillis + " ms");
+
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        assertTrue(Arrays.stream(turns, 0, count).anyMatch(turn -> turn == chosen[0]));
+    }
+
+    @Test
+    void testCancelBeforeSearchIsNotLost() {
+        Game game = new Game(8, 1);
+        game.move(3, 0, Symbol.CIRCLE);
+        game.insert(3, 1);
+        Board board = game.snapshot(BoardType.BITBOARD);
+        AlphaBetaStrategy strategy = new AlphaBetaStrategy(8, 60_000);
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        long start = System.nanoTime();
+        int turn = strategy.chooseTurn(board, token);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis < 2000, "search took " + elapsedMillis + " ms");
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        assertTrue(Arrays.stream(turns, 0, count).anyMatch(legal -> legal == turn));
+    }
+}
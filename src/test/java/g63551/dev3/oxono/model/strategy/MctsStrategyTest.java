@@ -0,0 +1,53 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsStrategyTest {
+
+    @Test
+    void testCompletesAlignment() {
+        Game game = TestPositions.threeCirclesInColumnOne();
+
+        new MctsStrategy(500, 2, new Random(1)).play(game);
+        assertTrue(game.isEnd());
+        assertEquals(Color.BLACK, game.getCurrentColor());
+    }
+
+    @Test
+    void testRespectsTimeBudget() {
+        Game game = new Game(8, 1);
+        game.move(3, 0, Symbol.CIRCLE);
+        game.insert(3, 1);
+        MctsStrategy strategy = new MctsStrategy(300, 2, new Random(2));
+        long start = System.nanoTime();
+        strategy.play(game);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis < 1000, "search took " + elapsedMillis + " ms");
+        assertEquals(Color.PINK, game.getCurrentColor());
+        assertTrue(strategy.getLastPlayouts() > 0);
+    }
+
+    @Test
+    void testReusesTreeAfterExpectedReply() {
+        Board board = new Game(6, 1).snapshot(BoardType.BITBOARD);
+        MctsStrategy strategy = new MctsStrategy(300, 2, new Random(3));
+        int turn = strategy.chooseTurn(board);
+
+        MctsNode child = strategy.getRoot().mostVisitedChild();
+        assertEquals(turn, child.getTurn());
+        MctsNode reply = child.mostVisitedChild();
+        assertNotNull(reply);
+        board.makeMove(turn);
+        board.makeMove(reply.getTurn());
+        int previousVisits = reply.getVisits();
+
+        strategy.chooseTurn(board);
+        assertSame(reply, strategy.getRoot());
+        assertTrue(strategy.getRoot().getVisits() >= previousVisits + strategy.getLastPlayouts());
+    }
+}
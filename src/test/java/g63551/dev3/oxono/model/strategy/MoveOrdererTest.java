@@ -0,0 +1,55 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveOrdererTest {
+
+    @Test
+    void testWinsAndBlocksComeFirst() {
+        Game game = TestPositions.threeCirclesInColumnOne();
+        Board board = game.snapshot(BoardType.ARRAY);
+
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        MoveOrderer orderer = new MoveOrderer(6, 2, board.maxTurns(), true);
+        orderer.score(board, turns, count, 0, -1);
+        orderer.pick(turns, count, 0, 0);
+
+        // Black completes the circles in (3, 1), which also stops pink from finishing its line
+        board.makeMove(turns[0]);
+        assertTrue(board.isWinningCell(Moves.insertCell(turns[0])));
+        assertEquals(3 * 6 + 1, Moves.insertCell(turns[0]));
+    }
+
+    @Test
+    void testOrderingReducesNodes() {
+        RandomStrategy random = new RandomStrategy(new Random(5));
+        long orderedNodes = 0;
+        long plainNodes = 0;
+        for (int game = 0; game < 6; game++) {
+            Game g = new Game(6, 1);
+            for (int turn = 0; turn < 4 + game; turn++) {
+                random.play(g);
+            }
+            if (g.isEnd() || g.isDraw()) {
+                continue;
+            }
+            long deadline = System.nanoTime() + 60_000_000_000L;
+            Searcher ordered = new Searcher(g.snapshot(BoardType.BITBOARD), new WindowEvaluator(), 3, new TranspositionTable(1), true);
+            Searcher plain = new Searcher(g.snapshot(BoardType.BITBOARD), new WindowEvaluator(), 3, new TranspositionTable(1), false);
+            ordered.searchRoot(3, deadline);
+            plain.searchRoot(3, deadline);
+
+            assertEquals(plain.getRootScore(), ordered.getRootScore());
+            assertTrue(ordered.getFirstMoveCutoffs() <= ordered.getCutoffs());
+            orderedNodes += ordered.getNodes();
+            plainNodes += plain.getNodes();
+        }
+        assertTrue(orderedNodes < plainNodes, orderedNodes + " nodes with ordering, " + plainNodes + " without");
+    }
+}
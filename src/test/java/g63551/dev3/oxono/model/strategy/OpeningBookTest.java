@@ -0,0 +1,68 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteAndLookup() throws IOException {
+        Map<Long, Integer> turns = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            turns.put(random.nextLong(), i);
+        }
+        Path file = directory.resolve("test.book");
+        OpeningBook.write(file, 6, turns);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(6, book.getSize());
+        assertEquals(1000, book.getCount());
+        for (Map.Entry<Long, Integer> entry : turns.entrySet()) {
+            assertEquals(entry.getValue(), book.lookup(entry.getKey()));
+        }
+        assertEquals(-1, book.lookup(42L));
+    }
+
+    @Test
+    void testRejectsInvalidFile() throws IOException {
+        Path file = directory.resolve("invalid.book");
+        Files.write(file, new byte[20]);
+        assertThrows(IllegalStateException.class, () -> OpeningBook.open(file));
+    }
+
+    @Test
+    void testBookStrategyPlaysBookTurnsThenFallsBack() throws IOException {
+        Game game = new Game(6, 1);
+        Board board = game.snapshot(BoardType.ARRAY);
+        int[] turns = new int[board.maxTurns()];
+        board.generateTurns(turns);
+        int bookTurn = turns[5];
+        Path file = directory.resolve("oxono-6.book");
+        OpeningBook.write(file, 6, Map.of(board.getHash(), bookTurn, 12345L, 0));
+
+        BookStrategy strategy = new BookStrategy(OpeningBook.open(file), new RandomStrategy(new Random(2)));
+        strategy.play(game);
+        Board expected = new Board(6);
+        expected.makeMove(bookTurn);
+        assertEquals(expected.getHash(), game.getHash());
+
+        // Out of the book, the fallback strategy plays
+        strategy.play(game);
+        assertEquals(Color.PINK, game.getCurrentColor());
+        assertEquals(GameState.MOVE, game.getGameState());
+    }
+}
@@ -0,0 +1,48 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSearcherTest {
+
+    @Test
+    void testSameScoreAsSingleThreadedSearch() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        RandomStrategy random = new RandomStrategy(new Random(3));
+        int searched = 0;
+        try {
+            for (int game = 0; game < 6; game++) {
+                Game g = new Game(6, 1);
+                for (int turn = 0; turn < 4 + game; turn++) {
+                    random.play(g);
+                }
+                if (g.isEnd() || g.isDraw()) {
+                    continue;
+                }
+                long deadline = System.nanoTime() + 60_000_000_000L;
+
+                Searcher serial = new Searcher(g.snapshot(BoardType.BITBOARD), new WindowEvaluator(), 2, new TranspositionTable(1));
+                serial.searchRoot(2, deadline);
+                Board board = g.snapshot(BoardType.BITBOARD);
+                long hash = board.getHash();
+                ParallelSearcher parallel = new ParallelSearcher(board, new WindowEvaluator(), 2, new TranspositionTable(1), pool);
+                int turn = parallel.searchRoot(2, deadline, -1);
+
+                assertFalse(parallel.isAborted());
+                assertEquals(serial.getRootScore(), parallel.getRootScore());
+                assertEquals(hash, board.getHash());
+                assertTrue(parallel.getNodes() > 0);
+                board.makeMove(turn); // Legal, or the board would reject it
+                searched++;
+            }
+            assertTrue(searched > 3);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
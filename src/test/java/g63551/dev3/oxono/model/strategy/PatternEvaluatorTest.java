@@ -0,0 +1,55 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternEvaluatorTest {
+
+    @Test
+    void testRunningScoreMatchesFullScan() {
+        WindowEvaluator scan = new WindowEvaluator();
+        for (BoardType type : BoardType.values()) {
+            for (int size : new int[]{4, 6, 8}) {
+                Random random = new Random(size);
+                Board board = type.create(size);
+                Evaluator incremental = new PatternEvaluator().attach(board);
+                RandomStrategy strategy = new RandomStrategy(random);
+                int played = 0;
+                for (int turn = strategy.chooseTurn(board); turn >= 0; turn = strategy.chooseTurn(board)) {
+                    board.makeMove(turn);
+                    played++;
+                    assertEquals(scan.evaluate(board), incremental.evaluate(board), type + " " + size);
+                    if (board.isWinningCell(Moves.insertCell(turn))) {
+                        break;
+                    }
+                }
+                for (int i = 0; i < played; i++) {
+                    board.unmakeMove();
+                    assertEquals(scan.evaluate(board), incremental.evaluate(board), type + " " + size);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testAttachedEvaluatorsFollowTheirOwnBoard() {
+        Board board = new Board(6);
+        Evaluator evaluator = new PatternEvaluator();
+        Evaluator attached = evaluator.attach(board);
+        board.makeMove(new RandomStrategy(new Random(1)).chooseTurn(board));
+        Board copy = board.copy();
+        Evaluator copyEvaluator = evaluator.attach(copy);
+        RandomStrategy strategy = new RandomStrategy(new Random(2));
+        for (int i = 0; i < 5; i++) {
+            copy.makeMove(strategy.chooseTurn(copy));
+        }
+        WindowEvaluator scan = new WindowEvaluator();
+        assertEquals(scan.evaluate(board), attached.evaluate(board));
+        assertEquals(scan.evaluate(copy), copyEvaluator.evaluate(copy));
+        assertEquals(scan.evaluate(copy), evaluator.evaluate(copy));
+    }
+}
@@ -0,0 +1,75 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+import g63551.dev3.oxono.model.solver.SolutionTable;
+import g63551.dev3.oxono.model.solver.Solver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfectPlayStrategyTest {
+
+    @Test
+    void testPlayedTurnsKeepTheValueOfThePosition() {
+        Random random = new Random(5);
+        RandomStrategy opponent = new RandomStrategy(random);
+        PerfectPlayStrategy strategy = new PerfectPlayStrategy(null, opponent, 10_000);
+        Board board = new Board(4);
+        for (int i = 0; i < 4; i++) {
+            board.makeMove(opponent.chooseTurn(board));
+        }
+        while (true) {
+            int value = new Solver(new SolutionTable(20), null).solve(board.copy(), Long.MAX_VALUE);
+            int turn = strategy.chooseTurn(board.copy());
+            if (turn < 0) {
+                break;
+            }
+            board.makeMove(turn);
+            if (board.isWinningCell(Moves.insertCell(turn))) {
+                assertEquals(Solver.WIN - 1, value);
+                break;
+            }
+            int reached = new Solver(new SolutionTable(20), null).solve(board.copy(), Long.MAX_VALUE);
+            assertEquals(value, Solver.valueOfTurn(reached));
+
+            turn = opponent.chooseTurn(board);
+            if (turn < 0) {
+                break;
+            }
+            board.makeMove(turn);
+            if (board.isWinningCell(Moves.insertCell(turn))) {
+                fail("Perfect play lost a position it could hold");
+            }
+        }
+    }
+
+    @Test
+    void testOtherSizesUseTheFallback() {
+        Board board = new Board(6);
+        PerfectPlayStrategy strategy = new PerfectPlayStrategy(null, new RandomStrategy(new Random(1)), 1000);
+        int turn = strategy.chooseTurn(board);
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        assertTrue(Arrays.stream(turns, 0, count).anyMatch(t -> t == turn));
+    }
+
+    @Test
+    void testPonderingIsForwardedToTheFallback() {
+        Board board = new Board(6);
+        PonderingStrategy fallback = new PonderingStrategy(new AlphaBetaStrategy(3, 5000));
+        PerfectPlayStrategy strategy = new PerfectPlayStrategy(null, fallback, 1000);
+        board.makeMove(new RandomStrategy(new Random(4)).chooseTurn(board));
+        board.makeMove(strategy.chooseTurn(board.copy()));
+
+        int expected = strategy.predictTurn(board);
+        assertEquals(fallback.predictTurn(board), expected);
+        assertTrue(expected >= 0);
+        strategy.ponder(board.copy());
+        board.makeMove(expected);
+        strategy.chooseTurn(board.copy());
+        assertEquals(1, fallback.getHits());
+    }
+}
@@ -0,0 +1,60 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PonderingStrategyTest {
+
+    private static boolean isLegal(Board board, int turn) {
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        return Arrays.stream(turns, 0, count).anyMatch(t -> t == turn);
+    }
+
+    /**
+     * Lets the strategy play the first turn, then returns the position with the opponent to move.
+     */
+    private static Board afterOwnTurn(PonderingStrategy strategy) {
+        Board board = new Board(6);
+        board.makeMove(new RandomStrategy(new Random(4)).chooseTurn(board));
+        board.makeMove(strategy.chooseTurn(board.copy()));
+        return board;
+    }
+
+    @Test
+    void testExpectedAnswerReusesTheBackgroundSearch() {
+        PonderingStrategy strategy = new PonderingStrategy(new AlphaBetaStrategy(3, 5000));
+        Board board = afterOwnTurn(strategy);
+        int expected = strategy.predictTurn(board);
+        assertTrue(expected >= 0);
+
+        strategy.ponder(board.copy());
+        board.makeMove(expected);
+        int turn = strategy.chooseTurn(board.copy());
+        assertEquals(1, strategy.getHits());
+        assertEquals(0, strategy.getMisses());
+        assertTrue(isLegal(board, turn));
+    }
+
+    @Test
+    void testOtherAnswerDiscardsTheBackgroundSearch() {
+        PonderingStrategy strategy = new PonderingStrategy(new AlphaBetaStrategy(3, 5000));
+        Board board = afterOwnTurn(strategy);
+        int expected = strategy.predictTurn(board);
+        int[] turns = new int[board.maxTurns()];
+        int count = board.generateTurns(turns);
+        int other = (turns[0] != expected) ? turns[0] : turns[count - 1];
+
+        strategy.ponder(board.copy());
+        board.makeMove(other);
+        int turn = strategy.chooseTurn(board.copy());
+        assertEquals(0, strategy.getHits());
+        assertEquals(1, strategy.getMisses());
+        assertTrue(isLegal(board, turn));
+    }
+}
@@ -0,0 +1,34 @@
+package g63551.dev3.oxono.model.strategy;
+
+import g63551.dev3.oxono.model.Game;
+import g63551.dev3.oxono.model.Symbol;
+
+/**
+ * Positions shared by the tests of the strategies.
+ */
+final class TestPositions {
+
+    private TestPositions() {
+    }
+
+    /**
+     * Returns a 6x6 game where pink has placed three circles in column 1, at rows 0 to 2, and
+     * black has answered far away, so that black wins by inserting a fourth circle at (3, 1).
+     *
+     * @return the game, black to move
+     */
+    static Game threeCirclesInColumnOne() {
+        Game game = new Game(6, 1);
+        game.move(2, 0, Symbol.CIRCLE);
+        game.insert(2, 1);
+        game.move(3, 5, Symbol.CROSS);
+        game.insert(4, 5);
+        game.move(1, 0, Symbol.CIRCLE);
+        game.insert(1, 1);
+        game.move(3, 4, Symbol.CROSS);
+        game.insert(4, 4);
+        game.move(0, 0, Symbol.CIRCLE);
+        game.insert(0, 1);
+        return game;
+    }
+}
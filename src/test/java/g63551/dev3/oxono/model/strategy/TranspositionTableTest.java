@@ -0,0 +1,82 @@
+package g63551.dev3.oxono.model.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(65536, table.capacity());
+        long key = 0x1234_5678_9ABC_DEF0L;
+        assertEquals(0L, table.probe(key));
+
+        table.store(key, 5, TranspositionTable.LOWER, -Searcher.WIN + 3, 0x2A_0013);
+        long entry = table.probe(key);
+        assertEquals(0x2A_0013, TranspositionTable.turn(entry));
+        assertEquals(-Searcher.WIN + 3, TranspositionTable.score(entry));
+        assertEquals(5, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+
+        assertEquals(0L, table.probe(key ^ (1L << 40))); // Same slot, other position
+        table.clear();
+        assertEquals(0L, table.probe(key));
+    }
+
+    @Test
+    void testDepthPreferredReplacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 42;
+        long other = key + table.capacity();
+        table.store(key, 6, TranspositionTable.EXACT, 100, 7);
+        table.store(other, 2, TranspositionTable.EXACT, 200, 8);
+        assertNotEquals(0L, table.probe(key));
+        assertEquals(0L, table.probe(other));
+
+        table.store(key, 3, TranspositionTable.UPPER, 50, -1);
+        assertEquals(6, TranspositionTable.depth(table.probe(key)));
+
+        table.newSearch();
+        table.store(other, 2, TranspositionTable.EXACT, 200, 8);
+        assertEquals(0L, table.probe(key));
+        assertEquals(200, TranspositionTable.score(table.probe(other)));
+
+        table.store(other, 4, TranspositionTable.LOWER, 300, -1);
+        assertEquals(8, TranspositionTable.turn(table.probe(other)));
+    }
+
+    @Test
+    void testConcurrentAccessNeverReturnsTornEntries() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicBoolean failed = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    long key = random.nextLong(1024) * 0x9E37_79B9_7F4A_7C15L;
+                    if (random.nextBoolean()) {
+                        table.store(key, 1 + random.nextInt(20), TranspositionTable.EXACT, (int) (key >>> 45), (int) key);
+                    } else {
+                        long entry = table.probe(key);
+                        if (entry != 0 && (TranspositionTable.turn(entry) != (int) key
+                                || TranspositionTable.score(entry) != (int) (key >>> 45))) {
+                            failed.set(true);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(failed.get());
+    }
+}
@@ -0,0 +1,86 @@
+package g63551.dev3.oxono.tools;
+
+import g63551.dev3.oxono.model.Board;
+import g63551.dev3.oxono.model.BoardType;
+import g63551.dev3.oxono.model.Game;
+import g63551.dev3.oxono.model.Symbol;
+import g63551.dev3.oxono.model.strategy.RandomStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchScoreTest {
+
+    private static MatchScore score(int wins, int draws, int losses) {
+        MatchScore score = new MatchScore();
+        for (int i = 0; i < wins; i++) {
+            score.add(1);
+        }
+        for (int i = 0; i < draws; i++) {
+            score.add(0);
+        }
+        for (int i = 0; i < losses; i++) {
+            score.add(-1);
+        }
+        return score;
+    }
+
+    @Test
+    void testEloDifference() {
+        assertEquals(0, score(10, 20, 10).elo(), 1e-9);
+        assertEquals(-400 * Math.log10(1 / 0.75 - 1), score(30, 0, 10).elo(), 1e-9);
+        assertTrue(score(30, 0, 10).eloError() > score(300, 0, 100).eloError());
+        assertEquals(Double.POSITIVE_INFINITY, score(5, 0, 0).elo());
+    }
+
+    @Test
+    void testSprtStopsOnClearResults() {
+        assertEquals(1, score(150, 40, 60).sprt(0, 20, 0.05, 0.05));
+        assertEquals(-1, score(300, 300, 300).sprt(20, 40, 0.05, 0.05));
+        assertEquals(0, score(3, 2, 3).sprt(0, 20, 0.05, 0.05));
+    }
+
+    /**
+     * Plays a 6x6 game where pink places three circles in column 1 while black places crosses in
+     * row 4; black can then win at once with a fourth circle.
+     */
+    private static Game threeCircles() {
+        Game game = new Game(6, 1);
+        game.move(2, 0, Symbol.CIRCLE);
+        game.insert(2, 1);
+        game.move(3, 5, Symbol.CROSS);
+        game.insert(4, 5);
+        game.move(1, 0, Symbol.CIRCLE);
+        game.insert(1, 1);
+        game.move(3, 4, Symbol.CROSS);
+        game.insert(4, 4);
+        game.move(0, 0, Symbol.CIRCLE);
+        game.insert(0, 1);
+        return game;
+    }
+
+    @Test
+    void testGamesAreScoredForTheWinner() {
+        ScheduledExecutorService clock = Executors.newSingleThreadScheduledExecutor();
+        try {
+            Game game = threeCircles();
+            Board blackToWin = game.snapshot(BoardType.ARRAY);
+            assertEquals(-1, Arena.playGame(blackToWin, new RandomStrategy(new Random(1)),
+                    Arena.createStrategy("alphabeta:2", 1000), 1000, clock));
+
+            // Black plays a third cross in row 4 instead, and pink wins at once
+            game.move(3, 3, Symbol.CROSS);
+            game.insert(4, 3);
+            Board pinkToWin = game.snapshot(BoardType.ARRAY);
+            assertEquals(1, Arena.playGame(pinkToWin, Arena.createStrategy("alphabeta:2", 1000),
+                    new RandomStrategy(new Random(2)), 1000, clock));
+        } finally {
+            clock.shutdownNow();
+        }
+        assertThrows(IllegalArgumentException.class, () -> Arena.createStrategy("minimax", 10));
+    }
+}
@@ -0,0 +1,50 @@
+package g63551.dev3.oxono.tools;
+
+import g63551.dev3.oxono.model.BoardType;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+
+    /**
+     * Positions after 1 to 4 turns from the initial position, counted with the reference board.
+     */
+    private static final long[][] KNOWN_COUNTS = {
+            {4, 36, 904, 18_460, 308_024},
+            {6, 68, 3_612, 162_680, 6_470_416},
+            {8, 100, 8_092, 567_748, 36_100_108},
+    };
+
+    @Test
+    void testEveryBoardMatchesTheKnownCounts() {
+        for (BoardType type : BoardType.values()) {
+            for (long[] known : KNOWN_COUNTS) {
+                int size = (int) known[0];
+                int maxDepth = (size == 4) ? 4 : 3;
+                for (int depth = 1; depth <= maxDepth; depth++) {
+                    assertEquals(known[depth], Perft.count(type.create(size), depth, null), type + " " + size + " depth " + depth);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testParallelCountMatchesSerialCount() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals(KNOWN_COUNTS[0][4], Perft.count(BoardType.BITBOARD.create(4), 4, pool));
+            assertEquals(KNOWN_COUNTS[1][3], Perft.count(BoardType.ARRAY.create(6), 3, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testGeneratorMatchesTheValidationRules() {
+        assertEquals(KNOWN_COUNTS[0][2], Perft.countReference(BoardType.ARRAY.create(4), 2));
+        assertEquals(KNOWN_COUNTS[1][2], Perft.countReference(BoardType.BITBOARD.create(6), 2));
+    }
+}